@@ -0,0 +1,61 @@
+package com.example.productapi.benchmark;
+
+import com.example.productapi.config.BigDecimalDeserializer;
+import com.example.productapi.dto.ProductDTO;
+import com.example.productapi.model.Product;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Shared fixtures for the benchmarks. The object mapper is configured the way Spring Boot configures
+ * the application's mapper, including the {@link BigDecimalDeserializer} JSON component.
+ */
+final class BenchmarkSupport {
+
+    // Passed as command-line arguments so they take precedence over application.properties
+    static final String[] H2_ARGS = {
+        "--spring.datasource.url=jdbc:h2:mem:benchmarkdb;DB_CLOSE_DELAY=-1",
+        "--spring.datasource.username=sa",
+        "--spring.datasource.password=",
+        "--spring.datasource.driver-class-name=org.h2.Driver",
+        "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "--spring.jpa.hibernate.ddl-auto=validate",
+        "--spring.jpa.show-sql=false",
+        "--logging.level.root=WARN",
+        "--logging.level.com.example.productapi=WARN",
+        "--logging.level.org.springdoc=WARN"
+    };
+
+    private BenchmarkSupport() {
+    }
+
+    static ObjectMapper objectMapper() {
+        return objectMapper(new JsonFactory());
+    }
+
+    /** The same configuration on top of another format's factory, e.g. CBOR or Smile. */
+    static ObjectMapper objectMapper(JsonFactory factory) {
+        SimpleModule jsonComponents = new SimpleModule();
+        jsonComponents.addDeserializer(BigDecimal.class, new BigDecimalDeserializer());
+        return Jackson2ObjectMapperBuilder.json()
+                .factory(factory)
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .modulesToInstall(jsonComponents)
+                .build();
+    }
+
+    static Product product(long id) {
+        return new Product(id, "Product " + id, "Description of product " + id,
+                new BigDecimal("19.99").add(BigDecimal.valueOf(id)), LocalDateTime.of(2024, 1, 1, 12, 0).plusMinutes(id), 0L);
+    }
+
+    static ProductDTO productDTO(long id) {
+        return new ProductDTO("Product " + id, "Description of product " + id, new BigDecimal("19.99").add(BigDecimal.valueOf(id)));
+    }
+}
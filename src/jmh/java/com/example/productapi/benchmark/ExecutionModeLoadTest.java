@@ -0,0 +1,208 @@
+package com.example.productapi.benchmark;
+
+import com.example.productapi.ProductapiApplication;
+import com.example.productapi.model.Product;
+import com.example.productapi.repository.ProductRepository;
+import com.example.productapi.service.impl.ProductMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.ClassUtils;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Closed-loop HTTP load test comparing the platform-thread and virtual-thread servlet modes with the reactive
+ * (WebFlux + R2DBC) stack. Each simulated client is a virtual thread in this JVM that issues requests back to back
+ * (80% {@code GET /products/{id}}, 20% {@code GET /products?size=20}, both served by every stack) and records
+ * latency in an HDR histogram.
+ *
+ * <p>By default the application is started in-process on embedded H2, once per mode. H2 hardly blocks,
+ * so for realistic numbers start the application against PostgreSQL and pass {@code target=<base url>}; only
+ * that instance is measured then. Arguments are {@code key=value} pairs:
+ * <ul>
+ *   <li>{@code clients} - comma-separated concurrency levels (default {@code 1000,5000,10000})</li>
+ *   <li>{@code warmupSeconds} / {@code durationSeconds} - per level (default 5 / 20)</li>
+ *   <li>{@code modes} - any of {@code platform,virtual,reactive} when running in-process (default all three, or the
+ *   two servlet modes unless built with the reactive Maven profile)</li>
+ *   <li>{@code target} - base URL of an already running instance, e.g. {@code http://localhost:8080/productapi}</li>
+ *   <li>{@code output} - JSON results file (default {@code target/load-test-result.json})</li>
+ * </ul>
+ * Large client counts need a matching open-file limit ({@code ulimit -n}).
+ */
+public final class ExecutionModeLoadTest {
+
+    private static final int SEED_ROWS = 1_000;
+
+    private ExecutionModeLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            String[] pair = arg.split("=", 2);
+            options.put(pair[0].replaceFirst("^-+", ""), pair.length > 1 ? pair[1] : "true");
+        }
+        int[] clientLevels = Arrays.stream(options.getOrDefault("clients", "1000,5000,10000").split(","))
+                .mapToInt(level -> Integer.parseInt(level.trim()))
+                .toArray();
+        Duration warmup = Duration.ofSeconds(Long.parseLong(options.getOrDefault("warmupSeconds", "5")));
+        Duration duration = Duration.ofSeconds(Long.parseLong(options.getOrDefault("durationSeconds", "20")));
+        String target = options.get("target");
+        List<String> modes = target != null
+                ? List.of("external")
+                : List.of(options.getOrDefault("modes", defaultModes()).split(","));
+        Path output = Path.of(options.getOrDefault("output", "target/load-test-result.json"));
+
+        List<Map<String, Object>> results = new ArrayList<>();
+        for (String mode : modes) {
+            ConfigurableApplicationContext context = target == null ? start(mode) : null;
+            try {
+                String baseUrl = target != null
+                        ? target
+                        : "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/productapi";
+                long[] ids = context != null ? seed(context) : null;
+                for (int clients : clientLevels) {
+                    Map<String, Object> result = run(mode, baseUrl, ids, clients, warmup, duration);
+                    System.out.println(result);
+                    results.add(result);
+                }
+            } finally {
+                if (context != null) {
+                    context.close();
+                }
+            }
+        }
+
+        Files.createDirectories(output.toAbsolutePath().getParent());
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(output.toFile(), results);
+        System.out.println("Results written to " + output.toAbsolutePath());
+    }
+
+    private static String defaultModes() {
+        return ClassUtils.isPresent("org.springframework.web.reactive.DispatcherHandler", null)
+                ? "platform,virtual,reactive"
+                : "platform,virtual";
+    }
+
+    private static ConfigurableApplicationContext start(String mode) {
+        // Repeated command-line arguments are merged into a list, so replace the shared datasource URL instead
+        Stream<String> sharedArgs = Arrays.stream(BenchmarkSupport.H2_ARGS)
+                .filter(arg -> !arg.startsWith("--spring.datasource.url="));
+        Stream<String> reactiveArgs = "reactive".equals(mode)
+                ? Stream.of("--spring.profiles.active=reactive",
+                        "--spring.r2dbc.url=r2dbc:h2:mem:///loadtest-" + mode + ";DB_CLOSE_DELAY=-1",
+                        "--spring.r2dbc.username=sa",
+                        "--spring.r2dbc.password=")
+                : Stream.empty();
+        String[] args = Stream.of(sharedArgs, reactiveArgs, Stream.of(
+                "--spring.datasource.url=jdbc:h2:mem:loadtest-" + mode + ";DB_CLOSE_DELAY=-1",
+                "--server.port=0",
+                "--spring.threads.virtual.enabled=" + "virtual".equals(mode),
+                "--server.tomcat.max-connections=10000",
+                "--server.tomcat.accept-count=1000",
+                "--logging.level.org.hibernate=WARN"
+        )).flatMap(stream -> stream).toArray(String[]::new);
+        return new SpringApplicationBuilder(ProductapiApplication.class).run(args);
+    }
+
+    private static long[] seed(ConfigurableApplicationContext context) {
+        ProductRepository productRepository = context.getBean(ProductRepository.class);
+        List<Product> products = new ArrayList<>(SEED_ROWS);
+        for (int i = 0; i < SEED_ROWS; i++) {
+            products.add(ProductMapper.toEntity(BenchmarkSupport.productDTO(i)));
+        }
+        return productRepository.saveAll(products).stream().mapToLong(Product::getId).toArray();
+    }
+
+    private static Map<String, Object> run(String mode, String baseUrl, long[] ids, int clients,
+                                           Duration warmup, Duration duration) throws InterruptedException {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        Recorder recorder = new Recorder(3);
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicBoolean measuring = new AtomicBoolean(false);
+        AtomicLong completed = new AtomicLong();
+        AtomicLong errors = new AtomicLong();
+
+        try (ExecutorService clientThreads = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < clients; i++) {
+                clientThreads.submit(() -> {
+                    while (running.get()) {
+                        HttpRequest request = HttpRequest.newBuilder(nextUri(baseUrl, ids))
+                                .timeout(Duration.ofSeconds(30))
+                                .GET()
+                                .build();
+                        long start = System.nanoTime();
+                        boolean ok;
+                        try {
+                            ok = httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() < 500;
+                        } catch (Exception e) {
+                            ok = false;
+                        }
+                        if (measuring.get()) {
+                            if (ok) {
+                                recorder.recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+                                completed.incrementAndGet();
+                            } else {
+                                errors.incrementAndGet();
+                            }
+                        }
+                    }
+                    return null;
+                });
+            }
+            Thread.sleep(warmup.toMillis());
+            recorder.reset();
+            measuring.set(true);
+            Thread.sleep(duration.toMillis());
+            measuring.set(false);
+            running.set(false);
+        }
+
+        Histogram histogram = recorder.getIntervalHistogram();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("mode", mode);
+        result.put("clients", clients);
+        result.put("requests", completed.get());
+        result.put("errors", errors.get());
+        result.put("throughputPerSecond", completed.get() / (double) duration.toSeconds());
+        result.put("p50Millis", histogram.getValueAtPercentile(50) / 1000.0);
+        result.put("p95Millis", histogram.getValueAtPercentile(95) / 1000.0);
+        result.put("p99Millis", histogram.getValueAtPercentile(99) / 1000.0);
+        result.put("maxMillis", histogram.getMaxValue() / 1000.0);
+        return result;
+    }
+
+    private static URI nextUri(String baseUrl, long[] ids) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (random.nextInt(100) < 20) {
+            return URI.create(baseUrl + "/products?size=20&page=" + random.nextInt(50));
+        }
+        long id = ids != null ? ids[random.nextInt(ids.length)] : 1 + random.nextInt(SEED_ROWS);
+        return URI.create(baseUrl + "/products/" + id);
+    }
+}
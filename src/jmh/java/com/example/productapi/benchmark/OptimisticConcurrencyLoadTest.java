@@ -0,0 +1,210 @@
+package com.example.productapi.benchmark;
+
+import com.example.productapi.ProductapiApplication;
+import com.example.productapi.model.Product;
+import com.example.productapi.repository.ProductRepository;
+import com.example.productapi.service.impl.ProductMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Closed-loop write contention test: many writers repeatedly update a small hot set of products through
+ * {@code PUT /products/{id}}. In {@code conditional} mode each write reads the product's ETag first and sends it
+ * as {@code If-Match}, so a writer that lost the race gets 412 and starts over; in {@code unconditional} mode writes
+ * are blind, as before optimistic locking. Reports successful writes per second, conflict rate and write latency.
+ *
+ * <p>When running in-process, the versions the hot products advanced by are compared with the number of successful
+ * writes; they only match when no update was lost. Arguments are {@code key=value} pairs:
+ * <ul>
+ *   <li>{@code writers} - concurrent writers (default {@code 64})</li>
+ *   <li>{@code hotIds} - size of the hot set of products (default {@code 8})</li>
+ *   <li>{@code warmupSeconds} / {@code durationSeconds} - per mode (default 5 / 20)</li>
+ *   <li>{@code modes} - any of {@code conditional,unconditional} (default both)</li>
+ *   <li>{@code target} - base URL of an already running instance, whose products 1..hotIds must exist</li>
+ *   <li>{@code output} - JSON results file (default {@code target/concurrency-test-result.json})</li>
+ * </ul>
+ */
+public final class OptimisticConcurrencyLoadTest {
+
+    private OptimisticConcurrencyLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            String[] pair = arg.split("=", 2);
+            options.put(pair[0].replaceFirst("^-+", ""), pair.length > 1 ? pair[1] : "true");
+        }
+        int writers = Integer.parseInt(options.getOrDefault("writers", "64"));
+        int hotIds = Integer.parseInt(options.getOrDefault("hotIds", "8"));
+        Duration warmup = Duration.ofSeconds(Long.parseLong(options.getOrDefault("warmupSeconds", "5")));
+        Duration duration = Duration.ofSeconds(Long.parseLong(options.getOrDefault("durationSeconds", "20")));
+        List<String> modes = List.of(options.getOrDefault("modes", "conditional,unconditional").split(","));
+        String target = options.get("target");
+        Path output = Path.of(options.getOrDefault("output", "target/concurrency-test-result.json"));
+
+        List<Map<String, Object>> results = new ArrayList<>();
+        for (String mode : modes) {
+            ConfigurableApplicationContext context = target == null ? start(mode) : null;
+            try {
+                String baseUrl = target != null
+                        ? target
+                        : "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/productapi";
+                ProductRepository productRepository = context != null ? context.getBean(ProductRepository.class) : null;
+                long[] ids = productRepository != null
+                        ? seed(productRepository, hotIds)
+                        : LongStream.rangeClosed(1, hotIds).toArray();
+                Map<String, Object> result = run(mode, baseUrl, ids, writers, warmup, duration);
+                if (productRepository != null) {
+                    long versions = productRepository.findAllById(Arrays.stream(ids).boxed().toList()).stream()
+                            .mapToLong(Product::getVersion)
+                            .sum();
+                    result.put("versionsAdvanced", versions);
+                }
+                System.out.println(result);
+                results.add(result);
+            } finally {
+                if (context != null) {
+                    context.close();
+                }
+            }
+        }
+
+        Files.createDirectories(output.toAbsolutePath().getParent());
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(output.toFile(), results);
+        System.out.println("Results written to " + output.toAbsolutePath());
+    }
+
+    private static ConfigurableApplicationContext start(String mode) {
+        // Repeated command-line arguments are merged into a list, so replace the shared datasource URL instead
+        Stream<String> sharedArgs = Arrays.stream(BenchmarkSupport.H2_ARGS)
+                .filter(arg -> !arg.startsWith("--spring.datasource.url="));
+        String[] args = Stream.concat(sharedArgs, Stream.of(
+                "--spring.datasource.url=jdbc:h2:mem:concurrency-" + mode + ";DB_CLOSE_DELAY=-1",
+                "--server.port=0",
+                "--logging.level.org.hibernate=WARN"
+        )).toArray(String[]::new);
+        return new SpringApplicationBuilder(ProductapiApplication.class).run(args);
+    }
+
+    private static long[] seed(ProductRepository productRepository, int hotIds) {
+        List<Product> products = new ArrayList<>(hotIds);
+        for (int i = 0; i < hotIds; i++) {
+            products.add(ProductMapper.toEntity(BenchmarkSupport.productDTO(i)));
+        }
+        return productRepository.saveAll(products).stream().mapToLong(Product::getId).toArray();
+    }
+
+    private static Map<String, Object> run(String mode, String baseUrl, long[] ids, int writers,
+                                           Duration warmup, Duration duration) throws InterruptedException {
+        boolean conditional = "conditional".equals(mode);
+        HttpClient httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        Recorder recorder = new Recorder(3);
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicBoolean measuring = new AtomicBoolean(false);
+        AtomicLong succeeded = new AtomicLong();
+        AtomicLong preconditionFailed = new AtomicLong();
+        AtomicLong conflicts = new AtomicLong();
+        AtomicLong errors = new AtomicLong();
+        // Successful writes during warmup also advance versions, so they are counted separately for the check
+        AtomicLong allSucceeded = new AtomicLong();
+
+        try (ExecutorService writerThreads = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < writers; i++) {
+                int writer = i;
+                writerThreads.submit(() -> {
+                    long sequence = 0;
+                    while (running.get()) {
+                        long id = ids[ThreadLocalRandom.current().nextInt(ids.length)];
+                        URI uri = URI.create(baseUrl + "/products/" + id);
+                        long start = System.nanoTime();
+                        int status;
+                        try {
+                            HttpRequest.Builder put = HttpRequest.newBuilder(uri)
+                                    .timeout(Duration.ofSeconds(30))
+                                    .header("Content-Type", "application/json")
+                                    .PUT(HttpRequest.BodyPublishers.ofString("{\"name\":\"Writer " + writer
+                                            + "\",\"description\":\"Write " + sequence++ + "\",\"price\":19.99}"));
+                            if (conditional) {
+                                HttpResponse<Void> read = httpClient.send(
+                                        HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(30)).GET().build(),
+                                        HttpResponse.BodyHandlers.discarding());
+                                put.header("If-Match", read.headers().firstValue("ETag").orElse("*"));
+                            }
+                            status = httpClient.send(put.build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+                        } catch (Exception e) {
+                            status = -1;
+                        }
+                        if (status == 200) {
+                            allSucceeded.incrementAndGet();
+                        }
+                        if (!measuring.get()) {
+                            continue;
+                        }
+                        switch (status) {
+                            case 200 -> {
+                                recorder.recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+                                succeeded.incrementAndGet();
+                            }
+                            case 412 -> preconditionFailed.incrementAndGet();
+                            case 409 -> conflicts.incrementAndGet();
+                            default -> errors.incrementAndGet();
+                        }
+                    }
+                    return null;
+                });
+            }
+            Thread.sleep(warmup.toMillis());
+            recorder.reset();
+            measuring.set(true);
+            Thread.sleep(duration.toMillis());
+            measuring.set(false);
+            running.set(false);
+        }
+
+        long attempts = succeeded.get() + preconditionFailed.get() + conflicts.get();
+        Histogram histogram = recorder.getIntervalHistogram();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("mode", mode);
+        result.put("writers", writers);
+        result.put("hotIds", ids.length);
+        result.put("successfulWrites", succeeded.get());
+        result.put("preconditionFailed", preconditionFailed.get());
+        result.put("conflicts", conflicts.get());
+        result.put("errors", errors.get());
+        result.put("successfulWritesPerSecond", succeeded.get() / (double) duration.toSeconds());
+        result.put("conflictRate", attempts == 0 ? 0.0 : (preconditionFailed.get() + conflicts.get()) / (double) attempts);
+        result.put("p50Millis", histogram.getValueAtPercentile(50) / 1000.0);
+        result.put("p99Millis", histogram.getValueAtPercentile(99) / 1000.0);
+        result.put("successfulWritesIncludingWarmup", allSucceeded.get());
+        return result;
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.productapi.benchmark;
+
+import com.example.productapi.dto.ProductDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@code BigDecimalDeserializer} on its own and as part of reading a full {@link ProductDTO}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PriceDeserializationBenchmark {
+
+    private static final String NUMERIC_PRICE = "1234.56";
+    private static final String STRING_PRICE = "\"1234.56\"";
+    private static final String PRODUCT_JSON =
+            "{\"name\":\"Laptop\",\"description\":\"High-performance laptop with 16GB RAM\",\"price\":999.99}";
+
+    private ObjectReader priceReader;
+    private ObjectReader productReader;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = BenchmarkSupport.objectMapper();
+        priceReader = objectMapper.readerFor(BigDecimal.class);
+        productReader = objectMapper.readerFor(ProductDTO.class);
+    }
+
+    @Benchmark
+    public BigDecimal numericPrice() throws IOException {
+        return priceReader.readValue(NUMERIC_PRICE);
+    }
+
+    @Benchmark
+    public BigDecimal stringPrice() throws IOException {
+        return priceReader.readValue(STRING_PRICE);
+    }
+
+    @Benchmark
+    public ProductDTO productDTO() throws IOException {
+        return productReader.readValue(PRODUCT_JSON);
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.productapi.benchmark;
+
+import com.example.productapi.dto.ProductDTO;
+import com.example.productapi.dto.ProductView;
+import com.example.productapi.model.Product;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encode and decode cost of the negotiable formats for a {@link ProductDTO} request body and for a page of
+ * {@link ProductView}s, the largest response. Payload sizes per format and page size are printed during setup.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductFormatBenchmark {
+
+    @Param({"json", "cbor", "smile"})
+    public String format;
+
+    @Param({"20", "1000"})
+    public int pageSize;
+
+    private ObjectWriter writer;
+    private ObjectReader dtoReader;
+    private ObjectReader pageReader;
+    private ProductDTO productDTO;
+    private Page<ProductView> page;
+    private byte[] encodedDTO;
+    private byte[] encodedPage;
+
+    /** The part of the page envelope clients read back. */
+    public record PageEnvelope(List<ProductView> content, long totalElements) {
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = BenchmarkSupport.objectMapper(factory(format));
+        writer = objectMapper.writer();
+        dtoReader = objectMapper.readerFor(ProductDTO.class);
+        pageReader = objectMapper.readerFor(PageEnvelope.class);
+        productDTO = BenchmarkSupport.productDTO(1);
+        List<ProductView> content = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            Product product = BenchmarkSupport.product(i);
+            content.add(new ProductView(product.getId(), product.getName(), product.getDescription(),
+                    product.getPrice(), product.getCreatedAt(), product.getVersion()));
+        }
+        page = new PageImpl<>(content, PageRequest.of(0, pageSize), 1_000_000L);
+        encodedDTO = writer.writeValueAsBytes(productDTO);
+        encodedPage = writer.writeValueAsBytes(page);
+        System.out.printf("%n%s: ProductDTO %d bytes, page of %d %d bytes%n",
+                format, encodedDTO.length, pageSize, encodedPage.length);
+    }
+
+    private static JsonFactory factory(String format) {
+        return switch (format) {
+            case "json" -> new JsonFactory();
+            case "cbor" -> new CBORFactory();
+            case "smile" -> new SmileFactory();
+            default -> throw new IllegalArgumentException("Unknown format: " + format);
+        };
+    }
+
+    @Benchmark
+    public byte[] encodeProductDTO() throws IOException {
+        return writer.writeValueAsBytes(productDTO);
+    }
+
+    @Benchmark
+    public ProductDTO decodeProductDTO() throws IOException {
+        return dtoReader.readValue(encodedDTO);
+    }
+
+    @Benchmark
+    public byte[] encodePage() throws IOException {
+        return writer.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public PageEnvelope decodePage() throws IOException {
+        return pageReader.readValue(encodedPage);
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.productapi.benchmark;
+
+import com.example.productapi.dto.ProductDTO;
+import com.example.productapi.model.Product;
+import com.example.productapi.service.impl.ProductMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductMappingBenchmark {
+
+    private ProductDTO productDTO;
+    private Product existing;
+
+    @Setup
+    public void setUp() {
+        productDTO = BenchmarkSupport.productDTO(1);
+        existing = BenchmarkSupport.product(1);
+    }
+
+    @Benchmark
+    public Product toEntity() {
+        return ProductMapper.toEntity(productDTO);
+    }
+
+    @Benchmark
+    public Product copyIntoExisting() {
+        ProductMapper.copyInto(productDTO, existing);
+        return existing;
+    }
+}
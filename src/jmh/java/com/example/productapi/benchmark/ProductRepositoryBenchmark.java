@@ -0,0 +1,124 @@
+package com.example.productapi.benchmark;
+
+import com.example.productapi.ProductapiApplication;
+import com.example.productapi.dto.ProductView;
+import com.example.productapi.model.Product;
+import com.example.productapi.repository.ProductRepository;
+import com.example.productapi.service.impl.ProductMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Repository round trips against an embedded H2 database, with the application's JPA configuration
+ * (sequence ids, JDBC batching). Rows inserted by the write benchmarks accumulate during a trial.
+ * The {@code *View*} benchmarks read the same rows as {@link ProductView} projections; run with
+ * {@code -prof gc} and compare {@code gc.alloc.rate.norm} to see what skipping entity materialization saves.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductRepositoryBenchmark {
+
+    private static final int SEED_ROWS = 10_000;
+
+    private ConfigurableApplicationContext context;
+    private ProductRepository productRepository;
+    private long minId;
+    private long maxId;
+    private Pageable firstPage;
+    private Pageable deepPage;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(ProductapiApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(BenchmarkSupport.H2_ARGS);
+        productRepository = context.getBean(ProductRepository.class);
+
+        List<Product> seed = new ArrayList<>(SEED_ROWS);
+        for (int i = 0; i < SEED_ROWS; i++) {
+            seed.add(ProductMapper.toEntity(BenchmarkSupport.productDTO(i)));
+        }
+        List<Product> saved = productRepository.saveAll(seed);
+        minId = saved.get(0).getId();
+        maxId = saved.get(saved.size() - 1).getId();
+        firstPage = PageRequest.of(0, 20);
+        deepPage = PageRequest.of(SEED_ROWS / 20 - 1, 20);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<Product> findById() {
+        return productRepository.findById(ThreadLocalRandom.current().nextLong(minId, maxId + 1));
+    }
+
+    @Benchmark
+    public Page<Product> findFirstPage() {
+        return productRepository.findAll(firstPage);
+    }
+
+    @Benchmark
+    public Page<Product> findDeepPage() {
+        return productRepository.findAll(deepPage);
+    }
+
+    @Benchmark
+    public Optional<ProductView> findViewById() {
+        return productRepository.findViewById(ThreadLocalRandom.current().nextLong(minId, maxId + 1));
+    }
+
+    @Benchmark
+    public Page<ProductView> findFirstViewPage() {
+        return productRepository.findViews(null, firstPage);
+    }
+
+    @Benchmark
+    public Page<ProductView> findDeepViewPage() {
+        return productRepository.findViews(null, deepPage);
+    }
+
+    @Benchmark
+    public Product saveOne() {
+        return productRepository.save(ProductMapper.toEntity(BenchmarkSupport.productDTO(1)));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(100)
+    public List<Product> saveBatchOf100() {
+        List<Product> batch = new ArrayList<>(100);
+        for (int i = 0; i < 100; i++) {
+            batch.add(ProductMapper.toEntity(BenchmarkSupport.productDTO(i)));
+        }
+        return productRepository.saveAll(batch);
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.productapi.benchmark;
+
+import com.example.productapi.model.Product;
+import com.example.productapi.service.impl.ProductSearchIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Query latency of the in-memory search index over a synthetic catalog. Words are drawn from a Zipf-like
+ * distribution, so "common" matches a large share of the catalog while "rare" matches a handful of products.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ProductSearchBenchmark {
+
+    private static final int VOCABULARY = 50_000;
+
+    @Param({"1000000", "3000000"})
+    public int catalogSize;
+
+    private ProductSearchIndex index;
+    private List<String> rareQuery;
+    private List<String> mixedQuery;
+    private List<String> commonQuery;
+
+    @Setup
+    public void setUp() {
+        index = new ProductSearchIndex();
+        SplittableRandom random = new SplittableRandom(42);
+        BigDecimal price = new BigDecimal("9.99");
+        for (long id = 1; id <= catalogSize; id++) {
+            index.index(new Product(id, words(random, 3), words(random, 12), price, null, null));
+        }
+        rareQuery = List.of(word(VOCABULARY - 10), word(VOCABULARY - 20));
+        mixedQuery = List.of(word(500), word(5_000), word(40_000));
+        commonQuery = List.of(word(2));
+    }
+
+    @Benchmark
+    public ProductSearchIndex.SearchHits rareTerms() {
+        return index.search(rareQuery, 0, 20);
+    }
+
+    @Benchmark
+    public ProductSearchIndex.SearchHits mixedTerms() {
+        return index.search(mixedQuery, 0, 20);
+    }
+
+    @Benchmark
+    public ProductSearchIndex.SearchHits commonTerm() {
+        return index.search(commonQuery, 0, 20);
+    }
+
+    private static String words(SplittableRandom random, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            // Inverse-transform sample of a 1/rank distribution over the vocabulary
+            int rank = (int) Math.pow(VOCABULARY, random.nextDouble());
+            text.append(word(rank)).append(' ');
+        }
+        return text.toString();
+    }
+
+    private static String word(int rank) {
+        return "w" + Integer.toString(rank, 36);
+    }
+}
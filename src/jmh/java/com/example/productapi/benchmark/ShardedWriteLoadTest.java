@@ -0,0 +1,160 @@
+package com.example.productapi.benchmark;
+
+import com.example.productapi.ProductapiApplication;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Closed-loop write throughput test against 1, 2, 4... shards: many writers create products through
+ * {@code POST /products} while the application spreads them over that many embedded H2 databases. Reports successful
+ * writes per second and write latency per shard count, so the scaling of writes with shards can be compared.
+ *
+ * <p>Arguments are {@code key=value} pairs:
+ * <ul>
+ *   <li>{@code shards} - shard counts to compare (default {@code 1,2,4})</li>
+ *   <li>{@code writers} - concurrent writers (default {@code 64})</li>
+ *   <li>{@code warmupSeconds} / {@code durationSeconds} - per shard count (default 5 / 20)</li>
+ *   <li>{@code output} - JSON results file (default {@code target/sharding-test-result.json})</li>
+ * </ul>
+ */
+public final class ShardedWriteLoadTest {
+
+    private ShardedWriteLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            String[] pair = arg.split("=", 2);
+            options.put(pair[0].replaceFirst("^-+", ""), pair.length > 1 ? pair[1] : "true");
+        }
+        List<Integer> shardCounts = Arrays.stream(options.getOrDefault("shards", "1,2,4").split(","))
+                .map(Integer::valueOf)
+                .toList();
+        int writers = Integer.parseInt(options.getOrDefault("writers", "64"));
+        Duration warmup = Duration.ofSeconds(Long.parseLong(options.getOrDefault("warmupSeconds", "5")));
+        Duration duration = Duration.ofSeconds(Long.parseLong(options.getOrDefault("durationSeconds", "20")));
+        Path output = Path.of(options.getOrDefault("output", "target/sharding-test-result.json"));
+
+        List<Map<String, Object>> results = new ArrayList<>();
+        for (int shardCount : shardCounts) {
+            try (ConfigurableApplicationContext context = start(shardCount)) {
+                String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/productapi";
+                Map<String, Object> result = run(shardCount, baseUrl, writers, warmup, duration);
+                System.out.println(result);
+                results.add(result);
+            }
+        }
+
+        Files.createDirectories(output.toAbsolutePath().getParent());
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(output.toFile(), results);
+        System.out.println("Results written to " + output.toAbsolutePath());
+    }
+
+    private static ConfigurableApplicationContext start(int shardCount) {
+        List<String> urls = IntStream.range(0, shardCount)
+                .mapToObj(shard -> "jdbc:h2:mem:sharding-" + shardCount + "-" + shard + ";DB_CLOSE_DELAY=-1")
+                .toList();
+        // Repeated command-line arguments are merged into a list, so replace the shared datasource URL instead
+        Stream<String> sharedArgs = Arrays.stream(BenchmarkSupport.H2_ARGS)
+                .filter(arg -> !arg.startsWith("--spring.datasource.url="));
+        String[] args = Stream.concat(sharedArgs, Stream.of(
+                "--spring.datasource.url=" + urls.get(0),
+                "--productapi.sharding.urls=" + String.join(",", urls),
+                // Measure the databases, not the per-client rate limit of the single load generator
+                "--productapi.admission.enabled=false",
+                "--server.port=0",
+                "--logging.level.org.hibernate=WARN"
+        )).toArray(String[]::new);
+        return new SpringApplicationBuilder(ProductapiApplication.class).run(args);
+    }
+
+    private static Map<String, Object> run(int shardCount, String baseUrl, int writers,
+                                           Duration warmup, Duration duration) throws InterruptedException {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        URI uri = URI.create(baseUrl + "/products");
+        Recorder recorder = new Recorder(3);
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicBoolean measuring = new AtomicBoolean(false);
+        AtomicLong succeeded = new AtomicLong();
+        AtomicLong errors = new AtomicLong();
+
+        try (ExecutorService writerThreads = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < writers; i++) {
+                int writer = i;
+                writerThreads.submit(() -> {
+                    long sequence = 0;
+                    while (running.get()) {
+                        long start = System.nanoTime();
+                        int status;
+                        try {
+                            HttpRequest post = HttpRequest.newBuilder(uri)
+                                    .timeout(Duration.ofSeconds(30))
+                                    .header("Content-Type", "application/json")
+                                    .POST(HttpRequest.BodyPublishers.ofString("{\"name\":\"Writer " + writer
+                                            + "\",\"description\":\"Write " + sequence++ + "\",\"price\":19.99}"))
+                                    .build();
+                            status = httpClient.send(post, HttpResponse.BodyHandlers.discarding()).statusCode();
+                        } catch (Exception e) {
+                            status = -1;
+                        }
+                        if (!measuring.get()) {
+                            continue;
+                        }
+                        if (status == 201) {
+                            recorder.recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+                            succeeded.incrementAndGet();
+                        } else {
+                            errors.incrementAndGet();
+                        }
+                    }
+                    return null;
+                });
+            }
+            Thread.sleep(warmup.toMillis());
+            recorder.reset();
+            measuring.set(true);
+            Thread.sleep(duration.toMillis());
+            measuring.set(false);
+            running.set(false);
+        }
+
+        Histogram histogram = recorder.getIntervalHistogram();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("shards", shardCount);
+        result.put("writers", writers);
+        result.put("successfulWrites", succeeded.get());
+        result.put("errors", errors.get());
+        result.put("successfulWritesPerSecond", succeeded.get() / (double) duration.toSeconds());
+        result.put("p50Millis", histogram.getValueAtPercentile(50) / 1000.0);
+        result.put("p99Millis", histogram.getValueAtPercentile(99) / 1000.0);
+        return result;
+    }
+}
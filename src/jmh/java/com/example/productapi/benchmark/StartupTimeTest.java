@@ -0,0 +1,390 @@
+package com.example.productapi.benchmark;
+
+import com.example.productapi.ProductapiApplication;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.flywaydb.core.Flyway;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Stream;
+
+/**
+ * Cold-start test: starts the packaged application in a new process per run and reports the time from launching the
+ * process to the first successful {@code GET /products}, the time a scaled-out instance takes to serve traffic.
+ * The last start of each mode then also reports resident memory after the first request, steady-state throughput
+ * of a closed-loop read load (80% {@code GET /products/{id}}, 20% {@code GET /products?size=20}) and resident
+ * memory after that load. The modes are
+ * <ul>
+ *   <li>{@code default} - the regular startup path and configuration</li>
+ *   <li>{@code fast-startup} - the {@code fast-startup} profile (lazy initialization, no schema inspection,
+ *       no Flyway, no OpenAPI) on the regular startup path</li>
+ *   <li>{@code aot} - the same profile started from the bean definitions generated by Spring AOT processing</li>
+ *   <li>{@code aot-cds} - as {@code aot}, with a class-data-sharing archive dumped by a training run</li>
+ *   <li>{@code native} - the GraalVM native executable, in the default configuration</li>
+ * </ul>
+ * The jar is unpacked the way {@code Dockerfile.fast-startup} does it, and every mode runs against the same seeded
+ * H2 file database, migrated up front because the fast-startup profile does not migrate. The AOT modes are skipped
+ * unless the jar was packaged with the {@code fast-startup} Maven profile, the native mode unless the executable
+ * was built with {@code mvn -Pnative native:compile}. Memory is read from {@code /proc}, so it is only reported
+ * on Linux.
+ *
+ * <p>Arguments are {@code key=value} pairs:
+ * <ul>
+ *   <li>{@code modes} - modes to compare (default {@code default,fast-startup,aot,aot-cds,native})</li>
+ *   <li>{@code runs} - starts per mode (default {@code 5})</li>
+ *   <li>{@code clients} - concurrent clients of the steady-state load (default {@code 64})</li>
+ *   <li>{@code warmupSeconds} / {@code durationSeconds} - of the steady-state load (default 10 / 20, a duration
+ *       of 0 skips it)</li>
+ *   <li>{@code jar} - the packaged application (default {@code target/productapi.jar})</li>
+ *   <li>{@code native} - the native executable (default {@code target/productapi})</li>
+ *   <li>{@code output} - JSON results file (default {@code target/startup-test-result.json})</li>
+ * </ul>
+ */
+public final class StartupTimeTest {
+
+    private static final String CLASSES = "BOOT-INF/classes/";
+    private static final String LIB = "BOOT-INF/lib/";
+    private static final String AOT_INITIALIZER =
+            ProductapiApplication.class.getName().replace('.', '/') + "__ApplicationContextInitializer.class";
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+    private static final int PRODUCTS = 1000;
+
+    private StartupTimeTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            String[] pair = arg.split("=", 2);
+            options.put(pair[0].replaceFirst("^-+", ""), pair.length > 1 ? pair[1] : "true");
+        }
+        List<String> modes = Arrays.asList(
+                options.getOrDefault("modes", "default,fast-startup,aot,aot-cds,native").split(","));
+        int runs = Integer.parseInt(options.getOrDefault("runs", "5"));
+        int clients = Integer.parseInt(options.getOrDefault("clients", "64"));
+        Duration warmup = Duration.ofSeconds(Long.parseLong(options.getOrDefault("warmupSeconds", "10")));
+        Duration duration = Duration.ofSeconds(Long.parseLong(options.getOrDefault("durationSeconds", "20")));
+        Path jar = Path.of(options.getOrDefault("jar", "target/productapi.jar"));
+        Path nativeExecutable = Path.of(options.getOrDefault("native", "target/productapi")).toAbsolutePath();
+        Path output = Path.of(options.getOrDefault("output", "target/startup-test-result.json"));
+
+        Path work = Path.of("target/startup-test").toAbsolutePath();
+        delete(work);
+        UnpackedApplication application = unpack(jar, work.resolve("app"));
+        String databaseUrl = "jdbc:h2:file:" + work.resolve("db/productdb");
+        seed(databaseUrl);
+
+        List<Map<String, Object>> results = new ArrayList<>();
+        for (String mode : modes) {
+            List<String> launcher;
+            if (mode.equals("native")) {
+                if (!Files.isExecutable(nativeExecutable)) {
+                    System.out.println("Skipping native: " + nativeExecutable + " was not built");
+                    continue;
+                }
+                launcher = List.of(nativeExecutable.toString());
+            } else {
+                List<String> jvmArgs = new ArrayList<>();
+                if (mode.startsWith("aot")) {
+                    if (!application.aotProcessed()) {
+                        System.out.println("Skipping " + mode + ": " + jar + " was packaged without -Pfast-startup");
+                        continue;
+                    }
+                    jvmArgs.add("-Dspring.aot.enabled=true");
+                }
+                if (mode.equals("aot-cds")) {
+                    Path archive = work.resolve("application.jsa");
+                    List<String> training = new ArrayList<>(jvmArgs);
+                    training.add("-XX:ArchiveClassesAtExit=" + archive);
+                    training.add("-Dspring.context.exit=onRefresh");
+                    train(application.launcher(training), appArgs(mode, databaseUrl, freePort()),
+                            work.resolve("logs/training.log"));
+                    jvmArgs.add("-XX:SharedArchiveFile=" + archive);
+                }
+                launcher = application.launcher(jvmArgs);
+            }
+
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("mode", mode);
+            result.put("runs", runs);
+            List<Long> millis = new ArrayList<>();
+            for (int run = 0; run < runs; run++) {
+                int port = freePort();
+                String baseUrl = "http://localhost:" + port + "/productapi";
+                Path log = work.resolve("logs/" + mode + "-" + run + ".log");
+                long start = System.nanoTime();
+                Process process = launch(launcher, appArgs(mode, databaseUrl, port), log);
+                try {
+                    millis.add(awaitFirstRequest(process, start, baseUrl, log));
+                    if (run == runs - 1 && !duration.isZero()) {
+                        result.put("rssAfterFirstRequestMb", residentMegabytes(process));
+                        result.putAll(steadyState(baseUrl, clients, warmup, duration));
+                        result.put("rssAfterLoadMb", residentMegabytes(process));
+                    }
+                } finally {
+                    // Wait for the shutdown, which releases the lock on the database file
+                    process.destroy();
+                    process.waitFor();
+                }
+            }
+            List<Long> sorted = millis.stream().sorted().toList();
+            result.put("minMillis", sorted.get(0));
+            result.put("medianMillis", sorted.get(sorted.size() / 2));
+            result.put("maxMillis", sorted.get(sorted.size() - 1));
+            result.put("runMillis", millis);
+            System.out.println(result);
+            results.add(result);
+        }
+
+        Files.createDirectories(output.toAbsolutePath().getParent());
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(output.toFile(), results);
+        System.out.println("Results written to " + output.toAbsolutePath());
+    }
+
+    private static void seed(String databaseUrl) throws SQLException {
+        Flyway.configure()
+                .dataSource(databaseUrl, "sa", "")
+                .locations("classpath:db/migration/common", "classpath:db/migration/h2")
+                .load()
+                .migrate();
+        try (Connection connection = DriverManager.getConnection(databaseUrl, "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute("INSERT INTO products (id, name, description, price, created_at) "
+                    + "SELECT x, 'Product ' || x, 'Description of product ' || x, 19.99 + x, CURRENT_TIMESTAMP "
+                    + "FROM SYSTEM_RANGE(1, " + PRODUCTS + ")");
+            statement.execute("ALTER SEQUENCE product_seq RESTART WITH " + (PRODUCTS + 1));
+        }
+    }
+
+    private static List<String> appArgs(String mode, String databaseUrl, int port) {
+        // Repeated command-line arguments are merged into a list, and ddl-auto is left to the profiles
+        Stream<String> sharedArgs = Arrays.stream(BenchmarkSupport.H2_ARGS)
+                .filter(arg -> !arg.startsWith("--spring.datasource.url=")
+                        && !arg.startsWith("--spring.jpa.hibernate.ddl-auto="));
+        Stream<String> modeArgs = mode.equals("default") || mode.equals("native")
+                ? Stream.of()
+                : Stream.of("--spring.profiles.active=fast-startup");
+        return Stream.concat(Stream.concat(sharedArgs, modeArgs), Stream.of(
+                "--spring.datasource.url=" + databaseUrl,
+                "--server.port=" + port,
+                // Admission control is off by default, but in the AOT modes a build that turned it on cannot turn
+                // it off again at run time, so it is opened up instead of disabled
+                "--productapi.admission.client-rate=1000000",
+                "--productapi.admission.client-burst=1000000",
+                "--productapi.admission.read.initial-limit=200"
+        )).toList();
+    }
+
+    private static long awaitFirstRequest(Process process, long start, String baseUrl, Path log)
+            throws InterruptedException {
+        HttpClient httpClient = HttpClient.newHttpClient();
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/products?size=1"))
+                .timeout(Duration.ofSeconds(30))
+                .build();
+        while (System.nanoTime() - start < STARTUP_TIMEOUT.toNanos()) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("Application exited with " + process.exitValue() + ", see " + log);
+            }
+            try {
+                if (httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return Duration.ofNanos(System.nanoTime() - start).toMillis();
+                }
+            } catch (IOException e) {
+                // Not listening yet
+            }
+            Thread.sleep(5);
+        }
+        throw new IllegalStateException("No successful request within " + STARTUP_TIMEOUT + ", see " + log);
+    }
+
+    private static Map<String, Object> steadyState(String baseUrl, int clients, Duration warmup, Duration duration)
+            throws InterruptedException {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        Recorder recorder = new Recorder(3);
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicBoolean measuring = new AtomicBoolean(false);
+        AtomicLong succeeded = new AtomicLong();
+        AtomicLong errors = new AtomicLong();
+
+        try (ExecutorService clientThreads = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < clients; i++) {
+                clientThreads.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (running.get()) {
+                        String path = random.nextInt(100) < 80
+                                ? "/products/" + (1 + random.nextInt(PRODUCTS))
+                                : "/products?size=20&page=" + random.nextInt(PRODUCTS / 20);
+                        long start = System.nanoTime();
+                        int status;
+                        try {
+                            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                                    .timeout(Duration.ofSeconds(30))
+                                    .build();
+                            status = httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                        } catch (Exception e) {
+                            status = -1;
+                        }
+                        if (!measuring.get()) {
+                            continue;
+                        }
+                        if (status == 200) {
+                            recorder.recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+                            succeeded.incrementAndGet();
+                        } else {
+                            errors.incrementAndGet();
+                        }
+                    }
+                    return null;
+                });
+            }
+            Thread.sleep(warmup.toMillis());
+            recorder.reset();
+            measuring.set(true);
+            Thread.sleep(duration.toMillis());
+            measuring.set(false);
+            running.set(false);
+        }
+
+        Histogram histogram = recorder.getIntervalHistogram();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("clients", clients);
+        result.put("requestsPerSecond", succeeded.get() / (double) duration.toSeconds());
+        result.put("errors", errors.get());
+        result.put("p50Millis", histogram.getValueAtPercentile(50) / 1000.0);
+        result.put("p99Millis", histogram.getValueAtPercentile(99) / 1000.0);
+        return result;
+    }
+
+    // Resident set size of the application process, or -1 where there is no /proc
+    private static long residentMegabytes(Process process) throws IOException {
+        Path status = Path.of("/proc", Long.toString(process.pid()), "status");
+        if (!Files.exists(status)) {
+            return -1;
+        }
+        for (String line : Files.readAllLines(status)) {
+            if (line.startsWith("VmRSS:")) {
+                return Long.parseLong(line.replaceAll("\\D", "")) / 1024;
+            }
+        }
+        return -1;
+    }
+
+    private static void train(List<String> launcher, List<String> appArgs, Path log)
+            throws IOException, InterruptedException {
+        Process process = launch(launcher, appArgs, log);
+        if (process.waitFor() != 0) {
+            throw new IllegalStateException("Training run exited with " + process.exitValue() + ", see " + log);
+        }
+    }
+
+    private static Process launch(List<String> launcher, List<String> appArgs, Path log) throws IOException {
+        Files.createDirectories(log.getParent());
+        List<String> command = new ArrayList<>(launcher);
+        command.addAll(appArgs);
+        return new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+    }
+
+    // Class-data sharing only archives classes loaded from jar files, so the nested jars are unpacked and the
+    // application classes repacked into a jar of their own
+    private static UnpackedApplication unpack(Path jar, Path directory) throws IOException {
+        Path lib = Files.createDirectories(directory.resolve("lib"));
+        Path applicationJar = directory.resolve("application.jar");
+        boolean aotProcessed = false;
+        List<String> classPath = new ArrayList<>();
+        classPath.add(applicationJar.toString());
+        try (JarFile bootJar = new JarFile(jar.toFile());
+             JarOutputStream classes = new JarOutputStream(Files.newOutputStream(applicationJar))) {
+            for (JarEntry entry : Collections.list(bootJar.entries())) {
+                String name = entry.getName();
+                if (name.startsWith(CLASSES) && name.length() > CLASSES.length()) {
+                    classes.putNextEntry(new JarEntry(name.substring(CLASSES.length())));
+                    try (InputStream content = bootJar.getInputStream(entry)) {
+                        content.transferTo(classes);
+                    }
+                    classes.closeEntry();
+                    aotProcessed |= name.equals(CLASSES + AOT_INITIALIZER);
+                } else if (name.startsWith(LIB) && !entry.isDirectory()) {
+                    try (InputStream content = bootJar.getInputStream(entry)) {
+                        Files.copy(content, lib.resolve(name.substring(LIB.length())));
+                    }
+                }
+            }
+            // The jars keep the order of the build's class path
+            try (InputStream index = bootJar.getInputStream(bootJar.getEntry("BOOT-INF/classpath.idx"))) {
+                new String(index.readAllBytes(), StandardCharsets.UTF_8).lines()
+                        .map(line -> line.replaceFirst("^- \"" + LIB + "(.*)\"$", "$1"))
+                        .forEach(library -> classPath.add(lib.resolve(library).toString()));
+            }
+        }
+        return new UnpackedApplication(String.join(File.pathSeparator, classPath), aotProcessed);
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static void delete(Path directory) throws IOException {
+        if (!Files.exists(directory)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    private record UnpackedApplication(String classPath, boolean aotProcessed) {
+
+        List<String> launcher(List<String> jvmArgs) {
+            List<String> command = new ArrayList<>();
+            command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+            command.addAll(jvmArgs);
+            command.add("-cp");
+            command.add(classPath);
+            command.add(ProductapiApplication.class.getName());
+            return command;
+        }
+    }
+}
@@ -1,10 +1,22 @@
 package com.example.productapi;
 
+import com.example.productapi.config.ProductApiRuntimeHints;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.web.servlet.support.SpringBootServletInitializer;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
-@SpringBootApplication
+// R2DBC is only on the class path with the reactive Maven profile. ReactiveDataSourceConfig sets it up for the
+// reactive stack alone, so servlet mode keeps the JDBC DataSource and JPA's is the only transaction manager
+@SpringBootApplication(excludeName = {
+		"org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration",
+		"org.springframework.boot.autoconfigure.data.r2dbc.R2dbcDataAutoConfiguration",
+		"org.springframework.boot.autoconfigure.data.r2dbc.R2dbcRepositoriesAutoConfiguration",
+		"org.springframework.boot.autoconfigure.r2dbc.R2dbcTransactionManagerAutoConfiguration"
+})
+@EnableScheduling
+@ImportRuntimeHints(ProductApiRuntimeHints.class)
 public class ProductapiApplication extends SpringBootServletInitializer {
 
 	public static void main(String[] args) {
@@ -0,0 +1,129 @@
+package com.example.productapi.config;
+
+import java.time.Duration;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Concurrency limit that adapts to observed latency with AIMD: every fast completion while the limit is in use
+ * raises it by {@code 1/limit} (about one per round of requests), and a completion slower than the latency
+ * target, or failing with a server error, cuts it by {@link #BACKOFF} and by at least one request, at most once
+ * per target latency so one burst of slow responses counts once. Requests over the limit wait in a short bounded queue before being rejected.
+ */
+final class AdaptiveConcurrencyLimit {
+
+    static final double BACKOFF = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyTargetNanos;
+    private final int maxQueued;
+    private final long maxQueueWaitNanos;
+
+    // A lock rather than a monitor so waiting virtual threads do not pin carriers
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+    private double limit;
+    private int inFlight;
+    private int queued;
+    private long lastDecrease;
+
+    AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, Duration latencyTarget,
+                             int maxQueued, Duration maxQueueWait) {
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyTargetNanos = latencyTarget.toNanos();
+        this.maxQueued = maxQueued;
+        this.maxQueueWaitNanos = maxQueueWait.toNanos();
+        this.lastDecrease = System.nanoTime() - latencyTargetNanos;
+    }
+
+    /**
+     * Admits the request if it fits under the limit, waiting briefly in the queue if there is room in it;
+     * {@code onQueued} runs when the request has to wait. Every admitted request must be {@link #release}d.
+     */
+    boolean acquire(Runnable onQueued) throws InterruptedException {
+        lock.lock();
+        try {
+            if (inFlight < (int) limit) {
+                inFlight++;
+                return true;
+            }
+            if (queued >= maxQueued) {
+                return false;
+            }
+            onQueued.run();
+            queued++;
+            try {
+                long nanos = maxQueueWaitNanos;
+                while (inFlight >= (int) limit) {
+                    if (nanos <= 0) {
+                        return false;
+                    }
+                    nanos = released.awaitNanos(nanos);
+                }
+                inFlight++;
+                return true;
+            } finally {
+                queued--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void release(long latencyNanos, boolean failed) {
+        lock.lock();
+        try {
+            boolean saturated = inFlight >= (int) limit / 2;
+            inFlight--;
+            long now = System.nanoTime();
+            if (failed || latencyNanos > latencyTargetNanos) {
+                if (now - lastDecrease >= latencyTargetNanos) {
+                    // A cut that keeps the same whole limit would admit as many requests as before
+                    limit = Math.max(minLimit, Math.min(limit * BACKOFF, Math.floor(limit) - 1));
+                    lastDecrease = now;
+                }
+            } else if (saturated) {
+                // Only grow while the limit is actually used, so an idle period does not inflate it
+                limit = Math.min(maxLimit, limit + 1 / limit);
+            }
+            released.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Frees the slot of a request whose latency says nothing about the load, such as a bulk transfer, without
+     * adjusting the limit.
+     */
+    void releaseUnsampled() {
+        lock.lock();
+        try {
+            inFlight--;
+            released.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int limit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int inFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
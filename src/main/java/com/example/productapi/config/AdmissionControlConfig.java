@@ -0,0 +1,44 @@
+package com.example.productapi.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.time.Duration;
+
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "productapi.admission.enabled", havingValue = "true")
+public class AdmissionControlConfig {
+
+    @Bean
+    public FilterRegistrationBean<AdmissionControlFilter> admissionControlFilter(
+            MeterRegistry meterRegistry,
+            @Value("${productapi.admission.client-rate:200}") double clientRate,
+            @Value("${productapi.admission.client-burst:400}") double clientBurst,
+            @Value("${productapi.admission.read.initial-limit:20}") int readInitialLimit,
+            @Value("${productapi.admission.read.max-limit:200}") int readMaxLimit,
+            @Value("${productapi.admission.read.latency-target:PT0.1S}") Duration readLatencyTarget,
+            @Value("${productapi.admission.write.initial-limit:10}") int writeInitialLimit,
+            @Value("${productapi.admission.write.max-limit:100}") int writeMaxLimit,
+            @Value("${productapi.admission.write.latency-target:PT0.25S}") Duration writeLatencyTarget,
+            @Value("${productapi.admission.min-limit:2}") int minLimit,
+            @Value("${productapi.admission.max-queued:50}") int maxQueued,
+            @Value("${productapi.admission.max-queue-wait:PT0.05S}") Duration maxQueueWait) {
+        AdaptiveConcurrencyLimit readLimit = new AdaptiveConcurrencyLimit(
+                readInitialLimit, minLimit, readMaxLimit, readLatencyTarget, maxQueued, maxQueueWait);
+        AdaptiveConcurrencyLimit writeLimit = new AdaptiveConcurrencyLimit(
+                writeInitialLimit, minLimit, writeMaxLimit, writeLatencyTarget, maxQueued, maxQueueWait);
+        FilterRegistrationBean<AdmissionControlFilter> registration = new FilterRegistrationBean<>(
+                new AdmissionControlFilter(meterRegistry, readLimit, writeLimit, clientRate, clientBurst));
+        registration.addUrlPatterns("/products", "/products/*");
+        // Right after the observation filter, so shed requests still show up in http.server.requests
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 2);
+        return registration;
+    }
+}
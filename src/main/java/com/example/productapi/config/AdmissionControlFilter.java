@@ -0,0 +1,161 @@
+package com.example.productapi.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admission control in front of the product endpoints, so overload is answered quickly instead of queueing on the
+ * connection pool. Each client (by remote address) first needs a token from its {@link TokenBucket}, otherwise it
+ * gets 429; then the request needs a slot under the {@link AdaptiveConcurrencyLimit} of its class (reads or writes),
+ * otherwise it gets 503. Both carry {@code Retry-After}. The change stream is exempt, as its requests stay open.
+ * Bulk imports and exports take a slot but their latency, which grows with the payload, does not move the limit.
+ * The remote address is only the client's when forwarded headers are applied ({@code server.forward-headers-strategy})
+ * or nothing sits in between.
+ */
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    static final String REQUESTS_METRIC = "productapi.admission.requests";
+    static final String LIMIT_METRIC = "productapi.admission.limit";
+    static final String IN_FLIGHT_METRIC = "productapi.admission.in.flight";
+
+    private static final String CHANGE_STREAM_PATH = "/products/changes";
+    private static final List<String> BULK_PATHS = List.of("/products/imports", "/products/export");
+
+    private final Map<String, AdaptiveConcurrencyLimit> limits;
+    private final Cache<String, TokenBucket> buckets;
+    private final double clientRate;
+    private final double clientBurst;
+    private final Map<String, Counters> counters;
+
+    public AdmissionControlFilter(MeterRegistry meterRegistry, AdaptiveConcurrencyLimit readLimit,
+                                  AdaptiveConcurrencyLimit writeLimit, double clientRate, double clientBurst) {
+        this.limits = Map.of("read", readLimit, "write", writeLimit);
+        this.clientRate = clientRate;
+        this.clientBurst = clientBurst;
+        // Idle clients' buckets are full again after burst/rate seconds, so dropping them loses nothing
+        this.buckets = Caffeine.newBuilder()
+                .expireAfterAccess(Duration.ofMinutes(10))
+                .maximumSize(100_000)
+                .build();
+        this.counters = Map.of("read", new Counters(meterRegistry, "read"), "write", new Counters(meterRegistry, "write"));
+        limits.forEach((requestClass, limit) -> {
+            Gauge.builder(LIMIT_METRIC, limit, AdaptiveConcurrencyLimit::limit)
+                    .description("Current adaptive concurrency limit")
+                    .tag("class", requestClass)
+                    .register(meterRegistry);
+            Gauge.builder(IN_FLIGHT_METRIC, limit, AdaptiveConcurrencyLimit::inFlight)
+                    .description("Requests currently admitted")
+                    .tag("class", requestClass)
+                    .register(meterRegistry);
+        });
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().endsWith(CHANGE_STREAM_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String requestClass = isRead(request) ? "read" : "write";
+        Counters counter = counters.get(requestClass);
+
+        long waitNanos = buckets.get(request.getRemoteAddr(), client -> new TokenBucket(clientRate, clientBurst, System.nanoTime()))
+                .tryConsume(System.nanoTime());
+        if (waitNanos > 0) {
+            counter.rateLimited.increment();
+            reject(response, HttpStatus.TOO_MANY_REQUESTS, waitNanos, "Too many requests from this client, retry later");
+            return;
+        }
+
+        AdaptiveConcurrencyLimit limit = limits.get(requestClass);
+        boolean admitted;
+        try {
+            admitted = limit.acquire(counter.queued::increment);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            admitted = false;
+        }
+        if (!admitted) {
+            counter.overCapacity.increment();
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE, TimeUnit.SECONDS.toNanos(1), "Server is at capacity, retry shortly");
+            return;
+        }
+        counter.admitted.increment();
+
+        if (isBulk(request)) {
+            try {
+                filterChain.doFilter(request, response);
+            } finally {
+                limit.releaseUnsampled();
+            }
+            return;
+        }
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            filterChain.doFilter(request, response);
+            failed = response.getStatus() >= 500;
+        } finally {
+            limit.release(System.nanoTime() - start, failed);
+        }
+    }
+
+    private static boolean isBulk(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        return BULK_PATHS.stream().anyMatch(uri::endsWith);
+    }
+
+    private static boolean isRead(HttpServletRequest request) {
+        return "GET".equals(request.getMethod()) || "HEAD".equals(request.getMethod());
+    }
+
+    private static void reject(HttpServletResponse response, HttpStatus status, long retryAfterNanos, String message)
+            throws IOException {
+        long retryAfterSeconds = Math.max(1, (long) Math.ceil(retryAfterNanos / 1_000_000_000d));
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"message\":\"" + message + "\"}");
+    }
+
+    private static final class Counters {
+
+        private final Counter admitted;
+        private final Counter queued;
+        private final Counter rateLimited;
+        private final Counter overCapacity;
+
+        private Counters(MeterRegistry meterRegistry, String requestClass) {
+            this.admitted = counter(meterRegistry, requestClass, "admitted", "none");
+            this.queued = counter(meterRegistry, requestClass, "queued", "none");
+            this.rateLimited = counter(meterRegistry, requestClass, "rejected", "client_rate");
+            this.overCapacity = counter(meterRegistry, requestClass, "rejected", "concurrency");
+        }
+
+        private static Counter counter(MeterRegistry meterRegistry, String requestClass, String outcome, String reason) {
+            return Counter.builder(REQUESTS_METRIC)
+                    .description("Requests by admission outcome; queued requests are also counted as admitted or rejected")
+                    .tags("class", requestClass, "outcome", outcome, "reason", reason)
+                    .register(meterRegistry);
+        }
+    }
+}
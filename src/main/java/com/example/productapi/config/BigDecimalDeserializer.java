@@ -13,6 +13,9 @@ public class BigDecimalDeserializer extends JsonDeserializer<BigDecimal> {
 
     @Override
     public BigDecimal deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+        if (p.currentToken().isNumeric()) {
+            return p.getDecimalValue(); // CBOR and Smile carry the decimal itself, with no text to parse
+        }
         String value = p.getValueAsString();
         if (value == null || value.trim().isEmpty()) {
             return null; // This will trigger @NotNull validation
@@ -0,0 +1,39 @@
+package com.example.productapi.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String PRODUCTS_CACHE = "products";
+    public static final String PRODUCT_RESPONSES_CACHE = "productResponses";
+
+    @Bean
+    public CacheManager cacheManager(@Value("${productapi.cache.products.spec}") String productsCacheSpec,
+                                     @Value("${productapi.cache.product-responses.spec}") String productResponsesCacheSpec) {
+        CaffeineCacheManager caffeineCacheManager = new CaffeineCacheManager(PRODUCTS_CACHE) {
+            @Override
+            protected Cache adaptCaffeineCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache) {
+                // Product responses are keyed by version, so only the product cache can be put back stale
+                return PRODUCTS_CACHE.equals(name)
+                        ? new EvictionFencedCache(name, cache, isAllowNullValues())
+                        : super.adaptCaffeineCache(name, cache);
+            }
+        };
+        caffeineCacheManager.setCacheSpecification(productsCacheSpec);
+        caffeineCacheManager.setAllowNullValues(false);
+        caffeineCacheManager.registerCustomCache(PRODUCT_RESPONSES_CACHE, Caffeine.from(productResponsesCacheSpec).build());
+        // Defers puts and evictions until the surrounding transaction commits; EvictionFencedCache keeps a read that
+        // started before the commit from putting the old product back after the eviction
+        return new TransactionAwareCacheManagerProxy(caffeineCacheManager);
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.productapi.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caffeine-backed cache that drops a put whose value may have been read before the key was last evicted. Evictions
+ * run after the write commits (see {@link org.springframework.cache.transaction.TransactionAwareCacheDecorator}), so
+ * a concurrent miss could load the old row before the commit and put it after the evict, keeping it until expiry.
+ * Every evict leaves a fence numbered from a counter, a miss notes the counter on its thread, and the put that follows
+ * the miss, as {@code @Cacheable} does, only lands if no fence for that key is newer. Puts without a noted miss count
+ * as older than every fence.
+ */
+class EvictionFencedCache extends CaffeineCache {
+
+    // Longer than any read takes; a put from a miss older than a forgotten fence is dropped anyway
+    private static final Duration FENCE_TTL = Duration.ofMinutes(1);
+
+    private final Cache<Object, Object> cache;
+    private final AtomicLong evictions = new AtomicLong();
+    private final Cache<Object, Long> fences;
+    private final ThreadLocal<Miss> lastMiss = new ThreadLocal<>();
+    // Fences dropped by expiry or size are folded in here, so forgetting one never lets an older put through
+    private final AtomicLong newestForgottenFence = new AtomicLong();
+
+    EvictionFencedCache(String name, Cache<Object, Object> cache, boolean allowNullValues) {
+        super(name, cache, allowNullValues);
+        this.cache = cache;
+        this.fences = Caffeine.newBuilder()
+                .expireAfterWrite(FENCE_TTL)
+                .maximumSize(100_000)
+                .evictionListener((Object key, Long fence, RemovalCause cause) -> {
+                    if (fence != null) {
+                        newestForgottenFence.accumulateAndGet(fence, Math::max);
+                    }
+                })
+                .build();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        // Noted before the lookup, so an evict between the two still fences the put
+        long seen = evictions.get();
+        ValueWrapper hit = super.get(key);
+        if (hit == null) {
+            lastMiss.set(new Miss(key, seen));
+        }
+        return hit;
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper hit = get(key);
+        if (hit != null) {
+            @SuppressWarnings("unchecked")
+            T value = (T) hit.get();
+            return value;
+        }
+        T value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception e) {
+            lastMiss.remove();
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        put(key, value);
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        long seen = missedAt(key);
+        cache.asMap().compute(key, (k, current) -> fencedSince(k, seen) ? current : toStoreValue(value));
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        long seen = missedAt(key);
+        Object[] existing = new Object[1];
+        cache.asMap().compute(key, (k, current) -> {
+            existing[0] = current;
+            return current != null || fencedSince(k, seen) ? current : toStoreValue(value);
+        });
+        return existing[0] != null ? new SimpleValueWrapper(fromStoreValue(existing[0])) : null;
+    }
+
+    @Override
+    public void evict(Object key) {
+        evictIfPresent(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean[] present = new boolean[1];
+        // Fenced under the entry's lock, so a put racing with the evict either lands before it or sees the fence
+        cache.asMap().compute(key, (k, current) -> {
+            fences.put(k, evictions.incrementAndGet());
+            present[0] = current != null;
+            return null;
+        });
+        return present[0];
+    }
+
+    @Override
+    public void clear() {
+        newestForgottenFence.accumulateAndGet(evictions.incrementAndGet(), Math::max);
+        super.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        newestForgottenFence.accumulateAndGet(evictions.incrementAndGet(), Math::max);
+        return super.invalidate();
+    }
+
+    private long missedAt(Object key) {
+        Miss miss = lastMiss.get();
+        lastMiss.remove();
+        return miss != null && miss.key().equals(key) ? miss.seen() : 0;
+    }
+
+    private boolean fencedSince(Object key, long seen) {
+        Long fence = fences.getIfPresent(key);
+        return seen < Math.max(fence != null ? fence : 0, newestForgottenFence.get());
+    }
+
+    private record Miss(Object key, long seen) {
+    }
+}
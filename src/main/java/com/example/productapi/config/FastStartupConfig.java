@@ -0,0 +1,22 @@
+package com.example.productapi.config;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.orm.jpa.AbstractEntityManagerFactoryBean;
+
+/**
+ * Tuning for the {@code fast-startup} profile, which initializes beans lazily. Hibernate reads no JDBC metadata in
+ * that profile, so building its metamodel needs no connection and is left at startup; otherwise the first request
+ * of every new instance would pay for it.
+ */
+@Configuration
+@Profile("fast-startup")
+public class FastStartupConfig {
+
+    @Bean
+    static LazyInitializationExcludeFilter eagerEntityManagerFactory() {
+        return LazyInitializationExcludeFilter.forBeanTypes(AbstractEntityManagerFactoryBean.class);
+    }
+}
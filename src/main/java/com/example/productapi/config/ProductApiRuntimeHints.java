@@ -0,0 +1,46 @@
+package com.example.productapi.config;
+
+import com.example.productapi.dto.BatchCreateResponse;
+import com.example.productapi.dto.BatchItemResult;
+import com.example.productapi.dto.CursorPage;
+import com.example.productapi.dto.ImportJobStatus;
+import com.example.productapi.dto.ImportRowError;
+import com.example.productapi.dto.ProductDTO;
+import com.example.productapi.dto.ProductFilter;
+import com.example.productapi.dto.ProductPatchDTO;
+import com.example.productapi.dto.ProductView;
+import com.example.productapi.dto.SlicePage;
+import com.example.productapi.model.Product;
+import com.example.productapi.model.ProductChange;
+import com.example.productapi.model.ProductIdGenerator;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+/**
+ * Native-image metadata for what AOT processing cannot infer from the application's beans. Hibernate, Jackson,
+ * springdoc and the JDBC drivers bring their own through Spring AOT and the GraalVM reachability metadata
+ * repository; Lombok's accessors are plain compiled methods and are covered by the binding hints below.
+ */
+public class ProductApiRuntimeHints implements RuntimeHintsRegistrar {
+
+    private final BindingReflectionHintsRegistrar bindingHints = new BindingReflectionHintsRegistrar();
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        // Bound or written by Jackson outside controller signatures too: the response cache, exports, NDJSON
+        // imports and the change feed. ProductView is also built by the JPQL constructor expression
+        bindingHints.registerReflectionHints(hints.reflection(),
+                Product.class, ProductChange.class, ProductDTO.class, ProductPatchDTO.class, ProductView.class,
+                ProductFilter.class, CursorPage.class, SlicePage.class,
+                BatchCreateResponse.class, BatchItemResult.class, ImportJobStatus.class, ImportRowError.class);
+
+        // Instantiated by class name from @JsonDeserialize(using = ...) and @GenericGenerator(type = ...)
+        hints.reflection().registerType(BigDecimalDeserializer.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+        hints.reflection().registerType(ProductIdGenerator.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+
+        // Flyway scripts live in per-database folders below the default location
+        hints.resources().registerPattern("db/migration/*/*");
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.productapi.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * Where the current thread's read-only transactions read from, for caches that must not keep what a lagging
+ * replica returned. Without {@code productapi.datasource.replicas.urls} every read uses the primary.
+ */
+@Component
+public class ReadRouting {
+
+    private final boolean replicas;
+
+    public ReadRouting(ObjectProvider<ReplicaRoutingDataSource> replicaDataSource) {
+        this.replicas = replicaDataSource.getIfAvailable() != null;
+    }
+
+    /**
+     * Whether the current request is pinned to the primary because its client just wrote.
+     */
+    public boolean primaryOnly() {
+        return ReplicaRoutingDataSource.isPrimaryOnly();
+    }
+
+    /**
+     * Whether read-only transactions on the current thread go to a replica, which may lag behind the primary.
+     */
+    public boolean fromReplica() {
+        return replicas && !primaryOnly();
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.productapi.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+import java.io.IOException;
+import java.security.Principal;
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Sends the reads of a client that just wrote to the primary for a short window, so it sees its own writes even
+ * while the replicas lag behind. Clients are the authenticated principal, or else a random token handed out in the
+ * {@value #TOKEN_COOKIE} cookie on their first write; clients that drop the cookie read from the replicas.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    static final String TOKEN_COOKIE = "productapi-ryw";
+
+    private final Duration window;
+    private final Cache<String, Boolean> recentWriters;
+
+    public ReadYourWritesFilter(Duration window) {
+        this.window = window;
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(window)
+                .maximumSize(100_000)
+                .build();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (!isRead(request)) {
+            // Recorded up front, as the final status of async and streamed writes is not known here. A failed
+            // write only costs the client a few primary reads
+            recentWriters.put(writerKey(request, response), Boolean.TRUE);
+            // Writes run in read-write transactions, which always use the primary
+            filterChain.doFilter(request, response);
+            return;
+        }
+        String client = readerKey(request);
+        if (client == null || recentWriters.getIfPresent(client) == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        ReplicaRoutingDataSource.setPrimaryOnly();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReplicaRoutingDataSource.clearPrimaryOnly();
+        }
+    }
+
+    private String writerKey(HttpServletRequest request, HttpServletResponse response) {
+        Principal principal = request.getUserPrincipal();
+        if (principal != null) {
+            return "principal:" + principal.getName();
+        }
+        String token = token(request);
+        // Sent again on every write so the cookie lives as long as the window it pins
+        Cookie cookie = new Cookie(TOKEN_COOKIE, token != null ? token : UUID.randomUUID().toString());
+        cookie.setPath("/");
+        cookie.setHttpOnly(true);
+        cookie.setMaxAge((int) Math.max(1, window.toSeconds()));
+        response.addCookie(cookie);
+        return "token:" + cookie.getValue();
+    }
+
+    private static String readerKey(HttpServletRequest request) {
+        Principal principal = request.getUserPrincipal();
+        if (principal != null) {
+            return "principal:" + principal.getName();
+        }
+        String token = token(request);
+        return token != null ? "token:" + token : null;
+    }
+
+    private static String token(HttpServletRequest request) {
+        Cookie cookie = WebUtils.getCookie(request, TOKEN_COOKIE);
+        return cookie != null && !cookie.getValue().isBlank() ? cookie.getValue() : null;
+    }
+
+    private static boolean isRead(HttpServletRequest request) {
+        return "GET".equals(request.getMethod()) || "HEAD".equals(request.getMethod());
+    }
+}
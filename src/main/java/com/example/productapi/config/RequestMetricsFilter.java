@@ -0,0 +1,52 @@
+package com.example.productapi.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Records how many SQL statements each request ran, tagged by route and statement kind.
+ */
+@RequiredArgsConstructor
+public class RequestMetricsFilter extends OncePerRequestFilter {
+
+    static final String STATEMENTS_METRIC = "productapi.jdbc.statements.per.request";
+
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        StatementCountingInspector.drain();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            Map<StatementCountingInspector.Kind, Integer> counts = StatementCountingInspector.drain();
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+            int total = 0;
+            for (StatementCountingInspector.Kind kind : StatementCountingInspector.Kind.values()) {
+                int count = counts.getOrDefault(kind, 0);
+                total += count;
+                summary(request.getMethod(), uri, kind.name().toLowerCase()).record(count);
+            }
+            summary(request.getMethod(), uri, "all").record(total);
+        }
+    }
+
+    private DistributionSummary summary(String method, String uri, String kind) {
+        return DistributionSummary.builder(STATEMENTS_METRIC)
+                .description("SQL statements executed while handling a request")
+                .tags("method", method, "uri", uri, "kind", kind)
+                .register(meterRegistry);
+    }
+}
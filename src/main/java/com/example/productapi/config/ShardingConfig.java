@@ -0,0 +1,114 @@
+package com.example.productapi.config;
+
+import com.example.productapi.model.ProductIdGenerator;
+import com.example.productapi.repository.ProductRepository;
+import com.example.productapi.repository.ProductShards;
+import com.example.productapi.service.ProductService;
+import com.example.productapi.service.impl.ProductSearchIndex;
+import com.example.productapi.service.impl.ProductServiceImpl;
+import com.example.productapi.service.impl.ShardedProductService;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits the products table across the databases listed in {@code productapi.sharding.urls}; the position in the
+ * list is the shard number encoded in product ids, so shards can be appended but never reordered. Listing the
+ * current database first keeps its existing ids valid. JPA sees a {@link LazyConnectionDataSourceProxy} over the
+ * {@link ShardRoutingDataSource}, which only picks the shard's pool at the first statement of a transaction, and
+ * Flyway migrates every shard. Data that is not sharded (change feed, count estimate) lives on shard 0.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "productapi.sharding.urls")
+public class ShardingConfig {
+
+    private final List<String> urls;
+
+    public ShardingConfig(@Value("${productapi.sharding.urls}") List<String> urls,
+                          @Value("${productapi.datasource.replicas.urls:}") String replicaUrls) {
+        if (!replicaUrls.isBlank()) {
+            throw new IllegalStateException("Read replicas cannot be combined with sharding, "
+                    + "unset productapi.datasource.replicas.urls or productapi.sharding.urls");
+        }
+        if (urls.size() > ProductShards.MAX_SHARDS) {
+            throw new IllegalStateException("At most " + ProductShards.MAX_SHARDS + " shards are supported");
+        }
+        this.urls = urls;
+    }
+
+    @Bean
+    public ShardRoutingDataSource shardDataSource(
+            DataSourceProperties dataSourceProperties,
+            MeterRegistry meterRegistry,
+            @Value("${productapi.sharding.username:${spring.datasource.username:}}") String username,
+            @Value("${productapi.sharding.password:${spring.datasource.password:}}") String password,
+            @Value("${productapi.sharding.maximum-pool-size:20}") int maximumPoolSize) {
+        List<HikariDataSource> shards = new ArrayList<>();
+        for (String url : urls) {
+            HikariDataSource shard = dataSourceProperties.initializeDataSourceBuilder()
+                    .type(HikariDataSource.class)
+                    .url(url.trim())
+                    .username(username)
+                    .password(password)
+                    .build();
+            shard.setPoolName("shard-" + shards.size());
+            shard.setMaximumPoolSize(maximumPoolSize);
+            // Not beans, so Boot does not bind their pool metrics; hikaricp_* is tagged with the pool name
+            shard.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            shards.add(shard);
+        }
+        return new ShardRoutingDataSource(shards);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardRoutingDataSource shardDataSource) {
+        return new LazyConnectionDataSourceProxy(shardDataSource);
+    }
+
+    @Bean
+    public FlywayMigrationStrategy shardMigrationStrategy(ShardRoutingDataSource shardDataSource) {
+        return flyway -> shardDataSource.shards().forEach(shard -> Flyway.configure()
+                .configuration(flyway.getConfiguration())
+                .dataSource(shard)
+                .load()
+                .migrate());
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer shardCountCustomizer() {
+        return properties -> properties.put(ProductIdGenerator.SHARD_COUNT_SETTING, urls.size());
+    }
+
+    @Bean
+    @Primary
+    public ProductService shardedProductService(ProductServiceImpl productService,
+                                                ProductRepository productRepository,
+                                                ProductSearchIndex productSearchIndex,
+                                                ShardRoutingDataSource shardDataSource) throws MetaDataAccessException {
+        // Merged listings have to place nulls where each shard's ORDER BY does
+        boolean nullsSortedHigh = JdbcUtils.extractDatabaseMetaData(
+                shardDataSource.shards().get(0), DatabaseMetaData::nullsAreSortedHigh);
+        return new ShardedProductService(productService, productRepository, productSearchIndex, urls.size(),
+                nullsSortedHigh);
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.productapi.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread, by kind, so request-level
+ * metrics can show how many queries each endpoint runs (and catch regressions such as N+1 selects).
+ */
+public class StatementCountingInspector implements StatementInspector {
+
+    public enum Kind { SELECT, COUNT, INSERT, UPDATE, DELETE, OTHER }
+
+    private static final ThreadLocal<Map<Kind, Integer>> COUNTS = ThreadLocal.withInitial(() -> new EnumMap<>(Kind.class));
+
+    @Override
+    public String inspect(String sql) {
+        COUNTS.get().merge(kindOf(sql), 1, Integer::sum);
+        return sql;
+    }
+
+    /**
+     * Returns the counts recorded on this thread since the last call and resets them.
+     */
+    public static Map<Kind, Integer> drain() {
+        Map<Kind, Integer> counts = COUNTS.get();
+        COUNTS.remove();
+        return counts;
+    }
+
+    static Kind kindOf(String sql) {
+        String statement = sql.stripLeading().toLowerCase(Locale.ROOT);
+        if (statement.startsWith("select count(")) {
+            return Kind.COUNT;
+        }
+        if (statement.startsWith("select") || statement.startsWith("with")) {
+            return Kind.SELECT;
+        }
+        if (statement.startsWith("insert")) {
+            return Kind.INSERT;
+        }
+        if (statement.startsWith("update")) {
+            return Kind.UPDATE;
+        }
+        if (statement.startsWith("delete")) {
+            return Kind.DELETE;
+        }
+        return Kind.OTHER;
+    }
+}
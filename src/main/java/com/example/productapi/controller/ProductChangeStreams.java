@@ -0,0 +1,112 @@
+package com.example.productapi.controller;
+
+import com.example.productapi.exception.ChangesExpiredException;
+import com.example.productapi.model.ProductChange;
+import com.example.productapi.service.ProductChangeFeed;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Pumps the {@link ProductChangeFeed} into SSE connections, one virtual thread per connection. Each pump pulls
+ * batches after its cursor, so a slow client only falls behind (and eventually back to the table) instead of
+ * buffering events in memory. Idle connections get a comment line every heartbeat interval, which also detects
+ * clients that went away. Clients whose cursor is older than the retained history get a reset event instead.
+ */
+@Slf4j
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+class ProductChangeStreams {
+
+    static final String RESET_EVENT = "reset";
+
+    private static final int BATCH_SIZE = 500;
+
+    private final ProductChangeFeed productChangeFeed;
+    private final Duration timeout;
+    private final Duration heartbeatInterval;
+    private final ExecutorService pumps = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("product-changes-", 0).factory());
+
+    ProductChangeStreams(ProductChangeFeed productChangeFeed,
+                         @Value("${productapi.changes.stream-timeout:PT30M}") Duration timeout,
+                         @Value("${productapi.changes.heartbeat-interval:PT15S}") Duration heartbeatInterval) {
+        this.productChangeFeed = productChangeFeed;
+        this.timeout = timeout;
+        this.heartbeatInterval = heartbeatInterval;
+    }
+
+    /**
+     * Streams every change after {@code after} until the client disconnects or the stream times out; clients
+     * reconnect with {@code Last-Event-ID} and continue where they left off.
+     */
+    SseEmitter open(long after) {
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        AtomicBoolean open = new AtomicBoolean(true);
+        emitter.onCompletion(() -> open.set(false));
+        emitter.onTimeout(() -> open.set(false));
+        emitter.onError(e -> open.set(false));
+        pumps.submit(() -> pump(emitter, after, open));
+        return emitter;
+    }
+
+    private void pump(SseEmitter emitter, long after, AtomicBoolean open) {
+        long cursor = after;
+        try {
+            while (open.get()) {
+                List<ProductChange> changes = productChangeFeed.changesAfter(cursor, BATCH_SIZE, heartbeatInterval);
+                if (changes.isEmpty()) {
+                    emitter.send(SseEmitter.event().comment("heartbeat"));
+                }
+                for (ProductChange change : changes) {
+                    emitter.send(SseEmitter.event()
+                            .id(String.valueOf(change.getSequence()))
+                            .data(change, MediaType.APPLICATION_JSON));
+                    cursor = change.getSequence();
+                }
+            }
+        } catch (ChangesExpiredException e) {
+            resync(emitter, e);
+        } catch (IOException | IllegalStateException e) {
+            // The client disconnected or the emitter already completed
+            log.debug("Product change stream closed at {}: {}", cursor, e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            emitter.complete();
+        } catch (RuntimeException e) {
+            emitter.completeWithError(e);
+        }
+    }
+
+    /**
+     * Tells a client whose cursor was pruned to reload its state: the {@value #RESET_EVENT} event carries the current
+     * sequence as its id, so the client's reconnect resumes from there instead of skipping the pruned changes unnoticed.
+     */
+    private void resync(SseEmitter emitter, ChangesExpiredException e) {
+        try {
+            emitter.send(SseEmitter.event()
+                    .name(RESET_EVENT)
+                    .id(String.valueOf(productChangeFeed.lastSequence()))
+                    .data(e.getMessage()));
+            emitter.complete();
+        } catch (IOException | IllegalStateException closed) {
+            log.debug("Product change stream closed before reset: {}", closed.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pumps.shutdownNow();
+    }
+}
@@ -1,8 +1,24 @@
 package com.example.productapi.controller;
 
+import com.example.productapi.dto.BatchCreateResponse;
+import com.example.productapi.dto.CursorPage;
 import com.example.productapi.dto.ProductDTO;
+import com.example.productapi.dto.ProductFilter;
+import com.example.productapi.dto.ProductPatchDTO;
+import com.example.productapi.dto.ProductView;
+import com.example.productapi.dto.SlicePage;
+import com.example.productapi.exception.InvalidBatchException;
+import com.example.productapi.exception.InvalidPatchException;
+import com.example.productapi.exception.InvalidSearchException;
 import com.example.productapi.model.Product;
+import com.example.productapi.model.ProductChange;
+import com.example.productapi.service.ProductChangeFeed;
 import com.example.productapi.service.ProductService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.annotation.Timed;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -12,19 +28,47 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/products")
 @RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @Tag(name = "Product Controller", description = "Product management APIs")
+@Timed(value = "productapi.controller", description = "Handler latency, excluding response serialization")
 public class ProductController {
 
+    private static final int MAX_CURSOR_PAGE_SIZE = 1000;
+    private static final int MAX_BATCH_SIZE = 10000;
+    private static final int MAX_SEARCH_WINDOW = 10000;
+    // Shards order strings by their own collation, which the merge of their results cannot reproduce
+    private static final String SHARDED_SORT_NOTE = "When the catalog is sharded (productapi.sharding.urls), " +
+            "sorting by name or description is rejected with 400.";
+
     private final ProductService productService;
+    private final ProductResponseCache productResponseCache;
+    private final ProductChangeFeed productChangeFeed;
+    private final ProductChangeStreams productChangeStreams;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     @Operation(summary = "Create a new product")
@@ -35,21 +79,62 @@ public class ProductController {
     })
     public ResponseEntity<Product> createProduct(@Valid @RequestBody ProductDTO productDTO) {
         Product createdProduct = productService.createProduct(productDTO);
-        return new ResponseEntity<>(createdProduct, HttpStatus.CREATED);
+        return ResponseEntity.status(HttpStatus.CREATED).eTag(ProductETags.of(createdProduct.getVersion())).body(createdProduct);
+    }
+
+    @PostMapping("/batch")
+    @Operation(
+        summary = "Create products in bulk",
+        description = "Validates every item and persists the valid ones in chunked, JDBC-batched transactions. " +
+                "Invalid items do not prevent the others from being created; the response reports the outcome " +
+                "of each item in request order. At most " + MAX_BATCH_SIZE + " items per request."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Batch processed, see per-item results",
+            content = @Content(schema = @Schema(implementation = BatchCreateResponse.class))),
+        @ApiResponse(responseCode = "400", description = "Empty or oversized batch, or malformed body")
+    })
+    public ResponseEntity<BatchCreateResponse> createProducts(@RequestBody List<ProductDTO> productDTOs) {
+        if (productDTOs.isEmpty() || productDTOs.size() > MAX_BATCH_SIZE) {
+            throw new InvalidBatchException("Batch must contain between 1 and " + MAX_BATCH_SIZE + " items");
+        }
+        return ResponseEntity.ok(productService.createProducts(productDTOs));
     }
 
     @GetMapping("/{id}")
-    @Operation(summary = "Get a product by ID")
+    @Operation(summary = "Get a product by ID", description = "The ETag response header carries the product version, " +
+            "to be sent back as If-Match by conditional PUT, PATCH and DELETE requests, or as If-None-Match to get " +
+            "304 Not Modified while the product is unchanged. JSON responses are served from pre-serialized bytes, " +
+            "gzip-compressed when the client sends 'Accept-Encoding: gzip'. Gzip, CBOR and Smile responses carry " +
+            "tags of their own, e.g. \"3-gzip\", \"3-cbor\" and \"3-smile\", which If-Match also accepts.")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Product found",
-            content = @Content(schema = @Schema(implementation = Product.class))),
+            content = @Content(schema = @Schema(implementation = ProductView.class))),
+        @ApiResponse(responseCode = "304", description = "Product unchanged since the If-None-Match ETag"),
         @ApiResponse(responseCode = "400", description = "Invalid ID format"),
         @ApiResponse(responseCode = "404", description = "Product not found")
     })
-    public ResponseEntity<Product> getProduct(
-            @Parameter(description = "ID of the product to be retrieved (must be a number)") @PathVariable Long id) {
-        Product product = productService.getProductById(id);
-        return ResponseEntity.ok(product);
+    public ResponseEntity<?> getProduct(
+            @Parameter(description = "ID of the product to be retrieved (must be a number)") @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        ProductView view = productService.getProductById(id);
+        MediaType format = preferredFormat(accept);
+        if (!MediaType.APPLICATION_JSON.equals(format)) {
+            return formatted(ResponseEntity.ok(), format, tagged -> ProductETags.of(view.version(), tagged)).body(view);
+        }
+
+        // Cached bytes are written as they are by the byte array converter, bypassing the object mapper
+        ProductResponseCache.SerializedProduct product = productResponseCache.get(view);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING)
+                .contentType(MediaType.APPLICATION_JSON);
+        if (acceptsGzip(acceptEncoding)) {
+            return response.eTag(ProductETags.ofGzip(product.version()))
+                    .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                    .body(product.gzip());
+        }
+        return response.eTag(ProductETags.of(product.version())).body(product.json());
     }
 
     @GetMapping
@@ -58,14 +143,165 @@ public class ProductController {
         description = "Returns a paginated list of products. Use query parameters for pagination and sorting:\n" +
                 "- page: Page number (0-indexed, default: 0)\n" +
                 "- size: Page size (default: 20)\n" +
-                "- sort: Property to sort by, optionally followed by direction (e.g., 'name,asc' or 'price,desc')\n\n" +
-                "Valid sort properties: id, name, description, price, createdAt"
+                "- sort: Property to sort by, optionally followed by direction (e.g., 'name,asc' or 'price,desc')\n" +
+                "- minPrice / maxPrice: Inclusive price range\n" +
+                "- createdFrom / createdTo: Creation window, from inclusive, to exclusive (ISO timestamps)\n" +
+                "- namePrefix: Case-insensitive name prefix\n\n" +
+                "Valid sort properties: id, name, description, price, createdAt. " + SHARDED_SORT_NOTE + "\n\n" +
+                "The ETag response header changes whenever the page would; send it as If-None-Match to get " +
+                "304 Not Modified instead of an identical page."
     )
-    @ApiResponse(responseCode = "200", description = "List of products",
-        content = @Content(schema = @Schema(implementation = Page.class)))
-    public ResponseEntity<Page<Product>> getAllProducts(Pageable pageable) {
-        Page<Product> products = productService.getAllProducts(pageable);
-        return ResponseEntity.ok(products);
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "List of products",
+            content = @Content(schema = @Schema(implementation = Page.class))),
+        @ApiResponse(responseCode = "304", description = "Page unchanged since the If-None-Match ETag"),
+        @ApiResponse(responseCode = "400", description = "Invalid sort parameter")
+    })
+    public ResponseEntity<Page<ProductView>> getAllProducts(
+            ProductFilter filter,
+            Pageable pageable,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        Page<ProductView> products = filter.hasCriteria()
+                ? productService.getAllProducts(filter, pageable)
+                : productService.getAllProducts(pageable);
+        MediaType format = preferredFormat(accept);
+        return formatted(ResponseEntity.ok(), format, tagged -> ProductETags.of(products, tagged)).body(products);
+    }
+
+    @GetMapping("/cursor")
+    @Operation(
+        summary = "Get products with keyset (cursor) pagination",
+        description = "Returns products ordered by the sort property and then by id, seeking past the last row of the " +
+                "previous page instead of skipping rows, so deep pages cost the same as the first one.\n" +
+                "- after: Opaque cursor returned as 'nextCursor' by the previous call (omit for the first page)\n" +
+                "- size: Page size (default: 20, max: " + MAX_CURSOR_PAGE_SIZE + ")\n" +
+                "- sort: Property to sort by, optionally followed by direction (e.g., 'price,desc'). " +
+                "Ignored when 'after' is given, since the cursor carries its own ordering\n\n" +
+                "Valid sort properties: id, price, name, createdAt. " + SHARDED_SORT_NOTE
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Page of products",
+            content = @Content(schema = @Schema(implementation = CursorPage.class))),
+        @ApiResponse(responseCode = "400", description = "Invalid cursor or sort parameter")
+    })
+    public ResponseEntity<CursorPage<Product>> getProductsByCursor(
+            @Parameter(description = "Cursor from the previous page") @RequestParam(required = false) String after,
+            @Parameter(description = "Page size") @RequestParam(defaultValue = "20") int size,
+            Sort sort) {
+        int pageSize = Math.min(Math.max(size, 1), MAX_CURSOR_PAGE_SIZE);
+        return ResponseEntity.ok(productService.getProductsAfter(after, pageSize, sort));
+    }
+
+    @GetMapping("/slice")
+    @Operation(
+        summary = "Get products without a total count",
+        description = "Same pagination and sorting parameters as the paginated listing, but no count query is run: " +
+                "one extra row is fetched to tell whether a next page exists.\n" +
+                "- includeTotal: When true, adds an approximate total taken from a periodically refreshed estimate " +
+                "(left out until the first estimate, taken in the background right after startup)\n\n" +
+                SHARDED_SORT_NOTE
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Slice of products",
+            content = @Content(schema = @Schema(implementation = SlicePage.class))),
+        @ApiResponse(responseCode = "400", description = "Invalid sort parameter")
+    })
+    public ResponseEntity<SlicePage<Product>> getProductSlice(
+            Pageable pageable,
+            @Parameter(description = "Include an approximate total count") @RequestParam(defaultValue = "false") boolean includeTotal) {
+        return ResponseEntity.ok(productService.getProductSlice(pageable, includeTotal));
+    }
+
+    @GetMapping("/search")
+    @Operation(
+        summary = "Search products by keyword",
+        description = "Full-text search over name and description, served from an in-memory inverted index and " +
+                "ranked by relevance (BM25, name matches weigh more). Matching is case- and accent-insensitive on " +
+                "whole words; products containing any of the words match.\n" +
+                "- q: Search words\n" +
+                "- page: Page number (0-indexed, default: 0)\n" +
+                "- size: Page size (default: 20)\n\n" +
+                "Only the first " + MAX_SEARCH_WINDOW + " hits can be paged through. Sort parameters are ignored."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Matching products, best first",
+            content = @Content(schema = @Schema(implementation = Page.class))),
+        @ApiResponse(responseCode = "400", description = "Missing or empty query, or page beyond the result window")
+    })
+    public ResponseEntity<Page<Product>> searchProducts(
+            @Parameter(description = "Search words") @RequestParam String q,
+            Pageable pageable) {
+        if (pageable.getOffset() + pageable.getPageSize() > MAX_SEARCH_WINDOW) {
+            throw new InvalidSearchException("Search results are limited to the first " + MAX_SEARCH_WINDOW + " hits");
+        }
+        return ResponseEntity.ok(productService.searchProducts(q, pageable));
+    }
+
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(
+        summary = "Stream product changes as Server-Sent Events",
+        description = "Pushes one event per committed create, update, patch or delete, in commit order. The event id " +
+                "is the change's sequence number: reconnecting with a Last-Event-ID header (as EventSource does) " +
+                "resumes right after it. Without a cursor only changes from now on are sent; after=0 replays every " +
+                "retained change first. A cursor older than the retained history gets a single 'reset' event, whose id " +
+                "is the current sequence, and the stream closes: reload the products, then reconnect from that id."
+    )
+    @ApiResponse(responseCode = "200", description = "SSE stream of ProductChange events",
+        content = @Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE,
+            schema = @Schema(implementation = ProductChange.class)))
+    public SseEmitter streamChanges(
+            @Parameter(description = "Sequence of the last change received; takes precedence over 'after'")
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId,
+            @Parameter(description = "Sequence to start after")
+            @RequestParam(required = false) Long after) {
+        long cursor = lastEventId != null ? lastEventId
+                : after != null ? after
+                : productChangeFeed.lastSequence();
+        return productChangeStreams.open(cursor);
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(
+        summary = "Export the catalog as newline-delimited JSON",
+        description = "Streams every product (one JSON object per line, ordered by id) straight from a database cursor, " +
+                "so memory use does not depend on the catalog size. The response is gzip-compressed when the client " +
+                "sends 'Accept-Encoding: gzip'.\n" +
+                "Takes the same filters as the paginated listing:\n" +
+                "- minPrice / maxPrice: Inclusive price range\n" +
+                "- createdFrom / createdTo: Creation window, from inclusive, to exclusive (ISO timestamps)\n" +
+                "- namePrefix: Case-insensitive name prefix"
+    )
+    @ApiResponse(responseCode = "200", description = "NDJSON stream of products")
+    public ResponseEntity<StreamingResponseBody> exportProducts(
+            ProductFilter filter,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        boolean gzip = acceptsGzip(acceptEncoding);
+        ObjectWriter writer = objectMapper.writerFor(Product.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        StreamingResponseBody body = outputStream -> {
+            OutputStream out = gzip ? new GZIPOutputStream(outputStream, 8192) : outputStream;
+            JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            productService.streamProducts(filter, product -> {
+                try {
+                    writer.writeValue(generator, product);
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            generator.close();
+            if (out instanceof GZIPOutputStream gzipOut) {
+                gzipOut.finish();
+            }
+        };
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING).body(body);
     }
 
     @PutMapping("/{id}")
@@ -74,13 +310,42 @@ public class ProductController {
         @ApiResponse(responseCode = "200", description = "Product updated successfully",
             content = @Content(schema = @Schema(implementation = Product.class))),
         @ApiResponse(responseCode = "400", description = "Invalid input or ID format"),
-        @ApiResponse(responseCode = "404", description = "Product not found")
+        @ApiResponse(responseCode = "404", description = "Product not found"),
+        @ApiResponse(responseCode = "409", description = "Product modified concurrently by another request"),
+        @ApiResponse(responseCode = "412", description = "Product changed since the If-Match version")
     })
     public ResponseEntity<Product> updateProduct(
             @Parameter(description = "ID of the product to be updated (must be a number)") @PathVariable Long id,
+            @Parameter(description = "ETag of the version this write is based on; the write fails with 412 when the product has changed since")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @Valid @RequestBody ProductDTO productDTO) {
-        Product updatedProduct = productService.updateProduct(id, productDTO);
-        return ResponseEntity.ok(updatedProduct);
+        Product updatedProduct = productService.updateProduct(id, productDTO, ProductETags.requiredVersion(ifMatch));
+        return ResponseEntity.ok().eTag(ProductETags.of(updatedProduct.getVersion())).body(updatedProduct);
+    }
+
+    @PatchMapping("/{id}")
+    @Operation(
+        summary = "Partially update a product",
+        description = "Sets only the fields present in the body with a single UPDATE statement, without reading the " +
+                "product first, so no body or ETag is returned. Omitted fields keep their current value, as do a null name " +
+                "or price; a null description removes it."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "204", description = "Product updated successfully"),
+        @ApiResponse(responseCode = "400", description = "Invalid input or ID format, or no field to update"),
+        @ApiResponse(responseCode = "404", description = "Product not found"),
+        @ApiResponse(responseCode = "412", description = "Product changed since the If-Match version")
+    })
+    public ResponseEntity<Void> patchProduct(
+            @Parameter(description = "ID of the product to be updated (must be a number)") @PathVariable Long id,
+            @Parameter(description = "ETag of the version this write is based on; the write fails with 412 when the product has changed since")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @Valid @RequestBody ProductPatchDTO productPatchDTO) {
+        if (!productPatchDTO.hasChanges()) {
+            throw new InvalidPatchException("Patch must set at least one of name, description or price");
+        }
+        productService.patchProduct(id, productPatchDTO, ProductETags.requiredVersion(ifMatch));
+        return ResponseEntity.noContent().build();
     }
 
     @DeleteMapping("/{id}")
@@ -88,11 +353,74 @@ public class ProductController {
     @ApiResponses(value = {
         @ApiResponse(responseCode = "204", description = "Product deleted successfully"),
         @ApiResponse(responseCode = "400", description = "Invalid ID format"),
-        @ApiResponse(responseCode = "404", description = "Product not found")
+        @ApiResponse(responseCode = "404", description = "Product not found"),
+        @ApiResponse(responseCode = "412", description = "Product changed since the If-Match version")
     })
     public ResponseEntity<Void> deleteProduct(
-            @Parameter(description = "ID of the product to be deleted (must be a number)") @PathVariable Long id) {
-        productService.deleteProduct(id);
+            @Parameter(description = "ID of the product to be deleted (must be a number)") @PathVariable Long id,
+            @Parameter(description = "ETag of the version this write is based on; the write fails with 412 when the product has changed since")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        productService.deleteProduct(id, ProductETags.requiredVersion(ifMatch));
         return ResponseEntity.noContent().build();
     }
-}
\ No newline at end of file
+
+    // Whether Accept-Encoding admits gzip: listed as gzip or x-gzip, or else covered by *, with a non-zero q-value
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzip = null;
+        Double any = null;
+        for (String element : acceptEncoding.split(",")) {
+            String[] parts = element.split(";");
+            String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+            double quality = 1.0;
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim();
+                if (parameter.regionMatches(true, 0, "q=", 0, 2)) {
+                    try {
+                        quality = Double.parseDouble(parameter.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        quality = 0;
+                    }
+                }
+            }
+            if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                gzip = quality;
+            } else if (coding.equals("*")) {
+                any = quality;
+            }
+        }
+        double quality = gzip != null ? gzip : any != null ? any : 0;
+        return quality > 0;
+    }
+
+    // Format served for the client's most preferred media type (the first one with the highest quality): JSON when
+    // it admits JSON, CBOR or Smile when it asks for them, or null when it asks for none of them
+    private static MediaType preferredFormat(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return MediaType.APPLICATION_JSON;
+        }
+        List<MediaType> accepted;
+        try {
+            accepted = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return null;
+        }
+        MediaType preferred = accepted.stream()
+                .reduce((first, next) -> next.getQualityValue() > first.getQualityValue() ? next : first)
+                .orElse(MediaType.APPLICATION_JSON);
+        if (preferred.includes(MediaType.APPLICATION_JSON)) {
+            return MediaType.APPLICATION_JSON;
+        }
+        return ProductETags.formats().stream().filter(preferred::includes).findFirst().orElse(null);
+    }
+
+    // Each format is a different byte sequence with a tag of its own. The content type is pinned so the tag names
+    // what is sent; without a format, content negotiation answers 406 and there is nothing to tag
+    private static ResponseEntity.BodyBuilder formatted(ResponseEntity.BodyBuilder response, MediaType format,
+                                                        Function<MediaType, String> eTag) {
+        response.varyBy(HttpHeaders.ACCEPT);
+        return format != null ? response.contentType(format).eTag(eTag.apply(format)) : response;
+    }
+}
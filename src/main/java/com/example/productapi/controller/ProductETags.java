@@ -0,0 +1,104 @@
+package com.example.productapi.controller;
+
+import com.example.productapi.dto.ProductView;
+import com.example.productapi.exception.PreconditionFailedException;
+import org.springframework.data.domain.Page;
+import org.springframework.http.MediaType;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Entity tags of products and listing pages. The strong ETag of a product is its quoted version, e.g. {@code "3"};
+ * its gzip-encoded JSON and its CBOR and Smile encodings are different byte sequences and get {@code "3-gzip"},
+ * {@code "3-cbor"} and {@code "3-smile"}, and page tags get the same format suffixes. All tags are computed from
+ * query results alone, so a matching {@code If-None-Match} is answered with 304 before anything is serialized
+ * (Spring MVC does that for GET responses carrying an ETag).
+ */
+final class ProductETags {
+
+    static final MediaType SMILE = new MediaType("application", "x-jackson-smile");
+
+    private static final String GZIP_SUFFIX = "-gzip";
+    private static final Map<MediaType, String> FORMAT_SUFFIXES = Map.of(
+            MediaType.APPLICATION_JSON, "",
+            MediaType.APPLICATION_CBOR, "-cbor",
+            SMILE, "-smile");
+    private static final List<String> SUFFIXES = List.of(GZIP_SUFFIX, "-cbor", "-smile");
+
+    private ProductETags() {
+    }
+
+    static String of(Long version) {
+        return "\"" + version + "\"";
+    }
+
+    static String ofGzip(Long version) {
+        return "\"" + version + GZIP_SUFFIX + "\"";
+    }
+
+    /**
+     * Tag of the product encoded in {@code format}, one of {@link #formats()}.
+     */
+    static String of(Long version, MediaType format) {
+        return "\"" + version + suffix(format) + "\"";
+    }
+
+    static Set<MediaType> formats() {
+        return FORMAT_SUFFIXES.keySet();
+    }
+
+    /**
+     * Digest of everything the page's JSON depends on: paging parameters, total, and the id and version of each
+     * row, since a row's version changes whenever its content does.
+     */
+    static String of(Page<ProductView> page, MediaType format) {
+        StringBuilder key = new StringBuilder()
+                .append(page.getNumber()).append('/')
+                .append(page.getSize()).append('/')
+                .append(page.getSort()).append('/')
+                .append(page.getTotalElements());
+        for (ProductView product : page) {
+            key.append(';').append(product.id()).append(':').append(product.version());
+        }
+        return "\"" + DigestUtils.md5DigestAsHex(key.toString().getBytes(StandardCharsets.UTF_8)) + suffix(format) + "\"";
+    }
+
+    /**
+     * Version an {@code If-Match} header requires, or null when there is no header or it is {@code *}. The tags of
+     * every representation name the version. Only a single strong ETag is supported; weak
+     * tags never match strongly, so anything else fails the precondition.
+     */
+    static Long requiredVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || "*".equals(ifMatch.trim())) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            String value = tag.substring(1, tag.length() - 1);
+            for (String suffix : SUFFIXES) {
+                if (value.endsWith(suffix)) {
+                    value = value.substring(0, value.length() - suffix.length());
+                    break;
+                }
+            }
+            try {
+                return Long.valueOf(value);
+            } catch (NumberFormatException ignored) {
+                // Not an ETag this API issued; falls through to the precondition failure
+            }
+        }
+        throw new PreconditionFailedException("If-Match must be a single strong ETag of the product, e.g. \"3\"");
+    }
+
+    private static String suffix(MediaType format) {
+        String suffix = FORMAT_SUFFIXES.get(format);
+        if (suffix == null) {
+            throw new IllegalArgumentException("No entity tag for format " + format);
+        }
+        return suffix;
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.productapi.controller;
+
+import com.example.productapi.dto.ImportFormat;
+import com.example.productapi.dto.ImportJobStatus;
+import com.example.productapi.service.ProductImportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/products/imports")
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@Tag(name = "Product Import Controller", description = "Bulk product import APIs")
+public class ProductImportController {
+
+    private final ProductImportService productImportService;
+
+    @PostMapping(consumes = {ImportFormat.TEXT_CSV_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    @Operation(
+        summary = "Start a bulk product import",
+        description = "Accepts a CSV file (header row with name, price and optionally description columns) or " +
+                "newline-delimited JSON (one ProductDTO per line). The body is stored in a temporary file and the " +
+                "response is sent once it has been received; rows are then parsed, validated and written in the " +
+                "background. Poll the returned job resource for progress and rejected rows. Uploads are limited to " +
+                "productapi.import.max-upload-size."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "202", description = "Import accepted",
+            content = @Content(schema = @Schema(implementation = ImportJobStatus.class))),
+        @ApiResponse(responseCode = "413", description = "Upload larger than productapi.import.max-upload-size"),
+        @ApiResponse(responseCode = "415", description = "Unsupported content type"),
+        @ApiResponse(responseCode = "503", description = "Too many imports running or queued; the body is not read")
+    })
+    public ResponseEntity<ImportJobStatus> startImport(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            @RequestHeader(value = HttpHeaders.CONTENT_LENGTH, required = false) Long contentLength,
+            InputStream body) throws IOException {
+        ImportJobStatus status = productImportService.startImport(body, ImportFormat.fromMediaType(contentType),
+                contentLength != null ? contentLength : -1);
+        URI location = ServletUriComponentsBuilder.fromCurrentRequest()
+                .path("/{id}")
+                .buildAndExpand(status.getId())
+                .toUri();
+        return ResponseEntity.accepted().location(location).body(status);
+    }
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Get the progress of a bulk product import")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Import job status",
+            content = @Content(schema = @Schema(implementation = ImportJobStatus.class))),
+        @ApiResponse(responseCode = "400", description = "Invalid ID format"),
+        @ApiResponse(responseCode = "404", description = "Import job not found")
+    })
+    public ResponseEntity<ImportJobStatus> getImportStatus(
+            @Parameter(description = "ID of the import job") @PathVariable UUID id) {
+        return ResponseEntity.ok(productImportService.getImportStatus(id));
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.productapi.controller;
+
+import com.example.productapi.config.CacheConfig;
+import com.example.productapi.dto.ProductView;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Ready-to-write JSON bodies of single products, plain and gzip-compressed, so hot reads of
+ * {@code GET /products/{id}} skip Jackson and compression entirely. Entries are keyed by id and version, the
+ * version being what the ETags are made of: bytes that a read stores after a concurrent write are filed under the
+ * version they were serialized from and are never served for a newer one. Writes therefore need not evict them;
+ * replaced versions age out under {@code productapi.cache.product-responses.spec}.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class ProductResponseCache {
+
+    private final ObjectMapper objectMapper;
+
+    @Cacheable(cacheNames = CacheConfig.PRODUCT_RESPONSES_CACHE, key = "{#product.id(), #product.version()}")
+    public SerializedProduct get(ProductView product) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(product);
+            return new SerializedProduct(product.version(), json, gzip(json));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(bytes.length);
+        try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+            out.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return compressed.toByteArray();
+    }
+
+    /**
+     * JSON of one product version, as written by the application's object mapper.
+     */
+    public record SerializedProduct(Long version, byte[] json, byte[] gzip) {
+    }
+}
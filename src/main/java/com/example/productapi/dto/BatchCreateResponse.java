@@ -0,0 +1,34 @@
+package com.example.productapi.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Per-item report of a batch create request")
+public class BatchCreateResponse {
+
+    @Schema(description = "Number of items received", example = "3")
+    private int total;
+
+    @Schema(description = "Number of items persisted", example = "2")
+    private int succeeded;
+
+    @Schema(description = "Number of items rejected", example = "1")
+    private int failed;
+
+    @Schema(description = "Outcome of each item, in request order")
+    private List<BatchItemResult> results;
+
+    public static BatchCreateResponse of(List<BatchItemResult> results) {
+        int succeeded = (int) results.stream()
+                .filter(result -> result.getStatus() == BatchItemResult.Status.CREATED)
+                .count();
+        return new BatchCreateResponse(results.size(), succeeded, results.size() - succeeded, results);
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.productapi.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Outcome of a single item in a batch request")
+public class BatchItemResult {
+
+    public enum Status { CREATED, FAILED }
+
+    @Schema(description = "Position of the item in the request (0-indexed)", example = "0")
+    private int index;
+
+    @Schema(description = "Whether the item was persisted")
+    private Status status;
+
+    @Schema(description = "ID of the created product, present when status is CREATED", example = "1")
+    private Long id;
+
+    @Schema(description = "Validation or persistence errors keyed by field, present when status is FAILED")
+    private Map<String, String> errors;
+
+    public static BatchItemResult created(int index, Long id) {
+        return new BatchItemResult(index, Status.CREATED, id, null);
+    }
+
+    public static BatchItemResult failed(int index, Map<String, String> errors) {
+        return new BatchItemResult(index, Status.FAILED, null, errors);
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.productapi.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "A page of results fetched with keyset (cursor) pagination")
+public class CursorPage<T> {
+
+    @Schema(description = "Items in this page")
+    private List<T> content;
+
+    @Schema(description = "Requested page size", example = "20")
+    private int size;
+
+    @Schema(description = "Whether more items exist after this page")
+    private boolean hasNext;
+
+    @Schema(description = "Opaque token to pass as 'after' to fetch the next page; null on the last page")
+    private String nextCursor;
+}
@@ -0,0 +1,17 @@
+package com.example.productapi.dto;
+
+import org.springframework.http.MediaType;
+
+public enum ImportFormat {
+    CSV,
+    NDJSON;
+
+    public static final String TEXT_CSV_VALUE = "text/csv";
+
+    public static ImportFormat fromMediaType(MediaType mediaType) {
+        if (mediaType != null && MediaType.APPLICATION_NDJSON.isCompatibleWith(mediaType)) {
+            return NDJSON;
+        }
+        return CSV;
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.productapi.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Progress of a bulk import job")
+public class ImportJobStatus {
+
+    public enum State { QUEUED, RUNNING, COMPLETED, FAILED }
+
+    @Schema(description = "Job identifier")
+    private UUID id;
+
+    @Schema(description = "Current state of the job")
+    private State state;
+
+    @Schema(description = "Format of the uploaded file")
+    private ImportFormat format;
+
+    @Schema(description = "Data rows parsed so far", example = "120000")
+    private long rowsRead;
+
+    @Schema(description = "Rows persisted so far", example = "119998")
+    private long rowsImported;
+
+    @Schema(description = "Rows rejected so far", example = "2")
+    private long rowsRejected;
+
+    @Schema(description = "Processed rows (imported + rejected) per second since the job started", example = "25000.0")
+    private double rowsPerSecond;
+
+    @Schema(description = "When processing started")
+    private LocalDateTime startedAt;
+
+    @Schema(description = "When processing finished")
+    private LocalDateTime finishedAt;
+
+    @Schema(description = "Failure reason, present when state is FAILED")
+    private String message;
+
+    @Schema(description = "Rejected rows with line numbers (capped; rowsRejected has the full count)")
+    private List<ImportRowError> errors;
+}
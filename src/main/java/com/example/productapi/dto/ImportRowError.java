@@ -0,0 +1,21 @@
+package com.example.productapi.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "A rejected row of an import")
+public class ImportRowError {
+
+    @Schema(description = "Line number in the uploaded file (1-indexed, header included)", example = "42")
+    private long line;
+
+    @Schema(description = "Parse, validation or persistence errors keyed by field")
+    private Map<String, String> errors;
+}
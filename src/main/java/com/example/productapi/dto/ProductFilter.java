@@ -0,0 +1,39 @@
+package com.example.productapi.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Optional filters for the product listing and the catalog export")
+public class ProductFilter {
+
+    @Schema(description = "Minimum price (inclusive)", example = "10.00")
+    private BigDecimal minPrice;
+
+    @Schema(description = "Maximum price (inclusive)", example = "50.00")
+    private BigDecimal maxPrice;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    @Schema(description = "Only products created at or after this timestamp", example = "2024-01-01T00:00:00")
+    private LocalDateTime createdFrom;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    @Schema(description = "Only products created strictly before this timestamp", example = "2024-01-08T00:00:00")
+    private LocalDateTime createdTo;
+
+    @Schema(description = "Case-insensitive prefix of the product name", example = "lap")
+    private String namePrefix;
+
+    public boolean hasCriteria() {
+        return minPrice != null || maxPrice != null || createdFrom != null || createdTo != null
+                || (namePrefix != null && !namePrefix.isEmpty());
+    }
+}
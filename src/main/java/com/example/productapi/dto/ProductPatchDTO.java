@@ -0,0 +1,61 @@
+package com.example.productapi.dto;
+
+import com.example.productapi.config.BigDecimalDeserializer;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@Schema(description = "Partial product update. Omitted fields are left unchanged, as are a null name or price; " +
+        "a null description clears it")
+public class ProductPatchDTO {
+
+    @Pattern(regexp = ".*\\S.*", message = "Name must not be blank")
+    @Size(min = 3, message = "Name must be at least 3 characters")
+    @Schema(description = "New name of the product", example = "Laptop")
+    private String name;
+
+    @Schema(description = "New description of the product, or null to remove it", example = "High-performance laptop with 32GB RAM")
+    private String description;
+
+    // Jackson only calls the setter for fields present in the body, which tells an explicit null from an omitted one
+    @JsonIgnore
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private boolean descriptionPresent;
+
+    @DecimalMin(value = "0.01", message = "Price must be greater than 0")
+    @Schema(description = "New price of the product", example = "899.99")
+    @JsonDeserialize(using = BigDecimalDeserializer.class)
+    private BigDecimal price;
+
+    public ProductPatchDTO(String name, String description, BigDecimal price) {
+        this.name = name;
+        this.description = description;
+        this.price = price;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+        this.descriptionPresent = true;
+    }
+
+    public boolean hasDescription() {
+        return descriptionPresent || description != null;
+    }
+
+    public boolean hasChanges() {
+        return name != null || hasDescription() || price != null;
+    }
+}
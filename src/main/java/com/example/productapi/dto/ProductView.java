@@ -0,0 +1,31 @@
+package com.example.productapi.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Read-only product row, selected straight into this record by the read queries so no managed entity
+ * is created. Serializes to the same JSON as {@link com.example.productapi.model.Product}.
+ */
+@Schema(description = "Product")
+public record ProductView(
+        @Schema(description = "Unique identifier of the product", example = "1")
+        Long id,
+
+        @Schema(description = "Name of the product", example = "Laptop")
+        String name,
+
+        @Schema(description = "Description of the product", example = "High-performance laptop with 16GB RAM")
+        String description,
+
+        @Schema(description = "Price of the product", example = "999.99")
+        BigDecimal price,
+
+        @Schema(description = "Creation timestamp of the product")
+        LocalDateTime createdAt,
+
+        @Schema(description = "Version of the product, returned as the ETag", example = "0")
+        Long version) {
+}
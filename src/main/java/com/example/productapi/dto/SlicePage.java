@@ -0,0 +1,32 @@
+package com.example.productapi.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "A page of results fetched without counting the whole table")
+public class SlicePage<T> {
+
+    @Schema(description = "Items in this page")
+    private List<T> content;
+
+    @Schema(description = "Page number (0-indexed)", example = "0")
+    private int page;
+
+    @Schema(description = "Requested page size", example = "20")
+    private int size;
+
+    @Schema(description = "Whether more items exist after this page")
+    private boolean hasNext;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @Schema(description = "Approximate total number of products, only present when requested with includeTotal=true and an estimate has been taken")
+    private Long estimatedTotalElements;
+}
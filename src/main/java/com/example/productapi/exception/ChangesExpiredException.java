@@ -0,0 +1,8 @@
+package com.example.productapi.exception;
+
+public class ChangesExpiredException extends RuntimeException {
+
+    public ChangesExpiredException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.productapi.exception;
+
+public class ImportTooLargeException extends RuntimeException {
+
+    public ImportTooLargeException(String message) {
+        super(message);
+    }
+}
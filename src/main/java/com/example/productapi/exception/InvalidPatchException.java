@@ -0,0 +1,8 @@
+package com.example.productapi.exception;
+
+public class InvalidPatchException extends RuntimeException {
+
+    public InvalidPatchException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.productapi.exception;
+
+public class InvalidSortException extends RuntimeException {
+
+    public InvalidSortException(String message) {
+        super(message);
+    }
+}
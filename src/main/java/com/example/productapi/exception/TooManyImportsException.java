@@ -0,0 +1,8 @@
+package com.example.productapi.exception;
+
+public class TooManyImportsException extends RuntimeException {
+
+    public TooManyImportsException(String message) {
+        super(message);
+    }
+}
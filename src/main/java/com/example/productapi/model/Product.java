@@ -8,6 +8,9 @@ import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -21,7 +24,11 @@ import java.time.LocalDateTime;
 public class Product {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "product_seq")
+    @GenericGenerator(name = "product_seq", type = ProductIdGenerator.class, parameters = {
+        @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "product_seq"),
+        @Parameter(name = SequenceStyleGenerator.INCREMENT_PARAM, value = "50")
+    })
     @Schema(description = "Unique identifier of the product. Auto-generated - do not provide when creating a new product.", example = "1")
     private Long id;
 
@@ -41,6 +48,11 @@ public class Product {
     @Schema(description = "Creation timestamp of the product")
     private LocalDateTime createdAt;
 
+    @Version
+    @Schema(description = "Version of the product, incremented on every change and returned as the ETag. " +
+            "Auto-generated - do not provide.", example = "0")
+    private Long version;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -0,0 +1,57 @@
+package com.example.productapi.model;
+
+import com.example.productapi.service.ProductChangedEvent;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "product_changes")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Entry of the product change feed")
+public class ProductChange {
+
+    @Id
+    @Column(name = "seq")
+    @Schema(description = "Position in the feed, increasing in commit order; also the SSE event id", example = "42")
+    private Long sequence;
+
+    @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    @Schema(description = "SAVED (created or replaced), PATCHED or DELETED", example = "SAVED")
+    private ProductChangedEvent.Type type;
+
+    @Column(name = "product_id")
+    @Schema(description = "Identifier of the changed product", example = "1")
+    private Long productId;
+
+    @Schema(description = "Version of the product after a SAVED change; null for PATCHED and DELETED", example = "3")
+    private Long version;
+
+    @Column(name = "changed_at")
+    @Schema(description = "When the product was changed")
+    private LocalDateTime changedAt;
+
+    // The outbox row this change was relayed from, see ProductChangeOutbox; null for changes appended before
+    @JsonIgnore
+    @Column(name = "source_shard")
+    private Integer sourceShard;
+
+    @JsonIgnore
+    @Column(name = "outbox_id")
+    private Long outboxId;
+
+    public ProductChange(Long sequence, ProductChangedEvent.Type type, Long productId, Long version,
+                         LocalDateTime changedAt) {
+        this(sequence, type, productId, version, changedAt, null, null);
+    }
+}
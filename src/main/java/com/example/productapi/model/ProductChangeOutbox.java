@@ -0,0 +1,40 @@
+package com.example.productapi.model;
+
+import com.example.productapi.service.ProductChangedEvent;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+
+/**
+ * Product write not yet relayed to the change feed, see {@link ProductChange}. Written in the same transaction
+ * as the product, so the feed has exactly the writes that committed.
+ */
+@Entity
+@Table(name = "product_change_outbox")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductChangeOutbox {
+
+    // Defaults to the next product_change_outbox_seq value in the INSERT, which returns it; no separate query
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    private ProductChangedEvent.Type type;
+
+    @Column(name = "product_id")
+    private Long productId;
+
+    private Long version;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,58 @@
+package com.example.productapi.model;
+
+import com.example.productapi.repository.ProductShards;
+import org.hibernate.boot.model.relational.Database;
+import org.hibernate.boot.model.relational.SqlStringGenerationContext;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.internal.util.config.ConfigurationHelper;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Product ids from {@code product_seq}, with the shard of the current thread encoded by {@link ProductShards}.
+ * Each shard's database has its own sequence, so every shard gets its own sequence generator and with it its own
+ * block of pooled values; sharing one would hand a block fetched from one shard's sequence to inserts into another.
+ * Without sharding there is a single shard 0 and ids are the plain sequence values.
+ */
+public class ProductIdGenerator implements IdentifierGenerator {
+
+    public static final String SHARD_COUNT_SETTING = "productapi.sharding.shard-count";
+
+    private final List<SequenceStyleGenerator> sequences = new ArrayList<>();
+
+    @Override
+    public void configure(Type type, Properties parameters, ServiceRegistry serviceRegistry) {
+        int shardCount = ConfigurationHelper.getInt(SHARD_COUNT_SETTING,
+                serviceRegistry.getService(ConfigurationService.class).getSettings(), 1);
+        for (int shard = 0; shard < shardCount; shard++) {
+            SequenceStyleGenerator sequence = new SequenceStyleGenerator();
+            sequence.configure(type, parameters, serviceRegistry);
+            sequences.add(sequence);
+        }
+    }
+
+    @Override
+    public void registerExportables(Database database) {
+        // All of them resolve to the same product_seq in the mapping; only the database differs at runtime
+        sequences.forEach(sequence -> sequence.registerExportables(database));
+    }
+
+    @Override
+    public void initialize(SqlStringGenerationContext context) {
+        sequences.forEach(sequence -> sequence.initialize(context));
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+        int shard = ProductShards.current();
+        Number value = (Number) sequences.get(shard).generate(session, object);
+        return ProductShards.encode(shard, value.longValue());
+    }
+}
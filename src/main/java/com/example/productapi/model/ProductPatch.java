@@ -0,0 +1,17 @@
+package com.example.productapi.model;
+
+import java.math.BigDecimal;
+
+/**
+ * The changes of a partial update, applied to the row without loading it. A null name or price leaves that column
+ * unchanged; the description is written only when {@code descriptionSet}, and then null clears it.
+ */
+public record ProductPatch(Long id, String name, boolean descriptionSet, String description, BigDecimal price) {
+
+    /**
+     * Whether the patch touches the text that products are searched by.
+     */
+    public boolean changesText() {
+        return name != null || descriptionSet;
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.productapi.repository;
+
+import com.example.productapi.model.ProductChangeOutbox;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ProductChangeOutboxRepository extends JpaRepository<ProductChangeOutbox, Long> {
+
+    // Oldest writes first; only committed rows are visible to the relay
+    List<ProductChangeOutbox> findByOrderById(Limit limit);
+}
@@ -0,0 +1,41 @@
+package com.example.productapi.repository;
+
+import com.example.productapi.model.ProductChange;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+@Repository
+public interface ProductChangeRepository extends JpaRepository<ProductChange, Long> {
+
+    // Catch-up read for subscribers behind the in-memory buffer; walks the primary key
+    List<ProductChange> findBySequenceGreaterThanOrderBySequence(long sequence, Limit limit);
+
+    @Query("select max(c.sequence) from ProductChange c")
+    Long findMaxSequence();
+
+    // Holds the position row until the relay's transaction ends, so one relay at a time assigns sequences
+    @Query(value = "select last_seq from product_change_position where id = 1 for update", nativeQuery = true)
+    long lockLastSequence();
+
+    @Modifying
+    @Query(value = "update product_change_position set last_seq = :sequence where id = 1", nativeQuery = true)
+    void updateLastSequence(@Param("sequence") long sequence);
+
+    @Query("select c.outboxId from ProductChange c where c.sourceShard = :shard and c.outboxId in :outboxIds")
+    Set<Long> findRelayedOutboxIds(@Param("shard") int shard, @Param("outboxIds") Collection<Long> outboxIds);
+
+    @Transactional
+    @Modifying
+    @Query("delete from ProductChange c where c.changedAt < :cutoff")
+    int deleteChangedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -1,14 +1,53 @@
 package com.example.productapi.repository;
 
+import com.example.productapi.dto.ProductView;
 import com.example.productapi.model.Product;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product>, ProductRepositoryCustom {
     @NonNull
     Page<Product> findAll(@NonNull Pageable pageable);
-} 
\ No newline at end of file
+
+    // Projection read: the row goes straight into a ProductView, no entity is loaded into the persistence context
+    @Transactional(readOnly = true)
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "MANUAL")
+    })
+    @Query("select new com.example.productapi.dto.ProductView(p.id, p.name, p.description, p.price, p.createdAt, p.version) " +
+            "from Product p where p.id = :id")
+    Optional<ProductView> findViewById(@Param("id") Long id);
+
+    // Single DELETE without loading the row first; the affected-row count tells whether it existed
+    @Transactional
+    @Modifying
+    @Query("delete from Product p where p.id = :id")
+    int deleteProductById(@Param("id") Long id);
+
+    // Conditional delete for If-Match: matches nothing when the product changed since that version was read
+    @Transactional
+    @Modifying
+    @Query("delete from Product p where p.id = :id and p.version = :version")
+    int deleteProductByIdAndVersion(@Param("id") Long id, @Param("version") Long version);
+
+    // Slice queries fetch size + 1 rows to compute hasNext and never issue a count query. Declared query methods
+    // get no transaction from SimpleJpaRepository, so it is read-only here to reach the replicas
+    @Transactional(readOnly = true)
+    Slice<Product> findAllBy(Pageable pageable);
+}
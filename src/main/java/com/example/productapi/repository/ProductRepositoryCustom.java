@@ -0,0 +1,48 @@
+package com.example.productapi.repository;
+
+import com.example.productapi.dto.ProductView;
+import com.example.productapi.model.Product;
+import com.example.productapi.model.ProductPatch;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface ProductRepositoryCustom {
+
+    /**
+     * Properties {@link #findAfter} can seek on, each paired with {@code id} in a composite index.
+     */
+    List<String> KEYSET_PROPERTIES = List.of("id", "price", "name", "createdAt");
+
+    /**
+     * Keyset (seek) query: returns up to {@code limit} products ordered by {@code property} and then {@code id},
+     * starting strictly after the row identified by ({@code lastValue}, {@code lastId}).
+     * Passing a null {@code lastId} starts from the beginning of the ordering.
+     */
+    List<Product> findAfter(String property, Sort.Direction direction, Object lastValue, Long lastId, int limit);
+
+    /**
+     * Page of {@link ProductView} projections matching {@code spec} (all products when null), selected with a
+     * constructor expression in a read-only transaction so no entity is materialized. Like
+     * {@code findAll(Pageable)}, the count query is skipped when the page itself tells the total.
+     */
+    Page<ProductView> findViews(Specification<Product> spec, Pageable pageable);
+
+    /**
+     * Products matching {@code spec} in id order, read through a server-side cursor in chunks as the stream is
+     * consumed. Must be called, and the stream closed, within a transaction.
+     */
+    Stream<Product> streamMatching(Specification<Product> spec);
+
+    /**
+     * Applies {@code patch} to the product with {@code patch.id()} and increments its version in a single
+     * {@code UPDATE ... WHERE id = ?}, without reading the row. A non-null
+     * {@code expectedVersion} is added to the condition. Returns the number of rows updated, 0 when the product
+     * does not exist or has another version. Bypasses the persistence context, so managed copies are stale.
+     */
+    int patch(ProductPatch patch, Long expectedVersion);
+}
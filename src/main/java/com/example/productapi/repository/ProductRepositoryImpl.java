@@ -0,0 +1,151 @@
+package com.example.productapi.repository;
+
+import com.example.productapi.dto.ProductView;
+import com.example.productapi.model.Product;
+import com.example.productapi.model.ProductPatch;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.FlushMode;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class ProductRepositoryImpl implements ProductRepositoryCustom {
+
+    private static final int EXPORT_FETCH_SIZE = 1000;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Product> findAfter(String property, Sort.Direction direction, Object lastValue, Long lastId, int limit) {
+        if (!KEYSET_PROPERTIES.contains(property)) {
+            throw new IllegalArgumentException("Unsupported keyset property: " + property);
+        }
+        String order = direction.isAscending() ? "asc" : "desc";
+        String comparator = direction.isAscending() ? ">" : "<";
+        boolean byId = "id".equals(property);
+
+        StringBuilder jpql = new StringBuilder("select p from Product p");
+        if (lastId != null) {
+            // Row-value comparison so the database can seek on a (property, id) index instead of skipping rows
+            jpql.append(byId
+                    ? " where p.id " + comparator + " :lastId"
+                    : " where (p." + property + ", p.id) " + comparator + " (:lastValue, :lastId)");
+        }
+        jpql.append(" order by ");
+        if (!byId) {
+            jpql.append("p.").append(property).append(' ').append(order).append(", ");
+        }
+        jpql.append("p.id ").append(order);
+
+        // No readOnly(...) hints: a caller's pending changes must be flushed before seeking past them. The
+        // read-only transaction alone routes the query to a replica
+        TypedQuery<Product> query = entityManager.createQuery(jpql.toString(), Product.class);
+        if (lastId != null) {
+            query.setParameter("lastId", lastId);
+            if (!byId) {
+                query.setParameter("lastValue", lastValue);
+            }
+        }
+        return query.setMaxResults(limit).getResultList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<ProductView> findViews(Specification<Product> spec, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ProductView> query = cb.createQuery(ProductView.class);
+        Root<Product> root = query.from(Product.class);
+        query.select(cb.construct(ProductView.class,
+                root.get("id"), root.get("name"), root.get("description"), root.get("price"), root.get("createdAt"),
+                root.get("version")));
+        Predicate predicate = spec != null ? spec.toPredicate(root, query, cb) : null;
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        // Same sort resolution as findAll(Pageable), so unknown properties still fail with PropertyReferenceException
+        query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+
+        TypedQuery<ProductView> typedQuery = readOnly(entityManager.createQuery(query));
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult((int) pageable.getOffset());
+            typedQuery.setMaxResults(pageable.getPageSize());
+        }
+        return PageableExecutionUtils.getPage(typedQuery.getResultList(), pageable, () -> count(spec));
+    }
+
+    @Override
+    public Stream<Product> streamMatching(Specification<Product> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Product> query = cb.createQuery(Product.class);
+        Root<Product> root = query.from(Product.class);
+        Predicate predicate = spec != null ? spec.toPredicate(root, query, cb) : null;
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(cb.asc(root.get("id")));
+        return readOnly(entityManager.createQuery(query))
+                .setHint(HibernateHints.HINT_FETCH_SIZE, EXPORT_FETCH_SIZE)
+                .getResultStream();
+    }
+
+    @Override
+    @Transactional
+    public int patch(ProductPatch patch, Long expectedVersion) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Product> update = cb.createCriteriaUpdate(Product.class);
+        Root<Product> root = update.from(Product.class);
+        if (patch.name() != null) {
+            update.set(root.<String>get("name"), patch.name());
+        }
+        if (patch.descriptionSet()) {
+            if (patch.description() != null) {
+                update.set(root.<String>get("description"), patch.description());
+            } else {
+                update.set(root.<String>get("description"), cb.nullLiteral(String.class));
+            }
+        }
+        if (patch.price() != null) {
+            update.set(root.<BigDecimal>get("price"), patch.price());
+        }
+        // Bulk updates bypass Hibernate's versioning, so the increment is explicit
+        update.set(root.<Long>get("version"), cb.sum(root.<Long>get("version"), 1L));
+        Predicate byId = cb.equal(root.get("id"), patch.id());
+        update.where(expectedVersion != null ? cb.and(byId, cb.equal(root.get("version"), expectedVersion)) : byId);
+        return entityManager.createQuery(update).executeUpdate();
+    }
+
+    private long count(Specification<Product> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Product> root = query.from(Product.class);
+        query.select(cb.count(root));
+        Predicate predicate = spec != null ? spec.toPredicate(root, query, cb) : null;
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        return readOnly(entityManager.createQuery(query)).getSingleResult();
+    }
+
+    private static <T> TypedQuery<T> readOnly(TypedQuery<T> query) {
+        return query.setHint(HibernateHints.HINT_READ_ONLY, true)
+                .setHint(HibernateHints.HINT_FLUSH_MODE, FlushMode.MANUAL);
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.productapi.repository;
+
+import java.util.function.Supplier;
+
+/**
+ * Shard layout of product ids and the shard the current thread works on. An id keeps its shard's sequence value in
+ * the low {@value #SHARD_SHIFT} bits and the shard number above them, so shard 0 ids are plain sequence values (the
+ * ids of an unsharded database stay valid) and ids stay below 2^53, exact in JSON numbers, for up to
+ * {@value #MAX_SHARDS} shards. Threads that never pick a shard work on shard 0.
+ */
+public final class ProductShards {
+
+    public static final int SHARD_SHIFT = 40;
+    public static final int MAX_SHARDS = 1 << 13;
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private ProductShards() {
+    }
+
+    public static int current() {
+        Integer shard = CURRENT.get();
+        return shard != null ? shard : 0;
+    }
+
+    public static int shardOf(long id) {
+        return (int) (id >>> SHARD_SHIFT);
+    }
+
+    public static long encode(int shard, long sequenceValue) {
+        if (sequenceValue >>> SHARD_SHIFT != 0) {
+            throw new IllegalStateException("Sequence of shard " + shard + " exhausted the id space: " + sequenceValue);
+        }
+        return (long) shard << SHARD_SHIFT | sequenceValue;
+    }
+
+    /**
+     * Runs the call with the current thread on the given shard. Transactions started inside it use that shard's
+     * database, so it must wrap the transaction rather than run inside one.
+     */
+    public static <T> T callOn(int shard, Supplier<T> call) {
+        Integer previous = CURRENT.get();
+        CURRENT.set(shard);
+        try {
+            return call.get();
+        } finally {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    public static void runOn(int shard, Runnable task) {
+        callOn(shard, () -> {
+            task.run();
+            return null;
+        });
+    }
+}
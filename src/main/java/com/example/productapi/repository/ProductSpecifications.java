@@ -0,0 +1,56 @@
+package com.example.productapi.repository;
+
+import com.example.productapi.dto.ProductFilter;
+import com.example.productapi.model.Product;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Locale;
+
+/**
+ * Listing and export filters as JPA Specifications. Each one is a no-op when its value is absent, so only the
+ * requested conditions reach the SQL and each can use its index (see db/migration).
+ */
+public final class ProductSpecifications {
+
+    private static final char LIKE_ESCAPE = '\\';
+
+    private ProductSpecifications() {
+    }
+
+    public static Specification<Product> matching(ProductFilter filter) {
+        return Specification.allOf(
+                priceAtLeast(filter.getMinPrice()),
+                priceAtMost(filter.getMaxPrice()),
+                createdFrom(filter.getCreatedFrom()),
+                createdBefore(filter.getCreatedTo()),
+                nameStartsWith(filter.getNamePrefix()));
+    }
+
+    public static Specification<Product> priceAtLeast(BigDecimal minPrice) {
+        return (root, query, cb) -> minPrice == null ? null : cb.greaterThanOrEqualTo(root.get("price"), minPrice);
+    }
+
+    public static Specification<Product> priceAtMost(BigDecimal maxPrice) {
+        return (root, query, cb) -> maxPrice == null ? null : cb.lessThanOrEqualTo(root.get("price"), maxPrice);
+    }
+
+    public static Specification<Product> createdFrom(LocalDateTime from) {
+        return (root, query, cb) -> from == null ? null : cb.greaterThanOrEqualTo(root.get("createdAt"), from);
+    }
+
+    public static Specification<Product> createdBefore(LocalDateTime to) {
+        return (root, query, cb) -> to == null ? null : cb.lessThan(root.get("createdAt"), to);
+    }
+
+    public static Specification<Product> nameStartsWith(String prefix) {
+        return (root, query, cb) -> prefix == null || prefix.isEmpty()
+                ? null
+                : cb.like(cb.lower(root.get("name")), escapeLike(prefix.toLowerCase(Locale.ROOT)) + "%", LIKE_ESCAPE);
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.productapi.service;
+
+import com.example.productapi.model.ProductChange;
+
+import java.time.Duration;
+import java.util.List;
+
+public interface ProductChangeFeed {
+
+    /**
+     * Sequence of the latest change, or 0 while the feed is empty.
+     */
+    long lastSequence();
+
+    /**
+     * Up to {@code limit} changes following {@code after}, in sequence order. Waits up to {@code maxWait} for the
+     * next change when there is none yet, and returns an empty list if none arrived.
+     *
+     * @throws com.example.productapi.exception.ChangesExpiredException if changes following {@code after} were
+     *         already pruned, so the caller has to resync instead of resuming
+     */
+    List<ProductChange> changesAfter(long after, int limit, Duration maxWait) throws InterruptedException;
+}
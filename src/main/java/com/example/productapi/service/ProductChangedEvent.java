@@ -0,0 +1,33 @@
+package com.example.productapi.service;
+
+import com.example.productapi.model.Product;
+import com.example.productapi.model.ProductPatch;
+
+/**
+ * Published by the write paths of the product service. Listeners that mirror products elsewhere
+ * (such as the search index) should react after commit, so rolled-back writes are never seen.
+ *
+ * @param product the saved state for {@code SAVED}, {@code null} otherwise
+ * @param patch   the applied changes for {@code PATCHED}, since the rest of the row is never read; {@code null}
+ *                otherwise
+ */
+public record ProductChangedEvent(Type type, Long productId, Product product, ProductPatch patch) {
+
+    public enum Type {
+        SAVED,
+        PATCHED,
+        DELETED
+    }
+
+    public static ProductChangedEvent saved(Product product) {
+        return new ProductChangedEvent(Type.SAVED, product.getId(), product, null);
+    }
+
+    public static ProductChangedEvent patched(ProductPatch patch) {
+        return new ProductChangedEvent(Type.PATCHED, patch.id(), null, patch);
+    }
+
+    public static ProductChangedEvent deleted(Long productId) {
+        return new ProductChangedEvent(Type.DELETED, productId, null, null);
+    }
+}
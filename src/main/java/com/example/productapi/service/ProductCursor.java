@@ -0,0 +1,77 @@
+package com.example.productapi.service;
+
+import com.example.productapi.exception.InvalidCursorException;
+import com.example.productapi.model.Product;
+import com.example.productapi.repository.ProductRepositoryCustom;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Position in a keyset-paginated listing: the sort property and direction plus the sort key and id
+ * of the last row returned. Serialized as an opaque URL-safe token.
+ */
+public record ProductCursor(String property, Sort.Direction direction, Object lastValue, Long lastId) {
+
+    private static final String SEPARATOR = "|";
+
+    public static ProductCursor start(Sort sort) {
+        if (sort.isUnsorted()) {
+            return new ProductCursor("id", Sort.Direction.ASC, null, null);
+        }
+        Sort.Order[] orders = sort.stream().toArray(Sort.Order[]::new);
+        Sort.Order order = orders[0];
+        boolean idTieBreaker = orders.length == 2 && "id".equals(orders[1].getProperty())
+                && orders[1].getDirection() == order.getDirection();
+        if (orders.length > 1 && !idTieBreaker) {
+            throw new InvalidCursorException("Cursor pagination supports a single sort property");
+        }
+        if (!ProductRepositoryCustom.KEYSET_PROPERTIES.contains(order.getProperty())) {
+            throw new InvalidCursorException("Invalid sort parameter for cursor pagination: " + order.getProperty()
+                    + ". Valid properties: " + String.join(", ", ProductRepositoryCustom.KEYSET_PROPERTIES));
+        }
+        return new ProductCursor(order.getProperty(), order.getDirection(), null, null);
+    }
+
+    public ProductCursor next(Product last) {
+        Object value = switch (property) {
+            case "price" -> last.getPrice();
+            case "name" -> last.getName();
+            case "createdAt" -> last.getCreatedAt();
+            default -> last.getId();
+        };
+        return new ProductCursor(property, direction, value, last.getId());
+    }
+
+    public String encode() {
+        String raw = property + SEPARATOR + direction.name() + SEPARATOR + lastId + SEPARATOR + lastValue;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ProductCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            // The value goes last so names containing the separator survive the round trip
+            String[] parts = raw.split("\\" + SEPARATOR, 4);
+            if (parts.length != 4 || !ProductRepositoryCustom.KEYSET_PROPERTIES.contains(parts[0])) {
+                throw new InvalidCursorException("Invalid cursor: " + token);
+            }
+            String property = parts[0];
+            Long lastId = Long.valueOf(parts[2]);
+            Object value = switch (property) {
+                case "price" -> new BigDecimal(parts[3]);
+                case "name" -> parts[3];
+                case "createdAt" -> LocalDateTime.parse(parts[3]);
+                default -> lastId;
+            };
+            return new ProductCursor(property, Sort.Direction.valueOf(parts[1]), value, lastId);
+        } catch (InvalidCursorException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw new InvalidCursorException("Invalid cursor: " + token, e);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.productapi.service;
+
+import com.example.productapi.dto.ImportFormat;
+import com.example.productapi.dto.ImportJobStatus;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.UUID;
+
+public interface ProductImportService {
+    /**
+     * Parses the body as it is read and returns once all of it has been, while the last rows may still be written.
+     *
+     * @param contentLength the declared length of the body, or -1 when unknown
+     */
+    ImportJobStatus startImport(InputStream body, ImportFormat format, long contentLength) throws IOException;
+
+    ImportJobStatus getImportStatus(UUID jobId);
+}
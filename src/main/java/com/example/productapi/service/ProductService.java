@@ -1,14 +1,31 @@
 package com.example.productapi.service;
 
+import com.example.productapi.dto.BatchCreateResponse;
+import com.example.productapi.dto.CursorPage;
 import com.example.productapi.dto.ProductDTO;
+import com.example.productapi.dto.ProductFilter;
+import com.example.productapi.dto.ProductPatchDTO;
+import com.example.productapi.dto.ProductView;
+import com.example.productapi.dto.SlicePage;
 import com.example.productapi.model.Product;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+import java.util.function.Consumer;
 
 public interface ProductService {
     Product createProduct(ProductDTO productDTO);
-    Product getProductById(Long id);
-    Page<Product> getAllProducts(Pageable pageable);
-    Product updateProduct(Long id, ProductDTO productDTO);
-    void deleteProduct(Long id);
+    BatchCreateResponse createProducts(List<ProductDTO> productDTOs);
+    ProductView getProductById(Long id);
+    Page<ProductView> getAllProducts(Pageable pageable);
+    Page<ProductView> getAllProducts(ProductFilter filter, Pageable pageable);
+    CursorPage<Product> getProductsAfter(String after, int size, Sort sort);
+    SlicePage<Product> getProductSlice(Pageable pageable, boolean includeTotal);
+    void streamProducts(ProductFilter filter, Consumer<Product> consumer);
+    Page<Product> searchProducts(String query, Pageable pageable);
+    Product updateProduct(Long id, ProductDTO productDTO, Long expectedVersion);
+    void patchProduct(Long id, ProductPatchDTO productPatchDTO, Long expectedVersion);
+    void deleteProduct(Long id, Long expectedVersion);
 }
\ No newline at end of file
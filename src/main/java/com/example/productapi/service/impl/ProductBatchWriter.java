@@ -0,0 +1,131 @@
+package com.example.productapi.service.impl;
+
+import com.example.productapi.dto.BatchItemResult;
+import com.example.productapi.dto.ProductDTO;
+import com.example.productapi.model.Product;
+import com.example.productapi.repository.ProductRepository;
+import com.example.productapi.service.ProductChangedEvent;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Validates and persists products in chunked transactions. Each chunk is a single transaction whose
+ * inserts are flushed together, so with sequence ids and {@code hibernate.jdbc.batch_size} they are
+ * sent to the database as JDBC batches. If a chunk fails, its items are retried one by one to isolate
+ * the offending rows.
+ */
+@Slf4j
+@Component
+public class ProductBatchWriter {
+
+    private final ProductRepository productRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int chunkSize;
+
+    public ProductBatchWriter(ProductRepository productRepository,
+                              PlatformTransactionManager transactionManager,
+                              Validator validator,
+                              ApplicationEventPublisher eventPublisher,
+                              @Value("${productapi.batch.chunk-size:500}") int chunkSize) {
+        this.productRepository = productRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.validator = validator;
+        this.eventPublisher = eventPublisher;
+        this.chunkSize = chunkSize;
+    }
+
+    public List<BatchItemResult> validateAndWrite(List<ProductDTO> items) {
+        BatchItemResult[] results = new BatchItemResult[items.size()];
+        List<Integer> validIndexes = new ArrayList<>();
+        List<ProductDTO> validItems = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            Map<String, String> errors = validate(items.get(i));
+            if (errors.isEmpty()) {
+                validIndexes.add(i);
+                validItems.add(items.get(i));
+            } else {
+                results[i] = BatchItemResult.failed(i, errors);
+            }
+        }
+
+        List<BatchItemResult> written = write(validItems);
+        for (int i = 0; i < written.size(); i++) {
+            BatchItemResult result = written.get(i);
+            int index = validIndexes.get(i);
+            result.setIndex(index);
+            results[index] = result;
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Returns field errors for the item, in the same shape as request validation errors. Empty when valid.
+     */
+    public Map<String, String> validate(ProductDTO item) {
+        Map<String, String> errors = new HashMap<>();
+        if (item == null) {
+            errors.put("message", "Item must not be null");
+            return errors;
+        }
+        for (ConstraintViolation<ProductDTO> violation : validator.validate(item)) {
+            errors.put(violation.getPropertyPath().toString(), violation.getMessage());
+        }
+        return errors;
+    }
+
+    /**
+     * Persists already-validated items. Result indexes are positions in {@code items}.
+     */
+    public List<BatchItemResult> write(List<ProductDTO> items) {
+        List<BatchItemResult> results = new ArrayList<>(items.size());
+        for (int start = 0; start < items.size(); start += chunkSize) {
+            List<ProductDTO> chunk = items.subList(start, Math.min(start + chunkSize, items.size()));
+            try {
+                List<Product> saved = transactionTemplate.execute(status -> {
+                    List<Product> products = productRepository.saveAll(chunk.stream().map(ProductMapper::toEntity).toList());
+                    products.forEach(product -> eventPublisher.publishEvent(ProductChangedEvent.saved(product)));
+                    return products;
+                });
+                for (int i = 0; i < saved.size(); i++) {
+                    results.add(BatchItemResult.created(start + i, saved.get(i).getId()));
+                }
+            } catch (RuntimeException e) {
+                log.warn("Batch chunk starting at {} failed, retrying items individually: {}", start, e.getMessage());
+                for (int i = 0; i < chunk.size(); i++) {
+                    results.add(writeSingle(start + i, chunk.get(i)));
+                }
+            }
+        }
+        return results;
+    }
+
+    private BatchItemResult writeSingle(int index, ProductDTO item) {
+        try {
+            Product saved = transactionTemplate.execute(status -> {
+                Product product = productRepository.save(ProductMapper.toEntity(item));
+                eventPublisher.publishEvent(ProductChangedEvent.saved(product));
+                return product;
+            });
+            return BatchItemResult.created(index, saved.getId());
+        } catch (RuntimeException e) {
+            Map<String, String> errors = new HashMap<>();
+            errors.put("message", "Could not persist product: " + NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+            return BatchItemResult.failed(index, errors);
+        }
+    }
+}
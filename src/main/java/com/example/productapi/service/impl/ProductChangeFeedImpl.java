@@ -0,0 +1,291 @@
+package com.example.productapi.service.impl;
+
+import com.example.productapi.exception.ChangesExpiredException;
+import com.example.productapi.model.ProductChange;
+import com.example.productapi.model.ProductChangeOutbox;
+import com.example.productapi.repository.ProductChangeOutboxRepository;
+import com.example.productapi.repository.ProductChangeRepository;
+import com.example.productapi.repository.ProductShards;
+import com.example.productapi.service.ProductChangeFeed;
+import com.example.productapi.service.ProductChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Change log of product writes. Each write inserts a {@link ProductChangeOutbox} row in its own transaction, so a
+ * change is recorded exactly when the write commits. A relay thread on every instance moves committed outbox rows
+ * of all shards into the product_changes table on shard 0, numbering them under a row lock that serializes the
+ * instances, and then tails that table into a ring buffer; subscribers within the buffer are served from memory,
+ * older cursors from the table, and every instance serves the writes of all of them.
+ *
+ * <p>Rows stay in the outbox until they are in the feed, so a relay that fails or dies is retried on the next
+ * round; failures are logged and counted in {@code productapi.changes.relay.failures}.
+ */
+@Slf4j
+@Service
+public class ProductChangeFeedImpl implements ProductChangeFeed {
+
+    private static final int RELAY_BATCH_SIZE = 500;
+    private static final int TAIL_BATCH_SIZE = 500;
+
+    private final ProductChangeRepository productChangeRepository;
+    private final ProductChangeOutboxRepository productChangeOutboxRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter relayFailures;
+    private final int shardCount;
+    private final Duration retention;
+    private final Duration pollInterval;
+    private final Duration maxPollInterval;
+    // Released by local commits, so their changes are relayed without waiting for the next poll
+    private final Semaphore wakeups = new Semaphore(0);
+    private final Thread relay;
+
+    // Guards the ring and lastSequence; a lock rather than a monitor so waiting virtual threads do not pin carriers
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition appended = lock.newCondition();
+    private final ProductChange[] ring;
+    private int buffered;
+    private long lastSequence;
+
+    public ProductChangeFeedImpl(ProductChangeRepository productChangeRepository,
+                                 ProductChangeOutboxRepository productChangeOutboxRepository,
+                                 EntityManager entityManager,
+                                 PlatformTransactionManager transactionManager,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${productapi.sharding.urls:}") List<String> shardUrls,
+                                 @Value("${productapi.changes.buffer-size:10000}") int bufferSize,
+                                 @Value("${productapi.changes.retention:P7D}") Duration retention,
+                                 @Value("${productapi.changes.poll-interval:PT0.2S}") Duration pollInterval,
+                                 @Value("${productapi.changes.max-poll-interval:PT5S}") Duration maxPollInterval) {
+        this.productChangeRepository = productChangeRepository;
+        this.productChangeOutboxRepository = productChangeOutboxRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.relayFailures = Counter.builder("productapi.changes.relay.failures")
+                .description("Relay rounds that failed and left their changes in the outbox for the next round")
+                .register(meterRegistry);
+        this.shardCount = Math.max(1, shardUrls.size());
+        this.retention = retention;
+        this.pollInterval = pollInterval;
+        this.maxPollInterval = maxPollInterval.compareTo(pollInterval) > 0 ? maxPollInterval : pollInterval;
+        this.ring = new ProductChange[bufferSize];
+        this.relay = Thread.ofPlatform().name("product-change-relay").daemon().unstarted(this::relayCommitted);
+    }
+
+    @PostConstruct
+    public void start() {
+        Long max = productChangeRepository.findMaxSequence();
+        lastSequence = max != null ? max : 0L;
+        relay.start();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        relay.interrupt();
+        relay.join(5_000);
+    }
+
+    /**
+     * Records the change in the outbox as the last step of the write's transaction. A failure rolls the write back,
+     * and without a transaction the insert fails, so no write reaches the database without its change.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void recordChange(ProductChangedEvent event) {
+        Long version = null;
+        if (event.type() == ProductChangedEvent.Type.SAVED) {
+            // Runs the pending INSERT or UPDATE: it sets the version and takes the row lock, so a later write of
+            // the same product draws a higher outbox id. Patches and deletes are executed statements already
+            flush();
+            version = event.product().getVersion();
+        }
+        entityManager.persist(new ProductChangeOutbox(null, event.type(), event.productId(), version, LocalDateTime.now()));
+    }
+
+    // Runs before the transaction manager's commit, which would otherwise translate a lost version race into an
+    // OptimisticLockingFailureException
+    private void flush() {
+        try {
+            entityManager.flush();
+        } catch (RuntimeException e) {
+            DataAccessException translated = EntityManagerFactoryUtils.convertJpaAccessExceptionIfPossible(e);
+            throw translated != null ? translated : e;
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        wakeups.release();
+    }
+
+    @Override
+    public long lastSequence() {
+        lock.lock();
+        try {
+            return lastSequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public List<ProductChange> changesAfter(long after, int limit, Duration maxWait) throws InterruptedException {
+        lock.lock();
+        try {
+            long nanos = maxWait.toNanos();
+            while (lastSequence <= after) {
+                if (nanos <= 0) {
+                    return List.of();
+                }
+                nanos = appended.awaitNanos(nanos);
+            }
+            // Sequences in the ring are contiguous, so the slot of every buffered sequence is known
+            long oldestBuffered = lastSequence - buffered + 1;
+            if (after + 1 >= oldestBuffered) {
+                long last = Math.min(lastSequence, after + limit);
+                List<ProductChange> changes = new ArrayList<>((int) (last - after));
+                for (long sequence = after + 1; sequence <= last; sequence++) {
+                    changes.add(ring[(int) (sequence % ring.length)]);
+                }
+                return changes;
+            }
+        } finally {
+            lock.unlock();
+        }
+        // Behind the buffer: read from the table without holding up appends
+        List<ProductChange> changes =
+                productChangeRepository.findBySequenceGreaterThanOrderBySequence(after, Limit.of(limit));
+        // Sequences are contiguous, so a missing successor was pruned; after=0 asks for whatever is retained
+        if (after > 0 && (changes.isEmpty() || changes.get(0).getSequence() != after + 1)) {
+            throw new ChangesExpiredException("Changes after " + after + " are no longer retained");
+        }
+        return changes;
+    }
+
+    @Scheduled(fixedDelayString = "${productapi.changes.prune-interval-ms:3600000}",
+            initialDelayString = "${productapi.changes.prune-interval-ms:3600000}")
+    public void prune() {
+        int deleted = productChangeRepository.deleteChangedBefore(LocalDateTime.now().minus(retention));
+        log.debug("Pruned {} product changes older than {}", deleted, retention);
+    }
+
+    private void relayCommitted() {
+        try {
+            Duration idleWait = pollInterval;
+            while (true) {
+                boolean woken = wakeups.tryAcquire(idleWait.toNanos(), TimeUnit.NANOSECONDS);
+                wakeups.drainPermits();
+                int moved = 0;
+                boolean failed = false;
+                try {
+                    for (int shard = 0; shard < shardCount; shard++) {
+                        int relayed;
+                        do {
+                            relayed = relayBatch(shard);
+                            moved += relayed;
+                        } while (relayed == RELAY_BATCH_SIZE);
+                    }
+                } catch (RuntimeException e) {
+                    failed = true;
+                    relayFailures.increment();
+                    log.error("Could not relay product changes, retrying in {}", pollInterval, e);
+                }
+                // Changes relayed by other instances keep coming in while this one fails
+                try {
+                    moved += tail();
+                } catch (RuntimeException e) {
+                    failed = true;
+                    log.error("Could not read the change feed, retrying in {}", pollInterval, e);
+                }
+                if (failed) {
+                    // Local commits would otherwise retry at their own rate
+                    Thread.sleep(pollInterval);
+                }
+                // Idle rounds back off; a local commit or any change found brings the next poll back to the interval
+                idleWait = woken || moved > 0 || failed
+                        ? pollInterval
+                        : min(idleWait.multipliedBy(2), maxPollInterval);
+            }
+        } catch (InterruptedException e) {
+            // Shutting down: the outbox keeps whatever was not relayed yet
+        }
+    }
+
+    private int relayBatch(int shard) {
+        List<ProductChangeOutbox> entries = ProductShards.callOn(shard, () -> transactionTemplate.execute(
+                status -> productChangeOutboxRepository.findByOrderById(Limit.of(RELAY_BATCH_SIZE))));
+        if (entries.isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = entries.stream().map(ProductChangeOutbox::getId).toList();
+        ProductShards.runOn(0, () -> transactionTemplate.executeWithoutResult(status -> {
+            long sequence = productChangeRepository.lockLastSequence();
+            // Another instance may have relayed the same rows while this one waited for the lock, or a relay may
+            // have failed between appending and deleting them
+            Set<Long> relayed = productChangeRepository.findRelayedOutboxIds(shard, ids);
+            for (ProductChangeOutbox entry : entries) {
+                if (!relayed.contains(entry.getId())) {
+                    entityManager.persist(new ProductChange(++sequence, entry.getType(), entry.getProductId(),
+                            entry.getVersion(), entry.getCreatedAt(), shard, entry.getId()));
+                }
+            }
+            productChangeRepository.updateLastSequence(sequence);
+        }));
+        ProductShards.runOn(shard, () -> productChangeOutboxRepository.deleteAllByIdInBatch(ids));
+        return entries.size();
+    }
+
+    // Only the relay thread advances lastSequence, so it can read it without the lock. Returns the changes read
+    private int tail() {
+        int read = 0;
+        List<ProductChange> changes;
+        do {
+            changes = ProductShards.callOn(0, () -> productChangeRepository.findBySequenceGreaterThanOrderBySequence(
+                    lastSequence, Limit.of(TAIL_BATCH_SIZE)));
+            if (changes.isEmpty()) {
+                return read;
+            }
+            read += changes.size();
+            lock.lock();
+            try {
+                for (ProductChange change : changes) {
+                    ring[(int) (change.getSequence() % ring.length)] = change;
+                }
+                lastSequence = changes.get(changes.size() - 1).getSequence();
+                buffered = Math.min(buffered + changes.size(), ring.length);
+                appended.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        } while (changes.size() == TAIL_BATCH_SIZE);
+        return read;
+    }
+
+    private static Duration min(Duration a, Duration b) {
+        return a.compareTo(b) <= 0 ? a : b;
+    }
+}
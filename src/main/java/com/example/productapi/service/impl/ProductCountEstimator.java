@@ -0,0 +1,73 @@
+package com.example.productapi.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps a cached, periodically refreshed approximation of the number of products so listings
+ * never have to run {@code SELECT count(*)} on the request path. On PostgreSQL the planner
+ * statistics ({@code pg_class.reltuples}) are used; other databases fall back to an exact count
+ * taken off the request path by the refresh job. Until its first run there is no estimate.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductCountEstimator {
+
+    private static final long UNKNOWN = -1L;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final AtomicLong estimate = new AtomicLong(UNKNOWN);
+
+    private volatile Boolean postgres;
+
+    /**
+     * The latest estimate, or {@code null} before the first refresh has completed.
+     */
+    public Long getEstimatedCount() {
+        long current = estimate.get();
+        return current == UNKNOWN ? null : current;
+    }
+
+    // First run right after startup, on the scheduler thread like every later one
+    @Scheduled(fixedDelayString = "${productapi.count.refresh-interval-ms:30000}")
+    public long refresh() {
+        Long count = null;
+        if (isPostgres()) {
+            // reltuples is -1 (or 0 on older versions) until the table has been vacuumed/analyzed at least once
+            Long reltuples = jdbcTemplate.queryForObject(
+                    "SELECT reltuples::bigint FROM pg_class WHERE oid = 'products'::regclass", Long.class);
+            if (reltuples != null && reltuples > 0) {
+                count = reltuples;
+            }
+        }
+        if (count == null) {
+            count = jdbcTemplate.queryForObject("SELECT count(*) FROM products", Long.class);
+        }
+        long value = count != null ? count : 0L;
+        estimate.set(value);
+        log.debug("Refreshed estimated product count: {}", value);
+        return value;
+    }
+
+    private boolean isPostgres() {
+        if (postgres == null) {
+            try {
+                String product = JdbcUtils.extractDatabaseMetaData(jdbcTemplate.getDataSource(),
+                        metaData -> metaData.getDatabaseProductName());
+                postgres = "PostgreSQL".equalsIgnoreCase(product);
+            } catch (Exception e) {
+                log.warn("Could not determine database type, falling back to exact counts", e);
+                postgres = false;
+            }
+        }
+        return postgres;
+    }
+}
@@ -0,0 +1,498 @@
+package com.example.productapi.service.impl;
+
+import com.example.productapi.dto.BatchItemResult;
+import com.example.productapi.dto.ImportFormat;
+import com.example.productapi.dto.ImportJobStatus;
+import com.example.productapi.dto.ImportRowError;
+import com.example.productapi.dto.ProductDTO;
+import com.example.productapi.exception.ImportTooLargeException;
+import com.example.productapi.exception.TooManyImportsException;
+import com.example.productapi.repository.ProductShards;
+import com.example.productapi.service.ProductImportService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.BufferedReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs bulk imports in the background. The request thread only spools the upload to a temporary file, so neither
+ * the servlet thread nor an admission slot is held while rows are written; a three-stage pipeline (parse, validate,
+ * write) then processes the file with bounded queues between stages, so a slow database applies backpressure to
+ * parsing instead of letting rows pile up in memory. Hand-offs between stages give up once the job has ended, so a
+ * failing stage stops the others.
+ */
+@Slf4j
+@Service
+public class ProductImportServiceImpl implements ProductImportService {
+
+    private static final Row END_OF_ROWS = new Row(-1, null, null);
+    private static final List<Row> END_OF_BATCHES = Collections.emptyList();
+    private static final long HANDOFF_POLL_MS = 100;
+
+    private final ProductBatchWriter productBatchWriter;
+    private final ObjectReader ndjsonReader;
+    private final int queueCapacity;
+    private final int batchSize;
+    private final int maxReportedErrors;
+    private final long maxUploadBytes;
+    private final int shardCount;
+    private final AtomicInteger nextShard = new AtomicInteger();
+    private final Semaphore jobSlots;
+    private final ExecutorService jobExecutor;
+    private final ExecutorService stageExecutor;
+    private final Map<UUID, ImportJob> jobs;
+
+    public ProductImportServiceImpl(ProductBatchWriter productBatchWriter,
+                                    ObjectMapper objectMapper,
+                                    @Value("${productapi.import.queue-capacity:10000}") int queueCapacity,
+                                    @Value("${productapi.import.batch-size:500}") int batchSize,
+                                    @Value("${productapi.import.max-reported-errors:1000}") int maxReportedErrors,
+                                    @Value("${productapi.import.max-concurrent-jobs:2}") int maxConcurrentJobs,
+                                    @Value("${productapi.import.max-queued-jobs:4}") int maxQueuedJobs,
+                                    @Value("${productapi.import.max-upload-size:1GB}") DataSize maxUploadSize,
+                                    @Value("${productapi.import.retained-jobs:100}") int retainedJobs,
+                                    @Value("${productapi.sharding.urls:}") List<String> shardUrls,
+                                    @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.productBatchWriter = productBatchWriter;
+        this.ndjsonReader = objectMapper.readerFor(ProductDTO.class);
+        this.queueCapacity = queueCapacity;
+        this.batchSize = batchSize;
+        this.maxReportedErrors = maxReportedErrors;
+        this.maxUploadBytes = maxUploadSize.toBytes();
+        this.shardCount = Math.max(1, shardUrls.size());
+        ThreadFactory threadFactory = virtualThreads
+                ? Thread.ofVirtual().name("product-import-", 0).factory()
+                : Thread.ofPlatform().name("product-import-", 0).factory();
+        // Queued jobs keep their spooled upload on disk, so a slot is taken before reading the body and overflow
+        // is rejected without reading it
+        this.jobSlots = new Semaphore(maxConcurrentJobs + maxQueuedJobs);
+        this.jobExecutor = Executors.newFixedThreadPool(maxConcurrentJobs, threadFactory);
+        this.stageExecutor = Executors.newCachedThreadPool(threadFactory);
+        this.jobs = Collections.synchronizedMap(new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, ImportJob> eldest) {
+                // Forgets the oldest finished jobs; queued and running ones stay, they are bounded by the job slots
+                Iterator<ImportJob> retained = values().iterator();
+                while (size() > retainedJobs && retained.hasNext()) {
+                    if (retained.next().isFinished()) {
+                        retained.remove();
+                    }
+                }
+                return false;
+            }
+        });
+    }
+
+    @Override
+    public ImportJobStatus startImport(InputStream body, ImportFormat format, long contentLength) throws IOException {
+        if (contentLength > maxUploadBytes) {
+            throw new ImportTooLargeException(tooLargeMessage());
+        }
+        if (!jobSlots.tryAcquire()) {
+            throw new TooManyImportsException("Too many imports in progress, retry later");
+        }
+        Path file;
+        try {
+            file = spool(body);
+        } catch (IOException | RuntimeException e) {
+            jobSlots.release();
+            throw e;
+        }
+
+        ImportJob job = new ImportJob(UUID.randomUUID(), format);
+        jobs.put(job.id, job);
+        jobExecutor.execute(() -> run(job, file));
+        log.info("Queued product import {} ({})", job.id, format);
+        return job.snapshot();
+    }
+
+    @Override
+    public ImportJobStatus getImportStatus(UUID jobId) {
+        ImportJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new EntityNotFoundException("Import job not found with id: " + jobId);
+        }
+        return job.snapshot();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobExecutor.shutdownNow();
+        stageExecutor.shutdownNow();
+    }
+
+    private Path spool(InputStream body) throws IOException {
+        Path file = Files.createTempFile("product-import-", ".tmp");
+        try {
+            Files.copy(new LimitedInputStream(body, maxUploadBytes), file, StandardCopyOption.REPLACE_EXISTING);
+            return file;
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+    }
+
+    private void run(ImportJob job, Path file) {
+        job.start();
+        BlockingQueue<Row> parsed = new ArrayBlockingQueue<>(queueCapacity);
+        BlockingQueue<List<Row>> validated = new ArrayBlockingQueue<>(Math.max(2, queueCapacity / batchSize));
+        Future<?> parser = stageExecutor.submit(() -> parse(job, file, parsed));
+        Future<?> validator = stageExecutor.submit(() -> validate(job, parsed, validated));
+        try {
+            write(job, validated);
+            // The validator first: once it failed, the parser only stops after the job has ended
+            validator.get();
+            parser.get();
+            job.complete();
+            log.info("Finished product import {} ({}): {} imported, {} rejected",
+                    job.id, job.state, job.imported.get(), job.rejected.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.fail("Import interrupted");
+        } catch (ExecutionException | RuntimeException e) {
+            Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
+            log.error("Product import {} failed", job.id, cause);
+            job.fail(cause.getMessage());
+        } finally {
+            parser.cancel(true);
+            validator.cancel(true);
+            jobSlots.release();
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.warn("Could not delete import file {}", file, e);
+            }
+        }
+    }
+
+    private Void parse(ImportJob job, Path file, BlockingQueue<Row> out) throws IOException, InterruptedException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(Files.newInputStream(file), StandardCharsets.UTF_8))) {
+            long lineNumber = 0;
+            Map<String, Integer> columns = null;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (lineNumber == 1 && line.startsWith("\uFEFF")) {
+                    // Byte order mark, as written by spreadsheet applications
+                    line = line.substring(1);
+                }
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (job.format == ImportFormat.CSV && columns == null) {
+                    columns = parseHeader(line);
+                    continue;
+                }
+                job.read.incrementAndGet();
+                Row row = job.format == ImportFormat.CSV ? parseCsvRow(lineNumber, line, columns) : parseJsonRow(lineNumber, line);
+                if (!handOff(job, out, row)) {
+                    return null;
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            // Malformed header: reported in the job status like any other failure
+            job.fail(e.getMessage());
+        } finally {
+            // Also after a failure, so the validator and writer drain and the job ends with the parser's error
+            handOff(job, out, END_OF_ROWS);
+        }
+        return null;
+    }
+
+    private Void validate(ImportJob job, BlockingQueue<Row> in, BlockingQueue<List<Row>> out) throws InterruptedException {
+        List<Row> batch = new ArrayList<>(batchSize);
+        try {
+            Row row;
+            while ((row = takeOver(job, in)) != null && row != END_OF_ROWS) {
+                Map<String, String> errors = row.errors != null ? row.errors : productBatchWriter.validate(row.product);
+                if (!errors.isEmpty()) {
+                    job.reject(row.line, errors);
+                    continue;
+                }
+                batch.add(row);
+                if (batch.size() == batchSize) {
+                    if (!handOff(job, out, batch)) {
+                        return null;
+                    }
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            if (row == END_OF_ROWS && !batch.isEmpty()) {
+                handOff(job, out, batch);
+            }
+        } finally {
+            handOff(job, out, END_OF_BATCHES);
+        }
+        return null;
+    }
+
+    private void write(ImportJob job, BlockingQueue<List<Row>> in) throws InterruptedException {
+        List<Row> batch;
+        while ((batch = takeOver(job, in)) != null && batch != END_OF_BATCHES) {
+            List<ProductDTO> products = batch.stream().map(row -> row.product).toList();
+            // Chunks go to the shards in turn, like single creates; each chunk stays on one shard as one transaction
+            List<BatchItemResult> results = ProductShards.callOn(
+                    Math.floorMod(nextShard.getAndIncrement(), shardCount), () -> productBatchWriter.write(products));
+            for (BatchItemResult result : results) {
+                if (result.getStatus() == BatchItemResult.Status.CREATED) {
+                    job.imported.incrementAndGet();
+                } else {
+                    job.reject(batch.get(result.getIndex()).line, result.getErrors());
+                }
+            }
+        }
+    }
+
+    // Puts the item on the queue unless the job ends first, so no stage waits on a consumer that failed
+    private static <T> boolean handOff(ImportJob job, BlockingQueue<T> queue, T item) throws InterruptedException {
+        while (!queue.offer(item, HANDOFF_POLL_MS, TimeUnit.MILLISECONDS)) {
+            if (job.isFinished()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Next item from the queue, or null once the job has ended with nothing left to take
+    private static <T> T takeOver(ImportJob job, BlockingQueue<T> queue) throws InterruptedException {
+        T item;
+        while ((item = queue.poll(HANDOFF_POLL_MS, TimeUnit.MILLISECONDS)) == null) {
+            if (job.isFinished()) {
+                return null;
+            }
+        }
+        return item;
+    }
+
+    private String tooLargeMessage() {
+        return "Import uploads are limited to " + maxUploadBytes + " bytes";
+    }
+
+    private Map<String, Integer> parseHeader(String line) {
+        List<String> names = splitCsvLine(line);
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim().toLowerCase(), i);
+        }
+        if (!columns.containsKey("name") || !columns.containsKey("price")) {
+            throw new IllegalArgumentException("CSV header must contain 'name' and 'price' columns");
+        }
+        return columns;
+    }
+
+    private Row parseCsvRow(long lineNumber, String line, Map<String, Integer> columns) {
+        List<String> values = splitCsvLine(line);
+        ProductDTO product = new ProductDTO();
+        product.setName(column(values, columns.get("name")));
+        product.setDescription(column(values, columns.get("description")));
+        String price = column(values, columns.get("price"));
+        if (price != null && !price.isBlank()) {
+            try {
+                product.setPrice(new BigDecimal(price.trim()));
+            } catch (NumberFormatException e) {
+                return new Row(lineNumber, null, Map.of("price", "Invalid price format: " + price));
+            }
+        }
+        return new Row(lineNumber, product, null);
+    }
+
+    private Row parseJsonRow(long lineNumber, String line) {
+        try {
+            return new Row(lineNumber, ndjsonReader.readValue(line), null);
+        } catch (IOException e) {
+            String reason = e instanceof JsonProcessingException jsonError ? jsonError.getOriginalMessage() : e.getMessage();
+            return new Row(lineNumber, null, Map.of("message", "Invalid JSON: " + reason));
+        }
+    }
+
+    private static String column(List<String> values, Integer index) {
+        return index != null && index < values.size() ? values.get(index) : null;
+    }
+
+    /**
+     * Splits one CSV record, honoring double-quoted fields and doubled quotes inside them.
+     * Records are expected on a single line.
+     */
+    static List<String> splitCsvLine(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        values.add(current.toString());
+        return values;
+    }
+
+    private record Row(long line, ProductDTO product, Map<String, String> errors) {
+    }
+
+    // Fails the read that takes the upload past the limit
+    private class LimitedInputStream extends FilterInputStream {
+
+        private long remaining;
+
+        LimitedInputStream(InputStream in, long limit) {
+            super(in);
+            this.remaining = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                consumed(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                consumed(n);
+            }
+            return n;
+        }
+
+        private void consumed(int bytes) {
+            remaining -= bytes;
+            if (remaining < 0) {
+                throw new ImportTooLargeException(tooLargeMessage());
+            }
+        }
+    }
+
+    private class ImportJob {
+
+        private final UUID id;
+        private final ImportFormat format;
+        private final AtomicLong read = new AtomicLong();
+        private final AtomicLong imported = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private final List<ImportRowError> errors = Collections.synchronizedList(new ArrayList<>());
+        private volatile ImportJobStatus.State state = ImportJobStatus.State.QUEUED;
+        private volatile LocalDateTime startedAt;
+        private volatile LocalDateTime finishedAt;
+        private volatile long startNanos;
+        private volatile long finishNanos;
+        private volatile String message;
+
+        ImportJob(UUID id, ImportFormat format) {
+            this.id = id;
+            this.format = format;
+        }
+
+        synchronized void start() {
+            startedAt = LocalDateTime.now();
+            startNanos = System.nanoTime();
+            state = ImportJobStatus.State.RUNNING;
+        }
+
+        void complete() {
+            finish(ImportJobStatus.State.COMPLETED, null);
+        }
+
+        void fail(String reason) {
+            finish(ImportJobStatus.State.FAILED, reason);
+        }
+
+        boolean isFinished() {
+            return state == ImportJobStatus.State.COMPLETED || state == ImportJobStatus.State.FAILED;
+        }
+
+        // The first outcome stands: a job failed by one stage is not completed by another
+        private synchronized void finish(ImportJobStatus.State finalState, String reason) {
+            if (isFinished()) {
+                return;
+            }
+            finishNanos = System.nanoTime();
+            finishedAt = LocalDateTime.now();
+            message = reason;
+            state = finalState;
+        }
+
+        void reject(long line, Map<String, String> rowErrors) {
+            rejected.incrementAndGet();
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new ImportRowError(line, rowErrors));
+            }
+        }
+
+        ImportJobStatus snapshot() {
+            ImportJobStatus status = new ImportJobStatus();
+            status.setId(id);
+            status.setState(state);
+            status.setFormat(format);
+            status.setRowsRead(read.get());
+            status.setRowsImported(imported.get());
+            status.setRowsRejected(rejected.get());
+            status.setStartedAt(startedAt);
+            status.setFinishedAt(finishedAt);
+            status.setMessage(message);
+            if (startNanos != 0) {
+                long end = finishNanos != 0 ? finishNanos : System.nanoTime();
+                double seconds = Math.max(Duration.ofNanos(end - startNanos).toMillis(), 1) / 1000.0;
+                status.setRowsPerSecond((imported.get() + rejected.get()) / seconds);
+            }
+            synchronized (errors) {
+                status.setErrors(new ArrayList<>(errors));
+            }
+            return status;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.productapi.service.impl;
+
+import com.example.productapi.dto.ProductDTO;
+import com.example.productapi.dto.ProductPatchDTO;
+import com.example.productapi.model.Product;
+import com.example.productapi.model.ProductPatch;
+
+public final class ProductMapper {
+
+    private ProductMapper() {
+    }
+
+    public static Product toEntity(ProductDTO productDTO) {
+        Product product = new Product();
+        copyInto(productDTO, product);
+        return product;
+    }
+
+    public static void copyInto(ProductDTO productDTO, Product product) {
+        product.setName(productDTO.getName());
+        product.setDescription(productDTO.getDescription());
+        product.setPrice(productDTO.getPrice());
+    }
+
+    public static ProductPatch toPatch(Long id, ProductPatchDTO patch) {
+        return new ProductPatch(id, patch.getName(), patch.hasDescription(), patch.getDescription(), patch.getPrice());
+    }
+}
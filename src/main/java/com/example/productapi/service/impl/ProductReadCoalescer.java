@@ -0,0 +1,99 @@
+package com.example.productapi.service.impl;
+
+import com.example.productapi.config.ReplicaRoutingDataSource;
+import com.example.productapi.repository.ProductShards;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight for product reads: concurrent calls with the same key share one in-flight database call and its
+ * result (or exception) instead of each querying the same rows. Nothing is kept once the call completes, so this
+ * only collapses a burst of identical reads; the product cache takes over from there. Reads inside a transaction
+ * are never shared, as they must see that transaction's own writes, and neither are reads of a client pinned to the
+ * primary for read-your-writes, as a flight started before its write committed would hide that write.
+ */
+@Component
+public class ProductReadCoalescer {
+
+    static final String CALLS_METRIC = "productapi.coalescing.calls";
+
+    private final Map<FlightKey, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final ThreadLocal<Boolean> lastJoined = new ThreadLocal<>();
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Counter> executed = new ConcurrentHashMap<>();
+    private final Map<String, Counter> joined = new ConcurrentHashMap<>();
+
+    public ProductReadCoalescer(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String operation, Object key, Supplier<T> loader) {
+        lastJoined.remove();
+        if (TransactionSynchronizationManager.isActualTransactionActive() || ReplicaRoutingDataSource.isPrimaryOnly()) {
+            return loader.get();
+        }
+        // The same listing runs once per shard when sharded, and each shard's query is a flight of its own
+        FlightKey flightKey = new FlightKey(operation, ProductShards.current(), key);
+        CompletableFuture<Object> call = new CompletableFuture<>();
+        CompletableFuture<Object> leader = inFlight.putIfAbsent(flightKey, call);
+        if (leader != null) {
+            lastJoined.set(Boolean.TRUE);
+            counter(joined, operation, "joined").increment();
+            return (T) await(leader);
+        }
+
+        counter(executed, operation, "executed").increment();
+        try {
+            T result = loader.get();
+            call.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(flightKey, call);
+        }
+    }
+
+    /**
+     * Whether the current thread's last call shared another caller's flight. That flight may have read the row before
+     * a write that committed since, so callers that cache by eviction must not keep its result.
+     */
+    public boolean joinedLastCall() {
+        return Boolean.TRUE.equals(lastJoined.get());
+    }
+
+    private static Object await(CompletableFuture<Object> leader) {
+        try {
+            return leader.join();
+        } catch (CompletionException e) {
+            // Rethrow what the leader got, so followers fail the same way (e.g. 404 for a missing product)
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private Counter counter(Map<String, Counter> counters, String operation, String outcome) {
+        return counters.computeIfAbsent(operation, op -> Counter.builder(CALLS_METRIC)
+                .description("Product reads that ran a query (executed) or shared another caller's (joined)")
+                .tags("operation", op, "outcome", outcome)
+                .register(meterRegistry));
+    }
+
+    private record FlightKey(String operation, int shard, Object key) {
+    }
+}
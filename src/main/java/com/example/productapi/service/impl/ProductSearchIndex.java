@@ -0,0 +1,424 @@
+package com.example.productapi.service.impl;
+
+import com.example.productapi.model.Product;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index over product name and description, ranked with BM25.
+ *
+ * <p>Every indexed product gets an ordinal; postings store ordinals in ascending order, so a query is
+ * a document-at-a-time merge of the postings of its terms with a bounded heap for the requested page.
+ * Updates append a new ordinal and tombstone the old one; tombstoned ordinals are dropped from the
+ * postings once they make up a quarter of the index. Name terms count {@value #NAME_BOOST} times.
+ * Single-term queries skip scoring of posting blocks whose BM25 upper bound (highest frequency, shortest
+ * product in the block) cannot reach the requested page; such blocks are only counted.
+ *
+ * <p>Searches share a read lock and updates take the write lock.
+ */
+@Component
+public class ProductSearchIndex {
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    private static final int NAME_BOOST = 2;
+    private static final int MIN_DELETED_FOR_COMPACTION = 1024;
+    private static final int BLOCK_SIZE = 128;
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, PostingList> postings = new HashMap<>();
+    private final Map<Long, Integer> ordinalsById = new HashMap<>();
+    private final BitSet deleted = new BitSet();
+    private long[] ids = new long[1024];
+    private int[] lengths = new int[1024];
+    private int nextOrdinal;
+    private int deletedCount;
+    private long totalLength;
+
+    public record SearchHits(List<Long> ids, long totalHits) {
+    }
+
+    /**
+     * Lower-cases, strips accents and splits on anything that is not a letter or digit.
+     */
+    public static List<String> tokenize(String text) {
+        if (text == null || text.isEmpty()) {
+            return List.of();
+        }
+        String folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        return Arrays.stream(SEPARATORS.split(folded))
+                .filter(token -> !token.isEmpty())
+                .toList();
+    }
+
+    /**
+     * Adds the product, replacing any previously indexed version of it.
+     */
+    public void index(Product product) {
+        Map<String, Integer> termFrequencies = new HashMap<>();
+        int length = addTerms(product.getName(), NAME_BOOST, termFrequencies)
+                + addTerms(product.getDescription(), 1, termFrequencies);
+
+        lock.writeLock().lock();
+        try {
+            removeOrdinal(product.getId());
+            int ordinal = nextOrdinal++;
+            if (ordinal == ids.length) {
+                ids = Arrays.copyOf(ids, ordinal * 2);
+                lengths = Arrays.copyOf(lengths, ordinal * 2);
+            }
+            ids[ordinal] = product.getId();
+            lengths[ordinal] = length;
+            totalLength += length;
+            termFrequencies.forEach((term, frequency) ->
+                    postings.computeIfAbsent(term, t -> new PostingList()).add(ordinal, frequency, length));
+            ordinalsById.put(product.getId(), ordinal);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            removeOrdinal(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean contains(Long id) {
+        lock.readLock().lock();
+        try {
+            return ordinalsById.containsKey(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return ordinalsById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            ordinalsById.clear();
+            deleted.clear();
+            nextOrdinal = 0;
+            deletedCount = 0;
+            totalLength = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ranks products containing any of the terms (already {@linkplain #tokenize tokenized}) and returns
+     * the ids at {@code [offset, offset + limit)} in descending score order, ties broken by ascending id,
+     * together with the number of matching products.
+     */
+    public SearchHits search(List<String> terms, int offset, int limit) {
+        lock.readLock().lock();
+        try {
+            int liveDocs = ordinalsById.size();
+            List<String> distinctTerms = terms.stream().distinct().filter(postings::containsKey).toList();
+            if (distinctTerms.isEmpty() || liveDocs == 0) {
+                return new SearchHits(List.of(), 0);
+            }
+            int termCount = distinctTerms.size();
+            PostingList[] lists = new PostingList[termCount];
+            float[] weights = new float[termCount];
+            for (int i = 0; i < termCount; i++) {
+                lists[i] = postings.get(distinctTerms.get(i));
+                // Document frequency still counts tombstones until the next compaction
+                int documentFrequency = Math.min(lists[i].size, liveDocs);
+                float idf = (float) Math.log(1 + (liveDocs - documentFrequency + 0.5) / (documentFrequency + 0.5));
+                weights[i] = idf * (K1 + 1);
+            }
+
+            // BM25 length normalisation, k1 * (1 - b + b * length / averageLength), as a + c * length
+            float normBase = K1 * (1 - B);
+            float normPerTerm = K1 * B * liveDocs / totalLength;
+            TopHits top = new TopHits(offset + limit);
+            if (termCount == 1) {
+                long totalHits = searchSingle(lists[0], weights[0], normBase, normPerTerm, top);
+                return new SearchHits(top.idsFrom(offset), totalHits);
+            }
+            int[] positions = new int[termCount];
+            long totalHits = 0;
+
+            while (true) {
+                int ordinal = Integer.MAX_VALUE;
+                for (int i = 0; i < termCount; i++) {
+                    if (positions[i] < lists[i].size && lists[i].ordinals[positions[i]] < ordinal) {
+                        ordinal = lists[i].ordinals[positions[i]];
+                    }
+                }
+                if (ordinal == Integer.MAX_VALUE) {
+                    break;
+                }
+
+                float lengthNorm = normBase + normPerTerm * lengths[ordinal];
+                float score = 0;
+                for (int i = 0; i < termCount; i++) {
+                    PostingList list = lists[i];
+                    int position = positions[i];
+                    if (position < list.size && list.ordinals[position] == ordinal) {
+                        int frequency = list.frequencies[position];
+                        score += weights[i] * frequency / (frequency + lengthNorm);
+                        positions[i] = position + 1;
+                    }
+                }
+                if (!deleted.get(ordinal)) {
+                    totalHits++;
+                    top.offer(score, ids[ordinal]);
+                }
+            }
+
+            return new SearchHits(top.idsFrom(offset), totalHits);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private long searchSingle(PostingList list, float weight, float normBase, float normPerTerm, TopHits top) {
+        long totalHits = 0;
+        for (int block = 0, from = 0; from < list.size; block++, from += BLOCK_SIZE) {
+            int to = Math.min(from + BLOCK_SIZE, list.size);
+            if (top.isFull()) {
+                int maxFrequency = list.blockMaxFrequencies[block];
+                float bound = weight * maxFrequency / (maxFrequency + normBase + normPerTerm * list.blockMinLengths[block]);
+                // The margin absorbs float rounding between the bound and the per-product scores
+                if (bound * 1.0001f < top.minScore()) {
+                    totalHits += countLive(list, from, to);
+                    continue;
+                }
+            }
+            for (int i = from; i < to; i++) {
+                int ordinal = list.ordinals[i];
+                if (!deleted.get(ordinal)) {
+                    int frequency = list.frequencies[i];
+                    totalHits++;
+                    top.offer(weight * frequency / (frequency + normBase + normPerTerm * lengths[ordinal]), ids[ordinal]);
+                }
+            }
+        }
+        return totalHits;
+    }
+
+    private int countLive(PostingList list, int from, int to) {
+        if (deletedCount == 0) {
+            return to - from;
+        }
+        int live = 0;
+        for (int i = from; i < to; i++) {
+            if (!deleted.get(list.ordinals[i])) {
+                live++;
+            }
+        }
+        return live;
+    }
+
+    private static int addTerms(String text, int weight, Map<String, Integer> termFrequencies) {
+        List<String> tokens = tokenize(text);
+        for (String token : tokens) {
+            termFrequencies.merge(token, weight, Integer::sum);
+        }
+        return tokens.size() * weight;
+    }
+
+    private void removeOrdinal(Long id) {
+        Integer ordinal = ordinalsById.remove(id);
+        if (ordinal == null) {
+            return;
+        }
+        deleted.set(ordinal);
+        deletedCount++;
+        totalLength -= lengths[ordinal];
+        if (deletedCount >= MIN_DELETED_FOR_COMPACTION && deletedCount * 4L >= nextOrdinal) {
+            compact();
+        }
+    }
+
+    private void compact() {
+        // Renumbering preserves order, so postings stay sorted and entries only ever move left
+        int[] remap = new int[nextOrdinal];
+        int live = 0;
+        for (int ordinal = 0; ordinal < nextOrdinal; ordinal++) {
+            if (deleted.get(ordinal)) {
+                remap[ordinal] = -1;
+            } else {
+                remap[ordinal] = live;
+                ids[live] = ids[ordinal];
+                lengths[live] = lengths[ordinal];
+                live++;
+            }
+        }
+        postings.values().removeIf(list -> list.remap(remap, lengths) == 0);
+        ordinalsById.replaceAll((id, ordinal) -> remap[ordinal]);
+        deleted.clear();
+        deletedCount = 0;
+        nextOrdinal = live;
+    }
+
+    /**
+     * Bounded min-heap of the best hits on parallel primitive arrays; higher score wins, then lower id.
+     */
+    private static final class TopHits {
+
+        private final int capacity;
+        private final float[] scores;
+        private final long[] hitIds;
+        private int size;
+
+        private TopHits(int capacity) {
+            this.capacity = capacity;
+            this.scores = new float[Math.max(capacity, 1)];
+            this.hitIds = new long[Math.max(capacity, 1)];
+        }
+
+        private boolean isFull() {
+            return size == capacity;
+        }
+
+        private float minScore() {
+            return scores[0];
+        }
+
+        private void offer(float score, long id) {
+            if (size < capacity) {
+                scores[size] = score;
+                hitIds[size] = id;
+                siftUp(size++);
+            } else if (capacity > 0 && better(score, id, scores[0], hitIds[0])) {
+                scores[0] = score;
+                hitIds[0] = id;
+                siftDown(0);
+            }
+        }
+
+        private List<Long> idsFrom(int offset) {
+            // Drain worst-first, so the ranked list is filled from the back
+            Long[] ranked = new Long[size];
+            for (int i = size - 1; i >= 0; i--) {
+                ranked[i] = hitIds[0];
+                scores[0] = scores[size - 1];
+                hitIds[0] = hitIds[size - 1];
+                size--;
+                siftDown(0);
+            }
+            return offset >= ranked.length ? List.of() : List.of(ranked).subList(offset, ranked.length);
+        }
+
+        private static boolean better(float score, long id, float otherScore, long otherId) {
+            return score > otherScore || (score == otherScore && id < otherId);
+        }
+
+        private void siftUp(int index) {
+            while (index > 0) {
+                int parent = (index - 1) >>> 1;
+                if (!better(scores[parent], hitIds[parent], scores[index], hitIds[index])) {
+                    return;
+                }
+                swap(index, parent);
+                index = parent;
+            }
+        }
+
+        private void siftDown(int index) {
+            while (true) {
+                int worst = index;
+                int left = 2 * index + 1;
+                int right = left + 1;
+                if (left < size && better(scores[worst], hitIds[worst], scores[left], hitIds[left])) {
+                    worst = left;
+                }
+                if (right < size && better(scores[worst], hitIds[worst], scores[right], hitIds[right])) {
+                    worst = right;
+                }
+                if (worst == index) {
+                    return;
+                }
+                swap(index, worst);
+                index = worst;
+            }
+        }
+
+        private void swap(int i, int j) {
+            float score = scores[i];
+            scores[i] = scores[j];
+            scores[j] = score;
+            long id = hitIds[i];
+            hitIds[i] = hitIds[j];
+            hitIds[j] = id;
+        }
+    }
+
+    private static final class PostingList {
+
+        private int[] ordinals = new int[4];
+        private int[] frequencies = new int[4];
+        private int[] blockMaxFrequencies = new int[1];
+        private int[] blockMinLengths = new int[1];
+        private int size;
+
+        private void add(int ordinal, int frequency, int length) {
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            int block = size / BLOCK_SIZE;
+            if (block == blockMaxFrequencies.length) {
+                blockMaxFrequencies = Arrays.copyOf(blockMaxFrequencies, block * 2);
+                blockMinLengths = Arrays.copyOf(blockMinLengths, block * 2);
+            }
+            if (size % BLOCK_SIZE == 0) {
+                blockMaxFrequencies[block] = frequency;
+                blockMinLengths[block] = length;
+            } else {
+                blockMaxFrequencies[block] = Math.max(blockMaxFrequencies[block], frequency);
+                blockMinLengths[block] = Math.min(blockMinLengths[block], length);
+            }
+            ordinals[size] = ordinal;
+            frequencies[size] = frequency;
+            size++;
+        }
+
+        private int remap(int[] remap, int[] remappedLengths) {
+            int[] oldOrdinals = ordinals;
+            int[] oldFrequencies = frequencies;
+            int oldSize = size;
+            ordinals = new int[Math.max(4, oldSize)];
+            frequencies = new int[Math.max(4, oldSize)];
+            size = 0;
+            for (int i = 0; i < oldSize; i++) {
+                int ordinal = remap[oldOrdinals[i]];
+                if (ordinal >= 0) {
+                    add(ordinal, oldFrequencies[i], remappedLengths[ordinal]);
+                }
+            }
+            return size;
+        }
+    }
+}
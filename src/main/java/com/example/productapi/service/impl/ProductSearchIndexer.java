@@ -0,0 +1,95 @@
+package com.example.productapi.service.impl;
+
+import com.example.productapi.dto.ProductFilter;
+import com.example.productapi.model.Product;
+import com.example.productapi.repository.ProductRepository;
+import com.example.productapi.service.ProductChangedEvent;
+import com.example.productapi.service.ProductService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Fills the {@link ProductSearchIndex} from the database when the application is ready, before it
+ * reports readiness, and applies committed changes published as {@link ProductChangedEvent}s.
+ * Writes that bypass the product service (e.g. direct SQL) are only picked up by the next rebuild.
+ */
+@Slf4j
+@Component
+public class ProductSearchIndexer {
+
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductRepository productRepository;
+    private final ProductService productService;
+
+    // Ids changed while a rebuild is running; their committed state is newer than the rebuild's cursor. Only
+    // written under this object's monitor, null outside rebuilds
+    private volatile Set<Long> changedDuringRebuild;
+
+    public ProductSearchIndexer(ProductSearchIndex productSearchIndex,
+                                ProductRepository productRepository,
+                                ProductService productService) {
+        this.productSearchIndex = productSearchIndex;
+        this.productRepository = productRepository;
+        this.productService = productService;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.nanoTime();
+        synchronized (this) {
+            productSearchIndex.clear();
+            changedDuringRebuild = new HashSet<>();
+        }
+        // Streamed through the service so that, when sharded, every shard is read
+        productService.streamProducts(new ProductFilter(), product -> {
+            synchronized (this) {
+                if (!changedDuringRebuild.contains(product.getId())) {
+                    productSearchIndex.index(product);
+                }
+            }
+        });
+        synchronized (this) {
+            changedDuringRebuild = null;
+        }
+        log.info("Indexed {} products for search in {} ms", productSearchIndex.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        Long id = event.productId();
+        Runnable update = switch (event.type()) {
+            case DELETED -> () -> productSearchIndex.remove(id);
+            case SAVED -> () -> productSearchIndex.index(event.product());
+            case PATCHED -> {
+                // A patch carries only the changed fields; reload the row when indexed text changed. The query runs
+                // before any lock is taken, the index guards itself
+                if (!event.patch().changesText()) {
+                    yield null;
+                }
+                Optional<Product> current = productRepository.findById(id);
+                yield () -> current.ifPresentOrElse(productSearchIndex::index, () -> productSearchIndex.remove(id));
+            }
+        };
+        if (update == null) {
+            return;
+        }
+        if (changedDuringRebuild == null) {
+            update.run();
+            return;
+        }
+        // While rebuilding, marking the id and applying the change must not interleave with the rebuild's own writes
+        synchronized (this) {
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.add(id);
+            }
+            update.run();
+        }
+    }
+}
@@ -1,57 +1,210 @@
 package com.example.productapi.service.impl;
 
+import com.example.productapi.config.CacheConfig;
+import com.example.productapi.dto.BatchCreateResponse;
+import com.example.productapi.dto.CursorPage;
 import com.example.productapi.dto.ProductDTO;
+import com.example.productapi.dto.ProductFilter;
+import com.example.productapi.dto.ProductPatchDTO;
+import com.example.productapi.dto.ProductView;
+import com.example.productapi.dto.SlicePage;
+import com.example.productapi.exception.InvalidSearchException;
+import com.example.productapi.exception.PreconditionFailedException;
 import com.example.productapi.model.Product;
+import com.example.productapi.model.ProductPatch;
 import com.example.productapi.repository.ProductRepository;
+import com.example.productapi.repository.ProductSpecifications;
+import com.example.productapi.service.ProductChangedEvent;
+import com.example.productapi.service.ProductCursor;
 import com.example.productapi.service.ProductService;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
 @Service
 @RequiredArgsConstructor
+@Timed(value = "productapi.service", description = "Product service operation latency")
 public class ProductServiceImpl implements ProductService {
 
     private final ProductRepository productRepository;
+    private final ProductCountEstimator productCountEstimator;
+    private final ProductBatchWriter productBatchWriter;
+    private final EntityManager entityManager;
+    private final ProductSearchIndex productSearchIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ProductReadCoalescer productReadCoalescer;
 
     @Override
     @Transactional
     public Product createProduct(ProductDTO productDTO) {
-        Product product = new Product();
-        product.setName(productDTO.getName());
-        product.setDescription(productDTO.getDescription());
-        product.setPrice(productDTO.getPrice());
-        return productRepository.save(product);
+        Product product = productRepository.save(ProductMapper.toEntity(productDTO));
+        eventPublisher.publishEvent(ProductChangedEvent.saved(product));
+        return product;
     }
 
     @Override
-    public Product getProductById(Long id) {
-        return productRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException("Product not found with id: " + id));
+    public BatchCreateResponse createProducts(List<ProductDTO> productDTOs) {
+        // Not transactional: the writer commits chunk by chunk so one bad row cannot roll back the whole batch
+        return BatchCreateResponse.of(productBatchWriter.validateAndWrite(productDTOs));
+    }
+
+    @Override
+    // Filled from primary reads only: a lagging replica could put back what a write just evicted, and so could a
+    // shared query that started before the write. Clients pinned to the primary bypass the cache, so they see their
+    // own writes
+    @Cacheable(cacheNames = CacheConfig.PRODUCTS_CACHE, key = "#id", condition = "!@readRouting.primaryOnly()",
+            unless = "@readRouting.fromReplica() || @productReadCoalescer.joinedLastCall()")
+    public ProductView getProductById(Long id) {
+        // Reads never modify the row, so they select a projection instead of a managed entity.
+        // Concurrent cache misses for the same id share one query
+        return productReadCoalescer.execute("product", id, () -> productRepository.findViewById(id)
+                .orElseThrow(() -> notFound(id)));
+    }
+
+    @Override
+    public Page<ProductView> getAllProducts(Pageable pageable) {
+        return productReadCoalescer.execute("page", new PageQuery(null, pageable),
+                () -> productRepository.findViews(null, pageable));
+    }
+
+    @Override
+    public Page<ProductView> getAllProducts(ProductFilter filter, Pageable pageable) {
+        return productReadCoalescer.execute("page", new PageQuery(filter, pageable),
+                () -> productRepository.findViews(ProductSpecifications.matching(filter), pageable));
+    }
+
+    @Override
+    public CursorPage<Product> getProductsAfter(String after, int size, Sort sort) {
+        ProductCursor cursor = after != null && !after.isBlank()
+                ? ProductCursor.decode(after)
+                : ProductCursor.start(sort);
+
+        // Fetch one extra row to learn whether there is a next page without counting
+        List<Product> rows = productRepository.findAfter(cursor.property(), cursor.direction(),
+                cursor.lastValue(), cursor.lastId(), size + 1);
+        boolean hasNext = rows.size() > size;
+        List<Product> content = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = hasNext ? cursor.next(content.get(content.size() - 1)).encode() : null;
+        return new CursorPage<>(content, size, hasNext, nextCursor);
+    }
+
+    @Override
+    public SlicePage<Product> getProductSlice(Pageable pageable, boolean includeTotal) {
+        Slice<Product> slice = productRepository.findAllBy(pageable);
+        // Left out until the estimator's first background refresh, rather than counting on the request path
+        Long total = includeTotal ? productCountEstimator.getEstimatedCount() : null;
+        return new SlicePage<>(slice.getContent(), slice.getNumber(), slice.getSize(), slice.hasNext(), total);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamProducts(ProductFilter filter, Consumer<Product> consumer) {
+        try (Stream<Product> products = productRepository.streamMatching(ProductSpecifications.matching(filter))) {
+            products.forEach(product -> {
+                consumer.accept(product);
+                // Detach once written so the persistence context stays small whatever the table size
+                entityManager.detach(product);
+            });
+        }
+    }
+
+    @Override
+    public Page<Product> searchProducts(String query, Pageable pageable) {
+        List<String> terms = ProductSearchIndex.tokenize(query);
+        if (terms.isEmpty()) {
+            throw new InvalidSearchException("Search query must contain at least one letter or digit");
+        }
+        ProductSearchIndex.SearchHits hits = productSearchIndex.search(terms, (int) pageable.getOffset(), pageable.getPageSize());
+
+        // The index only ranks; rows come from the database in one lookup and are put back in rank order
+        Map<Long, Product> productsById = productRepository.findAllById(hits.ids()).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        List<Product> content = hits.ids().stream()
+                .map(productsById::get)
+                .filter(Objects::nonNull)
+                .toList();
+        return new PageImpl<>(content, pageable, hits.totalHits());
     }
 
     @Override
-    public Page<Product> getAllProducts(Pageable pageable) {
-        return productRepository.findAll(pageable);
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.PRODUCTS_CACHE, key = "#id")
+    public Product updateProduct(Long id, ProductDTO productDTO, Long expectedVersion) {
+        Product existingProduct = findProduct(id);
+        if (expectedVersion != null && !expectedVersion.equals(existingProduct.getVersion())) {
+            throw versionMismatch(id);
+        }
+        // A writer committing after the read above makes the versioned UPDATE match no row, failing the commit
+        ProductMapper.copyInto(productDTO, existingProduct);
+        Product updatedProduct = productRepository.save(existingProduct);
+        eventPublisher.publishEvent(ProductChangedEvent.saved(updatedProduct));
+        return updatedProduct;
     }
 
     @Override
-    @Transactional 
-    public Product updateProduct(Long id, ProductDTO productDTO) {
-        Product existingProduct = getProductById(id);
-        existingProduct.setName(productDTO.getName());
-        existingProduct.setDescription(productDTO.getDescription());
-        existingProduct.setPrice(productDTO.getPrice());
-        return productRepository.save(existingProduct);
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.PRODUCTS_CACHE, key = "#id")
+    public void patchProduct(Long id, ProductPatchDTO productPatchDTO, Long expectedVersion) {
+        // One UPDATE of the supplied columns; the affected-row count replaces the existence check
+        ProductPatch patch = ProductMapper.toPatch(id, productPatchDTO);
+        if (productRepository.patch(patch, expectedVersion) == 0) {
+            throw missingOrChanged(id, expectedVersion);
+        }
+        eventPublisher.publishEvent(ProductChangedEvent.patched(patch));
     }
 
     @Override
     @Transactional
-    public void deleteProduct(Long id) {
-        Product product = getProductById(id);
-        productRepository.delete(product);
+    @CacheEvict(cacheNames = CacheConfig.PRODUCTS_CACHE, key = "#id")
+    public void deleteProduct(Long id, Long expectedVersion) {
+        int deleted = expectedVersion != null
+                ? productRepository.deleteProductByIdAndVersion(id, expectedVersion)
+                : productRepository.deleteProductById(id);
+        if (deleted == 0) {
+            throw missingOrChanged(id, expectedVersion);
+        }
+        eventPublisher.publishEvent(ProductChangedEvent.deleted(id));
+    }
+
+    // Full updates need the managed entity, not the cached projection
+    private Product findProduct(Long id) {
+        return productRepository.findById(id)
+                .orElseThrow(() -> notFound(id));
+    }
+
+    // Only failed conditional writes pay for the extra lookup that tells the two cases apart
+    private RuntimeException missingOrChanged(Long id, Long expectedVersion) {
+        return expectedVersion != null && productRepository.existsById(id) ? versionMismatch(id) : notFound(id);
+    }
+
+    private static EntityNotFoundException notFound(Long id) {
+        return new EntityNotFoundException("Product not found with id: " + id);
+    }
+
+    private static PreconditionFailedException versionMismatch(Long id) {
+        return new PreconditionFailedException("Product " + id + " has been modified, its ETag no longer matches If-Match");
+    }
+
+    // Identical listings, including filters, paging and sort, share one in-flight query
+    private record PageQuery(ProductFilter filter, Pageable pageable) {
     }
 }
\ No newline at end of file
@@ -0,0 +1,296 @@
+package com.example.productapi.service.impl;
+
+import com.example.productapi.dto.BatchCreateResponse;
+import com.example.productapi.dto.CursorPage;
+import com.example.productapi.dto.ProductDTO;
+import com.example.productapi.dto.ProductFilter;
+import com.example.productapi.dto.ProductPatchDTO;
+import com.example.productapi.dto.ProductView;
+import com.example.productapi.dto.SlicePage;
+import com.example.productapi.exception.InvalidSearchException;
+import com.example.productapi.exception.InvalidSortException;
+import com.example.productapi.model.Product;
+import com.example.productapi.repository.ProductRepository;
+import com.example.productapi.repository.ProductShards;
+import com.example.productapi.service.ProductCursor;
+import com.example.productapi.service.ProductService;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mapping.PropertyReferenceException;
+import org.springframework.data.util.TypeInformation;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Sharding layer over {@link ProductServiceImpl}, which keeps running each operation against a single database.
+ * New products go to the shards in turn and by-id operations to the shard encoded in the id. Listings query every
+ * shard in parallel for the rows up to the end of the requested page and merge them in sort order, so deep offset
+ * pages cost each shard {@code offset + size} rows. Each shard orders strings by its database's collation, which
+ * the merge cannot reproduce, so sorting by a string property is rejected.
+ */
+public class ShardedProductService implements ProductService, AutoCloseable {
+
+    private static final Map<String, Function<ProductView, Comparable<?>>> VIEW_PROPERTIES = Map.of(
+            "id", ProductView::id,
+            "name", ProductView::name,
+            "description", ProductView::description,
+            "price", ProductView::price,
+            "createdAt", ProductView::createdAt,
+            "version", ProductView::version);
+
+    private static final Map<String, Function<Product, Comparable<?>>> PRODUCT_PROPERTIES = Map.of(
+            "id", Product::getId,
+            "name", Product::getName,
+            "description", Product::getDescription,
+            "price", Product::getPrice,
+            "createdAt", Product::getCreatedAt,
+            "version", Product::getVersion);
+
+    private static final Set<String> STRING_PROPERTIES = Set.of("name", "description");
+
+    private final ProductService productService;
+    private final ProductRepository productRepository;
+    private final ProductSearchIndex productSearchIndex;
+    private final int shardCount;
+    private final boolean nullsSortedHigh;
+    private final AtomicInteger nextShard = new AtomicInteger();
+    private final ExecutorService shardQueries = Executors.newVirtualThreadPerTaskExecutor();
+
+    public ShardedProductService(ProductService productService, ProductRepository productRepository,
+                                 ProductSearchIndex productSearchIndex, int shardCount, boolean nullsSortedHigh) {
+        this.productService = productService;
+        this.productRepository = productRepository;
+        this.productSearchIndex = productSearchIndex;
+        this.shardCount = shardCount;
+        this.nullsSortedHigh = nullsSortedHigh;
+    }
+
+    @Override
+    public Product createProduct(ProductDTO productDTO) {
+        return ProductShards.callOn(nextShard(), () -> productService.createProduct(productDTO));
+    }
+
+    @Override
+    public BatchCreateResponse createProducts(List<ProductDTO> productDTOs) {
+        // The whole batch goes to one shard so its chunks still commit as multi-row inserts
+        return ProductShards.callOn(nextShard(), () -> productService.createProducts(productDTOs));
+    }
+
+    @Override
+    public ProductView getProductById(Long id) {
+        return ProductShards.callOn(shardOf(id), () -> productService.getProductById(id));
+    }
+
+    @Override
+    public Page<ProductView> getAllProducts(Pageable pageable) {
+        return gatherPage(pageable, shardPageable -> productService.getAllProducts(shardPageable));
+    }
+
+    @Override
+    public Page<ProductView> getAllProducts(ProductFilter filter, Pageable pageable) {
+        return gatherPage(pageable, shardPageable -> productService.getAllProducts(filter, shardPageable));
+    }
+
+    @Override
+    public CursorPage<Product> getProductsAfter(String after, int size, Sort sort) {
+        ProductCursor cursor = after != null && !after.isBlank()
+                ? ProductCursor.decode(after)
+                : ProductCursor.start(sort);
+        Comparator<Product> order = comparator(
+                Sort.by(cursor.direction(), cursor.property()).and(Sort.by(cursor.direction(), "id")),
+                PRODUCT_PROPERTIES, Product.class);
+        // Each shard returns its next rows after the same position; the first size of them merged are the page
+        List<CursorPage<Product>> pages = scatter(shard -> productService.getProductsAfter(after, size, sort));
+        List<Product> merged = merge(pages.stream().map(CursorPage::getContent).toList(), order);
+        boolean hasNext = merged.size() > size || pages.stream().anyMatch(CursorPage::isHasNext);
+        List<Product> content = merged.size() > size ? merged.subList(0, size) : merged;
+        String nextCursor = hasNext && !content.isEmpty() ? cursor.next(content.get(content.size() - 1)).encode() : null;
+        return new CursorPage<>(content, size, hasNext, nextCursor);
+    }
+
+    @Override
+    public SlicePage<Product> getProductSlice(Pageable pageable, boolean includeTotal) {
+        // The count estimate is kept for one database, so there is no approximate total across shards
+        Pageable shardPageable = shardPageable(pageable);
+        Comparator<Product> order = comparator(shardPageable.getSort(), PRODUCT_PROPERTIES, Product.class);
+        List<SlicePage<Product>> slices = scatter(shard -> productService.getProductSlice(shardPageable, false));
+        List<Product> merged = merge(slices.stream().map(SlicePage::getContent).toList(), order);
+        long end = pageable.getOffset() + pageable.getPageSize();
+        boolean hasNext = merged.size() > end || slices.stream().anyMatch(SlicePage::isHasNext);
+        List<Product> content = page(merged, pageable);
+        return new SlicePage<>(content, pageable.getPageNumber(), pageable.getPageSize(), hasNext, null);
+    }
+
+    @Override
+    public void streamProducts(ProductFilter filter, Consumer<Product> consumer) {
+        // The shard is the top of the id, so exporting the shards one after another keeps the export in id order
+        for (int shard = 0; shard < shardCount; shard++) {
+            ProductShards.runOn(shard, () -> productService.streamProducts(filter, consumer));
+        }
+    }
+
+    @Override
+    public Page<Product> searchProducts(String query, Pageable pageable) {
+        List<String> terms = ProductSearchIndex.tokenize(query);
+        if (terms.isEmpty()) {
+            throw new InvalidSearchException("Search query must contain at least one letter or digit");
+        }
+        ProductSearchIndex.SearchHits hits = productSearchIndex.search(terms, (int) pageable.getOffset(), pageable.getPageSize());
+
+        // The index covers every shard; each shard loads its own hits and the rank order is restored afterwards
+        Map<Integer, List<Long>> idsByShard = hits.ids().stream()
+                .collect(Collectors.groupingBy(ProductShards::shardOf));
+        Map<Long, Product> productsById = scatter(shard -> idsByShard.containsKey(shard)
+                        ? productRepository.findAllById(idsByShard.get(shard))
+                        : List.<Product>of()).stream()
+                .flatMap(List::stream)
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        List<Product> content = hits.ids().stream()
+                .map(productsById::get)
+                .filter(Objects::nonNull)
+                .toList();
+        return new PageImpl<>(content, pageable, hits.totalHits());
+    }
+
+    @Override
+    public Product updateProduct(Long id, ProductDTO productDTO, Long expectedVersion) {
+        return ProductShards.callOn(shardOf(id), () -> productService.updateProduct(id, productDTO, expectedVersion));
+    }
+
+    @Override
+    public void patchProduct(Long id, ProductPatchDTO productPatchDTO, Long expectedVersion) {
+        ProductShards.runOn(shardOf(id), () -> productService.patchProduct(id, productPatchDTO, expectedVersion));
+    }
+
+    @Override
+    public void deleteProduct(Long id, Long expectedVersion) {
+        ProductShards.runOn(shardOf(id), () -> productService.deleteProduct(id, expectedVersion));
+    }
+
+    @Override
+    public void close() {
+        shardQueries.close();
+    }
+
+    private int nextShard() {
+        return Math.floorMod(nextShard.getAndIncrement(), shardCount);
+    }
+
+    private int shardOf(Long id) {
+        int shard = ProductShards.shardOf(id);
+        if (shard >= shardCount) {
+            throw new EntityNotFoundException("Product not found with id: " + id);
+        }
+        return shard;
+    }
+
+    private Page<ProductView> gatherPage(Pageable pageable, Function<Pageable, Page<ProductView>> query) {
+        Pageable shardPageable = shardPageable(pageable);
+        Comparator<ProductView> order = comparator(shardPageable.getSort(), VIEW_PROPERTIES, ProductView.class);
+        List<Page<ProductView>> pages = scatter(shard -> query.apply(shardPageable));
+        List<ProductView> merged = merge(pages.stream().map(Slice::getContent).toList(), order);
+        long total = pages.stream().mapToLong(Page::getTotalElements).sum();
+        return new PageImpl<>(page(merged, pageable), pageable, total);
+    }
+
+    // Every shard may hold all rows of the page, so each one is asked for the first offset + size rows,
+    // ordered by id after the requested sort so that rows with equal sort keys merge deterministically
+    private static Pageable shardPageable(Pageable pageable) {
+        if (pageable.isUnpaged()) {
+            return pageable;
+        }
+        Sort sort = pageable.getSort().getOrderFor("id") != null
+                ? pageable.getSort()
+                : pageable.getSort().and(Sort.by("id"));
+        return PageRequest.of(0, Math.toIntExact(pageable.getOffset() + pageable.getPageSize()), sort);
+    }
+
+    private static <T> List<T> page(List<T> merged, Pageable pageable) {
+        if (pageable.isUnpaged()) {
+            return merged;
+        }
+        int from = (int) Math.min(pageable.getOffset(), merged.size());
+        int to = Math.min(from + pageable.getPageSize(), merged.size());
+        return merged.subList(from, to);
+    }
+
+    private <T> List<T> scatter(IntFunction<T> query) {
+        List<Future<T>> futures = new ArrayList<>(shardCount);
+        for (int shard = 0; shard < shardCount; shard++) {
+            int target = shard;
+            futures.add(shardQueries.submit(() -> ProductShards.callOn(target, () -> query.apply(target))));
+        }
+        List<T> results = new ArrayList<>(shardCount);
+        for (Future<T> future : futures) {
+            results.add(await(future));
+        }
+        return results;
+    }
+
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while querying the shards", e);
+        } catch (ExecutionException e) {
+            // Rethrow what the shard's query threw, so e.g. an invalid sort property is still a 400
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    // Each shard's rows are already sorted, and TimSort merges such runs in linear passes
+    private static <T> List<T> merge(List<List<T>> shardRows, Comparator<T> order) {
+        List<T> merged = new ArrayList<>();
+        shardRows.forEach(merged::addAll);
+        merged.sort(order);
+        return merged;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private <T> Comparator<T> comparator(Sort sort, Map<String, Function<T, Comparable<?>>> properties,
+                                         Class<T> type) {
+        Comparator<T> comparator = (left, right) -> 0;
+        for (Sort.Order order : sort) {
+            Function<T, Comparable<?>> property = properties.get(order.getProperty());
+            if (property == null) {
+                throw new PropertyReferenceException(order.getProperty(), TypeInformation.of(type), List.of());
+            }
+            if (STRING_PROPERTIES.contains(order.getProperty())) {
+                throw new InvalidSortException("Sorting by " + order.getProperty() + " is not supported with sharding");
+            }
+            // Nulls in the order the shards' database puts them: PostgreSQL sorts them high (last when ascending),
+            // H2 low (first when ascending)
+            Comparator<Comparable> natural = Comparator.<Comparable>naturalOrder();
+            Comparator<Comparable> values = nullsSortedHigh ? Comparator.nullsLast(natural) : Comparator.nullsFirst(natural);
+            Comparator<T> next = Comparator.comparing(row -> (Comparable) property.apply(row), values);
+            comparator = comparator.thenComparing(order.isAscending() ? next : next.reversed());
+        }
+        return comparator;
+    }
+}
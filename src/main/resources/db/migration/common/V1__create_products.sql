@@ -0,0 +1,11 @@
+-- Schema previously generated by Hibernate (ddl-auto=update). Existing databases are baselined at this version.
+create sequence product_seq start with 1 increment by 50;
+
+create table products (
+    id bigint not null,
+    created_at timestamp(6),
+    description varchar(255),
+    name varchar(255),
+    price numeric(38,2),
+    primary key (id)
+);
@@ -0,0 +1,2 @@
+-- Optimistic locking: every update increments the version, which is exposed as the product's ETag
+alter table products add column version bigint default 0 not null;
@@ -0,0 +1,12 @@
+-- Change feed: one row per committed product write. seq is assigned by the application in commit order,
+-- so it is not backed by a database sequence.
+create table product_changes (
+    seq bigint not null,
+    type varchar(16) not null,
+    product_id bigint not null,
+    version bigint,
+    changed_at timestamp(6) not null,
+    primary key (seq)
+);
+
+create index idx_product_changes_changed_at on product_changes (changed_at);
@@ -0,0 +1,29 @@
+-- Change feed outbox: one row per product write, inserted in the write's own transaction on the product's
+-- database. The feed's relay moves committed rows into product_changes and deletes them. Ids come one at a time,
+-- after the write took its row lock, so later writes of a product always draw higher ids.
+create sequence product_change_outbox_seq start with 1 increment by 1;
+
+create table product_change_outbox (
+    id bigint not null,
+    type varchar(16) not null,
+    product_id bigint not null,
+    version bigint,
+    created_at timestamp(6) not null,
+    primary key (id)
+);
+
+-- Last sequence handed out in product_changes. Relays lock the row, so instances assign sequences one after the
+-- other and without gaps.
+create table product_change_position (
+    id int not null,
+    last_seq bigint not null,
+    primary key (id)
+);
+
+insert into product_change_position (id, last_seq) select 1, coalesce(max(seq), 0) from product_changes;
+
+-- Outbox row a change was relayed from, so a relay that failed before deleting it does not append it twice
+alter table product_changes add column source_shard int;
+alter table product_changes add column outbox_id bigint;
+
+create unique index uq_product_changes_outbox on product_changes (source_shard, outbox_id);
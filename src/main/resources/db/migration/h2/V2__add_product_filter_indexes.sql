@@ -0,0 +1,4 @@
+-- B-tree indexes for the listing filters (minPrice/maxPrice, createdFrom/createdTo).
+-- H2 has no expression indexes, so namePrefix filters (lower(name) like 'x%') scan on H2.
+create index idx_products_price on products (price);
+create index idx_products_created_at on products (created_at);
@@ -0,0 +1,8 @@
+-- H2 counterpart of the PostgreSQL script: RESTART WITH sets the next value returned, so the pooled block
+-- handed out next (the 50 values up to it) starts right above the largest id. The shard number sits above
+-- bit 40 of an id, so only the low 40 bits count; a sequence already ahead is kept.
+alter sequence product_seq restart with (
+    select greatest(
+        coalesce(max(mod(id, 1099511627776)), 0) + 50,
+        (select base_value from information_schema.sequences where sequence_name = 'PRODUCT_SEQ'))
+    from products);
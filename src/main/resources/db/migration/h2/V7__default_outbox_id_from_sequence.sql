@@ -0,0 +1,3 @@
+-- Outbox ids are drawn by the INSERT itself instead of a separate sequence query per write. The value is still
+-- taken after the write's row lock, so later writes of a product keep drawing higher ids.
+alter table product_change_outbox alter column id set default next value for product_change_outbox_seq;
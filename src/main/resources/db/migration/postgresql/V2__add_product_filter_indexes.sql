@@ -0,0 +1,8 @@
+-- B-tree indexes for the listing filters. Built concurrently so existing tables stay writable;
+-- see the .conf file next to this script.
+create index concurrently if not exists idx_products_price on products (price);
+create index concurrently if not exists idx_products_created_at on products (created_at);
+
+-- namePrefix filters compare lower(name) with a 'prefix%' pattern; text_pattern_ops makes the
+-- expression index usable for LIKE whatever the database collation
+create index concurrently if not exists idx_products_name_lower on products (lower(name) text_pattern_ops);
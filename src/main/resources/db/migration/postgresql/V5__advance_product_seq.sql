@@ -0,0 +1,6 @@
+-- Databases baselined at V1 kept the product_seq their ddl-auto=update schema had, which may be behind the
+-- existing ids. Move it past the largest id so the next pooled block (increment 50) starts above it. The
+-- shard number sits above bit 40 of an id, so only the low 40 bits count; a sequence already ahead is kept.
+select setval('product_seq', greatest(
+        (select last_value from product_seq),
+        coalesce((select max(mod(id, 1099511627776)) from products), 0)));
@@ -0,0 +1,68 @@
+package com.example.productapi.controller;
+
+import com.example.productapi.dto.ProductDTO;
+import com.example.productapi.model.Product;
+import com.example.productapi.service.ReactiveProductService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+/**
+ * WebFlux counterpart of {@link ProductController}, active when the application runs as a reactive
+ * web application (the 'reactive' profile). Routes, validation and error bodies are the same; the
+ * bulk, cursor, slice, export and import endpoints are only served by the servlet stack.
+ */
+@RestController
+@RequestMapping("/products")
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@Tag(name = "Product Controller", description = "Product management APIs")
+public class ReactiveProductController {
+
+    private final ReactiveProductService productService;
+
+    @PostMapping
+    @Operation(summary = "Create a new product")
+    public Mono<ResponseEntity<Product>> createProduct(@Valid @RequestBody ProductDTO productDTO) {
+        return productService.createProduct(productDTO)
+                .map(product -> new ResponseEntity<>(product, HttpStatus.CREATED));
+    }
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Get a product by ID")
+    public Mono<ResponseEntity<Product>> getProduct(
+            @Parameter(description = "ID of the product to be retrieved (must be a number)") @PathVariable Long id) {
+        return productService.getProductById(id).map(ResponseEntity::ok);
+    }
+
+    @GetMapping
+    @Operation(summary = "Get all products with pagination")
+    public Mono<ResponseEntity<Page<Product>>> getAllProducts(Pageable pageable) {
+        return productService.getAllProducts(pageable).map(ResponseEntity::ok);
+    }
+
+    @PutMapping("/{id}")
+    @Operation(summary = "Update a product")
+    public Mono<ResponseEntity<Product>> updateProduct(
+            @Parameter(description = "ID of the product to be updated (must be a number)") @PathVariable Long id,
+            @Valid @RequestBody ProductDTO productDTO) {
+        return productService.updateProduct(id, productDTO).map(ResponseEntity::ok);
+    }
+
+    @DeleteMapping("/{id}")
+    @Operation(summary = "Delete a product")
+    public Mono<ResponseEntity<Void>> deleteProduct(
+            @Parameter(description = "ID of the product to be deleted (must be a number)") @PathVariable Long id) {
+        return productService.deleteProduct(id)
+                .then(Mono.just(ResponseEntity.noContent().build()));
+    }
+}
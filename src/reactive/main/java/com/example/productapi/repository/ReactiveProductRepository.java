@@ -0,0 +1,141 @@
+package com.example.productapi.repository;
+
+import com.example.productapi.model.Product;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mapping.PropertyReferenceException;
+import org.springframework.data.util.TypeInformation;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Non-blocking access to the products table for the reactive stack. The schema (including
+ * product_seq) is owned by the Flyway migrations; the statements here are written against the
+ * same table and columns as the JPA mapping of {@link Product} so both stacks can share a database.
+ * Updates increment the version like Hibernate does, so ETags stay valid across stacks.
+ */
+@Repository
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveProductRepository {
+
+    private static final String COLUMNS = "id, name, description, price, created_at, version";
+
+    private static final Map<String, String> SORT_COLUMNS = Map.of(
+            "id", "id",
+            "name", "name",
+            "description", "description",
+            "price", "price",
+            "createdAt", "created_at");
+
+    private final DatabaseClient databaseClient;
+    private final ConnectionFactory connectionFactory;
+
+    public Mono<Product> findById(Long id) {
+        return databaseClient.sql("SELECT " + COLUMNS + " FROM products WHERE id = :id")
+                .bind("id", id)
+                .map(ReactiveProductRepository::toProduct)
+                .one();
+    }
+
+    public Flux<Product> findAll(Pageable pageable) {
+        String sql = "SELECT " + COLUMNS + " FROM products" + orderBy(pageable.getSort());
+        if (pageable.isPaged()) {
+            sql += " LIMIT " + pageable.getPageSize() + " OFFSET " + pageable.getOffset();
+        }
+        return databaseClient.sql(sql)
+                .map(ReactiveProductRepository::toProduct)
+                .all();
+    }
+
+    public Mono<Long> count() {
+        return databaseClient.sql("SELECT COUNT(*) FROM products")
+                .map(row -> row.get(0, Long.class))
+                .one();
+    }
+
+    public Mono<Product> insert(Product product) {
+        return nextId().flatMap(id -> {
+            product.setId(id);
+            product.setVersion(0L);
+            return bindColumns(databaseClient.sql("INSERT INTO products (" + COLUMNS + ") "
+                            + "VALUES (:id, :name, :description, :price, :createdAt, 0)"), product)
+                    .bind("createdAt", product.getCreatedAt())
+                    .fetch()
+                    .rowsUpdated()
+                    .thenReturn(product);
+        });
+    }
+
+    public Mono<Long> update(Product product) {
+        return bindColumns(databaseClient.sql("UPDATE products "
+                        + "SET name = :name, description = :description, price = :price, version = version + 1 WHERE id = :id"), product)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    public Mono<Long> deleteById(Long id) {
+        return databaseClient.sql("DELETE FROM products WHERE id = :id")
+                .bind("id", id)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    private Mono<Long> nextId() {
+        // Each call consumes a whole pooled block (allocationSize 50) of which only the value itself
+        // is used, so the ids never collide with the blocks Hibernate hands out from the same sequence
+        String sql = "PostgreSQL".equals(connectionFactory.getMetadata().getName())
+                ? "SELECT nextval('product_seq')"
+                : "SELECT NEXT VALUE FOR product_seq";
+        return databaseClient.sql(sql)
+                .map(row -> row.get(0, Long.class))
+                .one();
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bindColumns(DatabaseClient.GenericExecuteSpec spec, Product product) {
+        spec = spec.bind("id", product.getId())
+                .bind("name", product.getName())
+                .bind("price", product.getPrice());
+        return product.getDescription() != null
+                ? spec.bind("description", product.getDescription())
+                : spec.bindNull("description", String.class);
+    }
+
+    private static String orderBy(Sort sort) {
+        if (sort.isUnsorted()) {
+            return "";
+        }
+        List<String> orders = sort.stream()
+                .map(order -> {
+                    String column = SORT_COLUMNS.get(order.getProperty());
+                    if (column == null) {
+                        throw new PropertyReferenceException(order.getProperty(), TypeInformation.of(Product.class), List.of());
+                    }
+                    return column + " " + order.getDirection().name();
+                })
+                .collect(Collectors.toList());
+        return " ORDER BY " + String.join(", ", orders);
+    }
+
+    private static Product toProduct(Readable row) {
+        return new Product(
+                row.get("id", Long.class),
+                row.get("name", String.class),
+                row.get("description", String.class),
+                row.get("price", BigDecimal.class),
+                row.get("created_at", LocalDateTime.class),
+                row.get("version", Long.class));
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.productapi.service;
+
+import com.example.productapi.dto.ProductDTO;
+import com.example.productapi.model.Product;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveProductService {
+    Mono<Product> createProduct(ProductDTO productDTO);
+    Mono<Product> getProductById(Long id);
+    Mono<Page<Product>> getAllProducts(Pageable pageable);
+    Mono<Product> updateProduct(Long id, ProductDTO productDTO);
+    Mono<Void> deleteProduct(Long id);
+}
@@ -0,0 +1,63 @@
+package com.example.productapi.service.impl;
+
+import com.example.productapi.dto.ProductDTO;
+import com.example.productapi.model.Product;
+import com.example.productapi.repository.ReactiveProductRepository;
+import com.example.productapi.service.ReactiveProductService;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+@Service
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveProductServiceImpl implements ReactiveProductService {
+
+    private final ReactiveProductRepository reactiveProductRepository;
+
+    @Override
+    public Mono<Product> createProduct(ProductDTO productDTO) {
+        Product product = ProductMapper.toEntity(productDTO);
+        product.setCreatedAt(LocalDateTime.now());
+        return reactiveProductRepository.insert(product);
+    }
+
+    @Override
+    public Mono<Product> getProductById(Long id) {
+        return reactiveProductRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> notFound(id)));
+    }
+
+    @Override
+    public Mono<Page<Product>> getAllProducts(Pageable pageable) {
+        return Mono.zip(reactiveProductRepository.findAll(pageable).collectList(), reactiveProductRepository.count())
+                .map(result -> new PageImpl<>(result.getT1(), pageable, result.getT2()));
+    }
+
+    @Override
+    public Mono<Product> updateProduct(Long id, ProductDTO productDTO) {
+        return getProductById(id).flatMap(product -> {
+            ProductMapper.copyInto(productDTO, product);
+            return reactiveProductRepository.update(product)
+                    .doOnSuccess(rows -> product.setVersion(product.getVersion() + 1))
+                    .thenReturn(product);
+        });
+    }
+
+    @Override
+    public Mono<Void> deleteProduct(Long id) {
+        return reactiveProductRepository.deleteById(id)
+                .flatMap(deleted -> deleted == 0 ? Mono.error(notFound(id)) : Mono.empty());
+    }
+
+    private static EntityNotFoundException notFound(Long id) {
+        return new EntityNotFoundException("Product not found with id: " + id);
+    }
+}
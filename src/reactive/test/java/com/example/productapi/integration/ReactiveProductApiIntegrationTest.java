@@ -0,0 +1,188 @@
+package com.example.productapi.integration;
+
+import com.example.productapi.dto.ProductDTO;
+import com.example.productapi.model.Product;
+import com.example.productapi.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("reactive")
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:reactivedb;DB_CLOSE_DELAY=-1",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.hibernate.ddl-auto=validate",
+    "spring.r2dbc.url=r2dbc:h2:mem:///reactivedb;DB_CLOSE_DELAY=-1",
+    "spring.r2dbc.username=sa",
+    "spring.r2dbc.password="
+})
+class ReactiveProductApiIntegrationTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private Product testProduct;
+
+    @BeforeEach
+    void setUp() {
+        testProduct = new Product();
+        testProduct.setName("Reactive Test Product");
+        testProduct.setDescription("Reactive Test Description");
+        testProduct.setPrice(new BigDecimal("99.99"));
+        testProduct = productRepository.save(testProduct);
+    }
+
+    @AfterEach
+    void tearDown() {
+        productRepository.deleteAll();
+    }
+
+    @Test
+    void createProduct_ShouldCreateAndReturnProduct() {
+        // Arrange
+        ProductDTO productDTO = new ProductDTO("New Reactive Product", "New Description", new BigDecimal("149.99"));
+
+        // Act & Assert
+        Product created = webTestClient.post().uri("/products")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(productDTO)
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(Product.class)
+                .returnResult().getResponseBody();
+
+        assertEquals("New Reactive Product", created.getName());
+        assertTrue(productRepository.findById(created.getId()).isPresent());
+        assertEquals(2, productRepository.count());
+    }
+
+    @Test
+    void createProduct_WithInvalidData_ShouldReturnSameErrorShapeAsServletStack() {
+        // Arrange
+        ProductDTO productDTO = new ProductDTO("", null, null);
+
+        // Act & Assert
+        webTestClient.post().uri("/products")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(productDTO)
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.name").exists()
+                .jsonPath("$.price").isEqualTo("Price is required");
+    }
+
+    @Test
+    void getProduct_ShouldReturnProductWrittenThroughJpa() {
+        // Act & Assert
+        webTestClient.get().uri("/products/{id}", testProduct.getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.id").isEqualTo(testProduct.getId().intValue())
+                .jsonPath("$.name").isEqualTo("Reactive Test Product")
+                .jsonPath("$.price").isEqualTo(99.99)
+                .jsonPath("$.createdAt").exists();
+    }
+
+    @Test
+    void getProduct_WithNonExistingId_ShouldReturnNotFound() {
+        // Act & Assert
+        webTestClient.get().uri("/products/{id}", 999999)
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("Product not found with id: 999999");
+    }
+
+    @Test
+    void getProduct_WithInvalidId_ShouldReturnBadRequest() {
+        // Act & Assert
+        webTestClient.get().uri("/products/abc")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("Invalid parameter 'id': 'abc' is not a valid Long");
+    }
+
+    @Test
+    void getAllProducts_ShouldReturnSortedPage() {
+        // Arrange
+        Product cheaper = new Product();
+        cheaper.setName("Cheaper Product");
+        cheaper.setPrice(new BigDecimal("9.99"));
+        productRepository.save(cheaper);
+
+        // Act & Assert
+        webTestClient.get().uri("/products?size=1&sort=price,asc")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.content.length()").isEqualTo(1)
+                .jsonPath("$.content[0].name").isEqualTo("Cheaper Product")
+                .jsonPath("$.totalElements").isEqualTo(2)
+                .jsonPath("$.totalPages").isEqualTo(2);
+    }
+
+    @Test
+    void getAllProducts_WithInvalidSort_ShouldReturnBadRequest() {
+        // Act & Assert
+        webTestClient.get().uri("/products?sort=unknown")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("Invalid sort parameter: unknown");
+    }
+
+    @Test
+    void updateProduct_ShouldUpdateAndReturnProduct() {
+        // Arrange
+        ProductDTO productDTO = new ProductDTO("Updated Reactive Product", null, new BigDecimal("199.99"));
+
+        // Act & Assert
+        webTestClient.put().uri("/products/{id}", testProduct.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(productDTO)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.name").isEqualTo("Updated Reactive Product")
+                .jsonPath("$.description").doesNotExist();
+
+        Product updated = productRepository.findById(testProduct.getId()).orElseThrow();
+        assertEquals(0, new BigDecimal("199.99").compareTo(updated.getPrice()));
+    }
+
+    @Test
+    void deleteProduct_ShouldDeleteProduct() {
+        // Act & Assert
+        webTestClient.delete().uri("/products/{id}", testProduct.getId())
+                .exchange()
+                .expectStatus().isNoContent();
+
+        assertFalse(productRepository.existsById(testProduct.getId()));
+
+        webTestClient.delete().uri("/products/{id}", testProduct.getId())
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+}
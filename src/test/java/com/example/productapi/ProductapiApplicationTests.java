@@ -11,7 +11,7 @@ import org.springframework.test.context.TestPropertySource;
     "spring.datasource.password=",
     "spring.datasource.driver-class-name=org.h2.Driver",
     "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
-    "spring.jpa.hibernate.ddl-auto=create-drop"
+    "spring.jpa.hibernate.ddl-auto=validate"
 })
 class ProductapiApplicationTests {
 
@@ -0,0 +1,145 @@
+package com.example.productapi.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimitTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long SLOW = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void acquire_OverTheLimitWithoutQueue_ShouldReject() throws InterruptedException {
+        // Arrange
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 1, 10, Duration.ofMillis(100), 0, Duration.ZERO);
+        AtomicInteger queued = new AtomicInteger();
+
+        // Act & Assert
+        assertTrue(limit.acquire(queued::incrementAndGet));
+        assertTrue(limit.acquire(queued::incrementAndGet));
+        assertFalse(limit.acquire(queued::incrementAndGet));
+        assertEquals(0, queued.get());
+        assertEquals(2, limit.inFlight());
+    }
+
+    @Test
+    void acquire_OverTheLimit_ShouldWaitInQueueForARelease() throws Exception {
+        // Arrange
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(1, 1, 10, Duration.ofMillis(100), 1, Duration.ofSeconds(5));
+        CountDownLatch waiting = new CountDownLatch(1);
+        assertTrue(limit.acquire(() -> { }));
+
+        // Act
+        CompletableFuture<Boolean> queuedRequest = CompletableFuture.supplyAsync(() -> {
+            try {
+                return limit.acquire(waiting::countDown);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertTrue(waiting.await(5, TimeUnit.SECONDS));
+        // The queue holds one request, so a third one is turned away at once
+        assertFalse(limit.acquire(() -> fail("queue is full")));
+        limit.release(FAST, false);
+
+        // Assert
+        assertTrue(queuedRequest.get(5, TimeUnit.SECONDS));
+        assertEquals(1, limit.inFlight());
+    }
+
+    @Test
+    void release_ShouldIncreaseAdditivelyAndDecreaseMultiplicatively() throws InterruptedException {
+        // Arrange
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(4, 2, 10, Duration.ofMillis(100), 0, Duration.ZERO);
+
+        // Act - Fast rounds at full concurrency add a little under one each
+        for (int round = 0; round < 4; round++) {
+            int admitted = limit.limit();
+            for (int i = 0; i < admitted; i++) {
+                assertTrue(limit.acquire(() -> { }));
+            }
+            for (int i = 0; i < admitted; i++) {
+                limit.release(FAST, false);
+            }
+        }
+        int grown = limit.limit();
+
+        // Act - A slow completion backs off
+        assertTrue(limit.acquire(() -> { }));
+        limit.release(SLOW, false);
+
+        // Assert
+        assertTrue(grown > 4, "limit grew to " + grown);
+        assertTrue(limit.limit() < grown, "limit backed off to " + limit.limit());
+    }
+
+    @Test
+    void release_WithoutLoad_ShouldNotGrowTheLimit() throws InterruptedException {
+        // Arrange
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 2, 100, Duration.ofMillis(100), 0, Duration.ZERO);
+
+        // Act - One request at a time never uses the limit
+        for (int i = 0; i < 100; i++) {
+            assertTrue(limit.acquire(() -> { }));
+            limit.release(FAST, false);
+        }
+
+        // Assert
+        assertEquals(10, limit.limit());
+    }
+
+    @Test
+    void release_ShouldAlwaysLowerTheWholeLimitOnBackoff() throws InterruptedException {
+        // Arrange - 10% of a small limit is less than one request
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(5, 2, 10, Duration.ZERO, 0, Duration.ZERO);
+
+        // Act & Assert
+        for (int expected = 4; expected >= 2; expected--) {
+            assertTrue(limit.acquire(() -> { }));
+            limit.release(SLOW, false);
+            assertEquals(expected, limit.limit());
+        }
+        assertTrue(limit.acquire(() -> { }));
+        limit.release(SLOW, true);
+        assertEquals(2, limit.limit());
+    }
+
+    @Test
+    void releaseUnsampled_ShouldFreeTheSlotWithoutAdjustingTheLimit() throws InterruptedException {
+        // Arrange
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 1, 10, Duration.ofMillis(100), 0, Duration.ZERO);
+        assertTrue(limit.acquire(() -> { }));
+        assertTrue(limit.acquire(() -> { }));
+
+        // Act
+        limit.releaseUnsampled();
+        limit.releaseUnsampled();
+
+        // Assert
+        assertEquals(0, limit.inFlight());
+        assertEquals(2, limit.limit());
+    }
+
+    @Test
+    void tokenBucket_ShouldAllowTheBurstThenTheRate() {
+        // Arrange - 2 tokens per second, bursts of 3
+        long now = 0;
+        TokenBucket bucket = new TokenBucket(2, 3, now);
+
+        // Act & Assert
+        assertEquals(0, bucket.tryConsume(now));
+        assertEquals(0, bucket.tryConsume(now));
+        assertEquals(0, bucket.tryConsume(now));
+        long wait = bucket.tryConsume(now);
+        assertTrue(Math.abs(wait - TimeUnit.MILLISECONDS.toNanos(500)) <= 1, "wait " + wait);
+        assertEquals(0, bucket.tryConsume(now + TimeUnit.MILLISECONDS.toNanos(501)));
+        assertTrue(bucket.tryConsume(now + TimeUnit.MILLISECONDS.toNanos(600)) > 0);
+    }
+}
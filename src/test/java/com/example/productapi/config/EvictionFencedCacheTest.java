@@ -0,0 +1,99 @@
+package com.example.productapi.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EvictionFencedCacheTest {
+
+    private final EvictionFencedCache cache = new EvictionFencedCache("products", Caffeine.newBuilder().build(), false);
+
+    @Test
+    void put_AfterAnEvictThatFollowedTheMiss_ShouldBeDropped() {
+        // Arrange - A read misses and loads the old row
+        assertNull(cache.get(1L));
+
+        // Act - The write commits and evicts before the read puts what it loaded
+        cache.evict(1L);
+        cache.put(1L, "old");
+
+        // Assert
+        assertNull(cache.get(1L));
+    }
+
+    @Test
+    void put_AfterAMissThatFollowedTheEvict_ShouldLand() {
+        // Arrange
+        cache.evict(1L);
+
+        // Act
+        assertNull(cache.get(1L));
+        cache.put(1L, "new");
+
+        // Assert
+        assertEquals("new", cache.get(1L).get());
+    }
+
+    @Test
+    void put_WithoutAMiss_ShouldOnlyLandForKeysNeverEvicted() {
+        // Arrange
+        cache.evict(1L);
+
+        // Act
+        cache.put(1L, "unknown");
+        cache.put(2L, "fresh");
+
+        // Assert
+        assertNull(cache.get(1L));
+        assertEquals("fresh", cache.get(2L).get());
+    }
+
+    @Test
+    void put_FromAReadThatMissedBeforeTheTransactionCommitted_ShouldBeDropped() throws Exception {
+        // Arrange - The write's evict is deferred until its transaction commits, as in CacheConfig
+        Cache decorated = new TransactionAwareCacheDecorator(cache);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            decorated.evict(1L);
+
+            // Act - Another thread misses and loads the old row before the commit, then puts it after
+            CompletableFuture<Void> readerMissed = new CompletableFuture<>();
+            CompletableFuture<Void> committed = new CompletableFuture<>();
+            CompletableFuture<Void> reader = CompletableFuture.runAsync(() -> {
+                assertNull(decorated.get(1L));
+                readerMissed.complete(null);
+                committed.join();
+                decorated.put(1L, "old");
+            });
+            readerMissed.get();
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            committed.complete(null);
+            reader.get();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // Assert
+        assertNull(cache.get(1L));
+    }
+
+    @Test
+    void put_AfterClear_ShouldBeDroppedForMissesBeforeIt() {
+        // Arrange
+        assertNull(cache.get(1L));
+
+        // Act
+        cache.clear();
+        cache.put(1L, "old");
+
+        // Assert
+        assertNull(cache.get(1L));
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.productapi.config;
+
+import com.example.productapi.dto.ProductDTO;
+import com.example.productapi.dto.ProductView;
+import com.example.productapi.model.Product;
+import com.example.productapi.model.ProductIdGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProductApiRuntimeHintsTest {
+
+    private final RuntimeHints hints = new RuntimeHints();
+
+    @BeforeEach
+    void setUp() {
+        new ProductApiRuntimeHints().registerHints(hints, getClass().getClassLoader());
+    }
+
+    @Test
+    void registerHints_ShouldAllowBindingLombokAndRecordTypes() {
+        // Act & Assert
+        assertTrue(RuntimeHintsPredicates.reflection().onMethod(ProductDTO.class, "setPrice").invoke().test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onMethod(Product.class, "getName").invoke().test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onMethod(ProductView.class, "price").invoke().test(hints));
+    }
+
+    @Test
+    void registerHints_ShouldAllowInstantiatingTypesNamedInAnnotations() {
+        // Act & Assert
+        assertTrue(RuntimeHintsPredicates.reflection().onType(BigDecimalDeserializer.class)
+                .withMemberCategory(MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(ProductIdGenerator.class)
+                .withMemberCategory(MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS).test(hints));
+    }
+
+    @Test
+    void registerHints_ShouldIncludeTheMigrationsOfEveryDatabase() {
+        // Act & Assert
+        assertTrue(RuntimeHintsPredicates.resource()
+                .forResource("db/migration/common/V1__create_products.sql").test(hints));
+        assertTrue(RuntimeHintsPredicates.resource()
+                .forResource("db/migration/h2/V2__add_product_filter_indexes.sql").test(hints));
+        assertTrue(RuntimeHintsPredicates.resource()
+                .forResource("db/migration/postgresql/V2__add_product_filter_indexes.sql").test(hints));
+    }
+}
@@ -1,7 +1,20 @@
 package com.example.productapi.controller;
 
+import com.example.productapi.dto.BatchCreateResponse;
+import com.example.productapi.dto.BatchItemResult;
+import com.example.productapi.dto.CursorPage;
 import com.example.productapi.dto.ProductDTO;
+import com.example.productapi.dto.ProductFilter;
+import com.example.productapi.dto.ProductPatchDTO;
+import com.example.productapi.dto.ProductView;
+import com.example.productapi.dto.SlicePage;
+import com.example.productapi.exception.ChangesExpiredException;
+import com.example.productapi.exception.InvalidCursorException;
+import com.example.productapi.exception.PreconditionFailedException;
 import com.example.productapi.model.Product;
+import com.example.productapi.model.ProductChange;
+import com.example.productapi.service.ProductChangeFeed;
+import com.example.productapi.service.ProductChangedEvent;
 import com.example.productapi.service.ProductService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.persistence.EntityNotFoundException;
@@ -10,25 +23,44 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.test.context.aot.DisabledInAotMode;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.ByteArrayInputStream;
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.Arrays;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
 
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(ProductController.class)
+@Import({ProductResponseCache.class, ProductChangeStreams.class})
+// @MockBean cannot be processed ahead of time, so this slice is left out of the native test run
+@DisabledInAotMode
 class ProductControllerTest {
 
     @Autowired
@@ -40,6 +72,9 @@ class ProductControllerTest {
     @MockBean
     private ProductService productService;
 
+    @MockBean
+    private ProductChangeFeed productChangeFeed;
+
     private Product product;
     private ProductDTO productDTO;
 
@@ -52,6 +87,7 @@ class ProductControllerTest {
         product.setDescription("Test Description");
         product.setPrice(new BigDecimal("99.99"));
         product.setCreatedAt(LocalDateTime.now());
+        product.setVersion(0L);
 
         productDTO = new ProductDTO();
         productDTO.setName("Test Product");
@@ -69,6 +105,7 @@ class ProductControllerTest {
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(productDTO)))
                 .andExpect(status().isCreated())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0\""))
                 .andExpect(jsonPath("$.id", is(1)))
                 .andExpect(jsonPath("$.name", is("Test Product")))
                 .andExpect(jsonPath("$.description", is("Test Description")))
@@ -96,11 +133,12 @@ class ProductControllerTest {
     @Test
     void getProduct_WithExistingId_ShouldReturnProduct() throws Exception {
         // Arrange
-        when(productService.getProductById(1L)).thenReturn(product);
+        when(productService.getProductById(1L)).thenReturn(view(product));
 
         // Act & Assert
         mockMvc.perform(get("/products/1"))
                 .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0\""))
                 .andExpect(jsonPath("$.id", is(1)))
                 .andExpect(jsonPath("$.name", is("Test Product")))
                 .andExpect(jsonPath("$.description", is("Test Description")))
@@ -109,6 +147,98 @@ class ProductControllerTest {
         verify(productService, times(1)).getProductById(1L);
     }
 
+    @Test
+    void getProduct_WithMatchingIfNoneMatch_ShouldReturnNotModifiedWithoutBody() throws Exception {
+        // Arrange
+        when(productService.getProductById(1L)).thenReturn(view(product));
+
+        // Act & Assert
+        mockMvc.perform(get("/products/1").header(HttpHeaders.IF_NONE_MATCH, "\"0\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0\""))
+                .andExpect(content().string(""));
+        mockMvc.perform(get("/products/1").header(HttpHeaders.IF_NONE_MATCH, "\"7\", \"0\""))
+                .andExpect(status().isNotModified());
+
+        // Act & Assert - A stale tag gets the full product
+        mockMvc.perform(get("/products/1").header(HttpHeaders.IF_NONE_MATCH, "\"7\""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id", is(1)));
+    }
+
+    @Test
+    void getProduct_AcceptingGzip_ShouldReturnCompressedJson() throws Exception {
+        // Arrange
+        when(productService.getProductById(1L)).thenReturn(view(product));
+
+        // Act
+        byte[] compressed = mockMvc.perform(get("/products/1").header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        // Assert
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            assertEquals("Test Product", objectMapper.readTree(in.readAllBytes()).get("name").asText());
+        }
+    }
+
+    @Test
+    void getProduct_AcceptingGzip_ShouldTagTheCompressedBodySeparately() throws Exception {
+        // Arrange
+        when(productService.getProductById(1L)).thenReturn(view(product));
+
+        // Act & Assert - The identity tag does not validate the gzip body, nor the other way round
+        mockMvc.perform(get("/products/1").header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0-gzip\""));
+        mockMvc.perform(get("/products/1").header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"0\""))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/products/1").header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"0-gzip\""))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/products/1").header(HttpHeaders.IF_NONE_MATCH, "\"0-gzip\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0\""));
+    }
+
+    @Test
+    void getProduct_WithGzipRefused_ShouldReturnPlainJson() throws Exception {
+        // Arrange
+        when(productService.getProductById(1L)).thenReturn(view(product));
+
+        // Act & Assert
+        mockMvc.perform(get("/products/1").header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0, identity"))
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(jsonPath("$.id", is(1)));
+        mockMvc.perform(get("/products/1").header(HttpHeaders.ACCEPT_ENCODING, "*;q=0.5, gzip;q=0.0"))
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING));
+        mockMvc.perform(get("/products/1").header(HttpHeaders.ACCEPT_ENCODING, "br, *;q=0.1"))
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"));
+    }
+
+    @Test
+    void getProduct_PreferringBinaryFormat_ShouldTagTheFormat() throws Exception {
+        // Arrange
+        when(productService.getProductById(1L)).thenReturn(view(product));
+
+        // Act & Assert
+        mockMvc.perform(get("/products/1").accept(MediaType.APPLICATION_CBOR, MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0-cbor\""))
+                .andExpect(header().string(HttpHeaders.VARY, containsString(HttpHeaders.ACCEPT)));
+        mockMvc.perform(get("/products/1").accept("application/x-jackson-smile"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0-smile\""));
+        mockMvc.perform(get("/products/1").accept(MediaType.APPLICATION_CBOR).header(HttpHeaders.IF_NONE_MATCH, "\"0\""))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/products/1").header(HttpHeaders.ACCEPT, "application/cbor;q=0.5, application/json"))
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.id", is(1)));
+    }
+
     @Test
     void getProduct_WithNonExistingId_ShouldReturnNotFound() throws Exception {
         // Arrange
@@ -125,8 +255,7 @@ class ProductControllerTest {
     @Test
     void getAllProducts_ShouldReturnPageOfProducts() throws Exception {
         // Arrange
-        List<Product> products = Arrays.asList(product);
-        Page<Product> productPage = new PageImpl<>(products);
+        Page<ProductView> productPage = new PageImpl<>(List.of(view(product)));
         when(productService.getAllProducts(any(Pageable.class))).thenReturn(productPage);
 
         // Act & Assert
@@ -140,6 +269,54 @@ class ProductControllerTest {
         verify(productService, times(1)).getAllProducts(any(Pageable.class));
     }
 
+    @Test
+    void getAllProducts_WithMatchingIfNoneMatch_ShouldReturnNotModifiedUntilPageChanges() throws Exception {
+        // Arrange
+        when(productService.getAllProducts(any(Pageable.class))).thenReturn(new PageImpl<>(List.of(view(product))));
+        String etag = mockMvc.perform(get("/products"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, matchesPattern("\"[0-9a-f]{32}\"")))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // Act & Assert
+        mockMvc.perform(get("/products").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""));
+
+        // Act & Assert - A new version of a row on the page changes the ETag
+        product.setVersion(1L);
+        when(productService.getAllProducts(any(Pageable.class))).thenReturn(new PageImpl<>(List.of(view(product))));
+        mockMvc.perform(get("/products").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(etag)))
+                .andExpect(jsonPath("$.content[0].version", is(1)));
+    }
+
+    @Test
+    void getAllProducts_WithFilters_ShouldBindThemAndUseFilteredQuery() throws Exception {
+        // Arrange
+        when(productService.getAllProducts(any(ProductFilter.class), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(view(product))));
+
+        // Act & Assert
+        mockMvc.perform(get("/products")
+                        .param("minPrice", "10")
+                        .param("maxPrice", "50")
+                        .param("createdFrom", "2024-01-01T00:00:00")
+                        .param("namePrefix", "tes"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)));
+
+        verify(productService).getAllProducts(argThat((ProductFilter filter) ->
+                new BigDecimal("10").equals(filter.getMinPrice())
+                        && new BigDecimal("50").equals(filter.getMaxPrice())
+                        && LocalDateTime.of(2024, 1, 1, 0, 0).equals(filter.getCreatedFrom())
+                        && filter.getCreatedTo() == null
+                        && "tes".equals(filter.getNamePrefix())), any(Pageable.class));
+        verify(productService, never()).getAllProducts(any(Pageable.class));
+    }
+
     @Test
     void updateProduct_WithExistingIdAndValidInput_ShouldReturnUpdatedProduct() throws Exception {
         // Arrange
@@ -149,31 +326,33 @@ class ProductControllerTest {
         updatedProduct.setDescription("Updated Description");
         updatedProduct.setPrice(new BigDecimal("199.99"));
         updatedProduct.setCreatedAt(LocalDateTime.now());
+        updatedProduct.setVersion(1L);
 
         ProductDTO updateDTO = new ProductDTO();
         updateDTO.setName("Updated Product");
         updateDTO.setDescription("Updated Description");
         updateDTO.setPrice(new BigDecimal("199.99"));
 
-        when(productService.updateProduct(eq(1L), any(ProductDTO.class))).thenReturn(updatedProduct);
+        when(productService.updateProduct(eq(1L), any(ProductDTO.class), isNull())).thenReturn(updatedProduct);
 
         // Act & Assert
         mockMvc.perform(put("/products/1")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(updateDTO)))
                 .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
                 .andExpect(jsonPath("$.id", is(1)))
                 .andExpect(jsonPath("$.name", is("Updated Product")))
                 .andExpect(jsonPath("$.description", is("Updated Description")))
                 .andExpect(jsonPath("$.price", is(199.99)));
 
-        verify(productService, times(1)).updateProduct(eq(1L), any(ProductDTO.class));
+        verify(productService, times(1)).updateProduct(eq(1L), any(ProductDTO.class), isNull());
     }
 
     @Test
     void updateProduct_WithNonExistingId_ShouldReturnNotFound() throws Exception {
         // Arrange
-        when(productService.updateProduct(eq(99L), any(ProductDTO.class)))
+        when(productService.updateProduct(eq(99L), any(ProductDTO.class), isNull()))
                 .thenThrow(new EntityNotFoundException("Product not found with id: 99"));
 
         // Act & Assert
@@ -183,32 +362,358 @@ class ProductControllerTest {
                 .andExpect(status().isNotFound())
                 .andExpect(jsonPath("$.message", containsString("Product not found with id: 99")));
 
-        verify(productService, times(1)).updateProduct(eq(99L), any(ProductDTO.class));
+        verify(productService, times(1)).updateProduct(eq(99L), any(ProductDTO.class), isNull());
+    }
+
+    @Test
+    void updateProduct_WithIfMatch_ShouldPassRequiredVersion() throws Exception {
+        // Arrange
+        when(productService.updateProduct(eq(1L), any(ProductDTO.class), eq(3L))).thenReturn(product);
+
+        // Act & Assert
+        mockMvc.perform(put("/products/1")
+                .header(HttpHeaders.IF_MATCH, "\"3\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(productDTO)))
+                .andExpect(status().isOk());
+
+        verify(productService, times(1)).updateProduct(eq(1L), any(ProductDTO.class), eq(3L));
+    }
+
+    @Test
+    void updateProduct_WithStaleOrMalformedIfMatch_ShouldReturnPreconditionFailed() throws Exception {
+        // Arrange
+        when(productService.updateProduct(eq(1L), any(ProductDTO.class), eq(2L)))
+                .thenThrow(new PreconditionFailedException("Product 1 has been modified, its ETag no longer matches If-Match"));
+
+        // Act & Assert - Stale version
+        mockMvc.perform(put("/products/1")
+                .header(HttpHeaders.IF_MATCH, "\"2\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(productDTO)))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.message", containsString("has been modified")));
+
+        // Act & Assert - Weak ETags never match strongly
+        mockMvc.perform(put("/products/1")
+                .header(HttpHeaders.IF_MATCH, "W/\"2\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(productDTO)))
+                .andExpect(status().isPreconditionFailed());
+
+        verify(productService, times(1)).updateProduct(any(), any(ProductDTO.class), any());
+    }
+
+    @Test
+    void updateProduct_WithConcurrentCommit_ShouldReturnPreconditionFailedOrConflict() throws Exception {
+        // Arrange
+        when(productService.updateProduct(eq(1L), any(ProductDTO.class), any()))
+                .thenThrow(new OptimisticLockingFailureException("Row was updated by another transaction"));
+
+        // Act & Assert - A conditional request asked for the overwritten version
+        mockMvc.perform(put("/products/1")
+                .header(HttpHeaders.IF_MATCH, "\"0\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(productDTO)))
+                .andExpect(status().isPreconditionFailed());
+
+        // Act & Assert - An unconditional one just lost the race
+        mockMvc.perform(put("/products/1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(productDTO)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.message", containsString("modified concurrently")));
+    }
+
+    @Test
+    void patchProduct_WithValidInput_ShouldReturnNoContent() throws Exception {
+        // Act & Assert
+        mockMvc.perform(patch("/products/1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"price\": 49.99}"))
+                .andExpect(status().isNoContent());
+
+        verify(productService, times(1)).patchProduct(1L, new ProductPatchDTO(null, null, new BigDecimal("49.99")), null);
+    }
+
+    @Test
+    void patchProduct_WithNullDescription_ShouldPassTheRemoval() throws Exception {
+        // Arrange
+        ProductPatchDTO expected = new ProductPatchDTO();
+        expected.setDescription(null);
+
+        // Act & Assert
+        mockMvc.perform(patch("/products/1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"description\": null}"))
+                .andExpect(status().isNoContent());
+
+        verify(productService, times(1)).patchProduct(1L, expected, null);
+    }
+
+    @Test
+    void patchProduct_WithInvalidOrEmptyInput_ShouldReturnBadRequest() throws Exception {
+        // Act & Assert - Supplied fields are validated
+        mockMvc.perform(patch("/products/1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\": \"ab\", \"price\": 0}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.name", is("Name must be at least 3 characters")))
+                .andExpect(jsonPath("$.price", is("Price must be greater than 0")));
+
+        // Act & Assert - A patch must change something
+        mockMvc.perform(patch("/products/1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message", containsString("at least one")));
+
+        verify(productService, never()).patchProduct(any(), any(ProductPatchDTO.class), any());
+    }
+
+    @Test
+    void patchProduct_WithNonExistingId_ShouldReturnNotFound() throws Exception {
+        // Arrange
+        doThrow(new EntityNotFoundException("Product not found with id: 99"))
+                .when(productService).patchProduct(eq(99L), any(ProductPatchDTO.class), isNull());
+
+        // Act & Assert
+        mockMvc.perform(patch("/products/99")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"description\": \"New\"}"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.message", containsString("Product not found with id: 99")));
     }
 
     @Test
     void deleteProduct_WithExistingId_ShouldReturnNoContent() throws Exception {
         // Arrange
-        doNothing().when(productService).deleteProduct(1L);
+        doNothing().when(productService).deleteProduct(1L, null);
 
         // Act & Assert
         mockMvc.perform(delete("/products/1"))
                 .andExpect(status().isNoContent());
 
-        verify(productService, times(1)).deleteProduct(1L);
+        verify(productService, times(1)).deleteProduct(1L, null);
+    }
+
+    @Test
+    void deleteProduct_WithIfMatch_ShouldPassRequiredVersion() throws Exception {
+        // Act & Assert
+        mockMvc.perform(delete("/products/1").header(HttpHeaders.IF_MATCH, "\"5\""))
+                .andExpect(status().isNoContent());
+
+        verify(productService, times(1)).deleteProduct(1L, 5L);
     }
 
     @Test
     void deleteProduct_WithNonExistingId_ShouldReturnNotFound() throws Exception {
         // Arrange
         doThrow(new EntityNotFoundException("Product not found with id: 99"))
-                .when(productService).deleteProduct(99L);
+                .when(productService).deleteProduct(99L, null);
 
         // Act & Assert
         mockMvc.perform(delete("/products/99"))
                 .andExpect(status().isNotFound())
                 .andExpect(jsonPath("$.message", containsString("Product not found with id: 99")));
 
-        verify(productService, times(1)).deleteProduct(99L);
+        verify(productService, times(1)).deleteProduct(99L, null);
+    }
+
+    @Test
+    void streamChanges_ShouldResumeAfterLastEventId() throws Exception {
+        // Arrange
+        ProductChange change = new ProductChange(8L, ProductChangedEvent.Type.SAVED, 1L, 2L, LocalDateTime.now());
+        when(productChangeFeed.changesAfter(anyLong(), anyInt(), any(Duration.class))).thenAnswer(invocation -> {
+            if (invocation.<Long>getArgument(0) == 7L) {
+                return List.of(change);
+            }
+            Thread.sleep(50);
+            return List.of();
+        });
+
+        // Act - Last-Event-ID takes precedence over the query parameter
+        MvcResult result = mockMvc.perform(get("/products/changes")
+                        .header("Last-Event-ID", "7")
+                        .param("after", "3"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Assert - The change is sent with its sequence as event id, then the stream continues after it
+        verify(productChangeFeed, timeout(5000)).changesAfter(eq(8L), anyInt(), any(Duration.class));
+        String body = result.getResponse().getContentAsString();
+        assertTrue(body.contains("id:8\n"), body);
+        assertTrue(body.contains("\"productId\":1"), body);
+        verify(productChangeFeed, never()).changesAfter(eq(3L), anyInt(), any(Duration.class));
+        result.getRequest().getAsyncContext().complete();
+    }
+
+    @Test
+    void streamChanges_WithPrunedCursor_ShouldSendResetEventAndClose() throws Exception {
+        // Arrange
+        when(productChangeFeed.changesAfter(eq(7L), anyInt(), any(Duration.class)))
+                .thenThrow(new ChangesExpiredException("Changes after 7 are no longer retained"));
+        when(productChangeFeed.lastSequence()).thenReturn(42L);
+
+        // Act
+        MvcResult result = mockMvc.perform(get("/products/changes")
+                        .header("Last-Event-ID", "7"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Assert - The client is told to resync and resume from the current sequence
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk());
+        String body = result.getResponse().getContentAsString();
+        assertTrue(body.contains("event:reset\n"), body);
+        assertTrue(body.contains("id:42\n"), body);
+        assertTrue(body.contains("data:Changes after 7 are no longer retained"), body);
+    }
+
+    @Test
+    void getProductsByCursor_ShouldReturnCursorPage() throws Exception {
+        // Arrange
+        CursorPage<Product> page = new CursorPage<>(List.of(product), 1, true, "next-token");
+        when(productService.getProductsAfter(eq("token"), eq(1), any(Sort.class))).thenReturn(page);
+
+        // Act & Assert
+        mockMvc.perform(get("/products/cursor").param("after", "token").param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.content[0].id", is(1)))
+                .andExpect(jsonPath("$.hasNext", is(true)))
+                .andExpect(jsonPath("$.nextCursor", is("next-token")))
+                .andExpect(jsonPath("$.totalElements").doesNotExist());
+
+        verify(productService, times(1)).getProductsAfter(eq("token"), eq(1), any(Sort.class));
+    }
+
+    @Test
+    void getProductsByCursor_WithInvalidCursor_ShouldReturnBadRequest() throws Exception {
+        // Arrange
+        when(productService.getProductsAfter(eq("bad"), anyInt(), any(Sort.class)))
+                .thenThrow(new InvalidCursorException("Invalid cursor: bad"));
+
+        // Act & Assert
+        mockMvc.perform(get("/products/cursor").param("after", "bad"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message", containsString("Invalid cursor")));
+    }
+
+    @Test
+    void getProductSlice_ShouldReturnSliceWithoutTotal() throws Exception {
+        // Arrange
+        SlicePage<Product> slice = new SlicePage<>(List.of(product), 0, 20, false, null);
+        when(productService.getProductSlice(any(Pageable.class), eq(false))).thenReturn(slice);
+
+        // Act & Assert
+        mockMvc.perform(get("/products/slice"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.hasNext", is(false)))
+                .andExpect(jsonPath("$.estimatedTotalElements").doesNotExist());
+
+        verify(productService, times(1)).getProductSlice(any(Pageable.class), eq(false));
+        verify(productService, never()).getAllProducts(any(Pageable.class));
+    }
+
+    @Test
+    void searchProducts_ShouldReturnRankedPage() throws Exception {
+        // Arrange
+        Page<Product> page = new PageImpl<>(List.of(product), PageRequest.of(0, 20), 1);
+        when(productService.searchProducts(eq("test"), any(Pageable.class))).thenReturn(page);
+
+        // Act & Assert
+        mockMvc.perform(get("/products/search").param("q", "test"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.totalElements", is(1)));
+
+        verify(productService, times(1)).searchProducts(eq("test"), any(Pageable.class));
+    }
+
+    @Test
+    void searchProducts_WithoutQuery_ShouldReturnBadRequest() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/products/search"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message", is("Missing required parameter 'q'")));
+
+        verify(productService, never()).searchProducts(anyString(), any(Pageable.class));
+    }
+
+    @Test
+    void searchProducts_BeyondResultWindow_ShouldReturnBadRequest() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/products/search").param("q", "test").param("page", "500").param("size", "100"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message", is("Search results are limited to the first 10000 hits")));
+
+        verify(productService, never()).searchProducts(anyString(), any(Pageable.class));
+    }
+
+    @Test
+    void createProducts_ShouldReturnPerItemReport() throws Exception {
+        // Arrange
+        BatchCreateResponse response = BatchCreateResponse.of(List.of(BatchItemResult.created(0, 1L)));
+        when(productService.createProducts(anyList())).thenReturn(response);
+
+        // Act & Assert
+        mockMvc.perform(post("/products/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(productDTO))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total", is(1)))
+                .andExpect(jsonPath("$.succeeded", is(1)))
+                .andExpect(jsonPath("$.results[0].status", is("CREATED")))
+                .andExpect(jsonPath("$.results[0].id", is(1)))
+                .andExpect(jsonPath("$.results[0].errors").doesNotExist());
+
+        verify(productService, times(1)).createProducts(anyList());
+    }
+
+    @Test
+    void createProducts_WithEmptyBatch_ShouldReturnBadRequest() throws Exception {
+        // Act & Assert
+        mockMvc.perform(post("/products/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[]"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message", containsString("Batch must contain")));
+
+        verify(productService, never()).createProducts(anyList());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void exportProducts_ShouldStreamOneJsonObjectPerLine() throws Exception {
+        // Arrange
+        doAnswer(invocation -> {
+            Consumer<Product> consumer = invocation.getArgument(1);
+            consumer.accept(product);
+            consumer.accept(product);
+            return null;
+        }).when(productService).streamProducts(any(ProductFilter.class), any(Consumer.class));
+
+        // Act
+        MvcResult result = mockMvc.perform(get("/products/export").param("minPrice", "10"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Assert
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("Test Product", objectMapper.readTree(lines[0]).get("name").asText());
+        verify(productService, times(1)).streamProducts(
+                argThat(filter -> new BigDecimal("10").equals(filter.getMinPrice())), any(Consumer.class));
+    }
+
+    private static ProductView view(Product product) {
+        return new ProductView(product.getId(), product.getName(), product.getDescription(),
+                product.getPrice(), product.getCreatedAt(), product.getVersion());
     }
 }
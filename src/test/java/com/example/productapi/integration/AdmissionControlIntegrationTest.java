@@ -0,0 +1,67 @@
+package com.example.productapi.integration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:admissiondb",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.hibernate.ddl-auto=validate",
+    "productapi.admission.enabled=true",
+    // A burst of three, refilled once every 100 seconds
+    "productapi.admission.client-burst=3",
+    "productapi.admission.client-rate=0.01"
+})
+class AdmissionControlIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void clientOverItsRate_ShouldGetTooManyRequestsWithRetryAfter() throws Exception {
+        // Arrange
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(get("/products")).andExpect(status().isOk());
+        }
+
+        // Act & Assert
+        mockMvc.perform(get("/products"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "100"))
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.message").exists());
+
+        // The change stream stays open for long, so it is not counted against the client
+        mockMvc.perform(get("/products/changes").accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted());
+
+        // Actuator endpoints are outside the filter
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString(
+                        "productapi_admission_requests_total{class=\"read\",outcome=\"admitted\",reason=\"none\",} 3.0")))
+                .andExpect(content().string(containsString(
+                        "productapi_admission_requests_total{class=\"read\",outcome=\"rejected\",reason=\"client_rate\",} 1.0")))
+                .andExpect(content().string(containsString("productapi_admission_limit{class=\"write\",}")));
+    }
+}
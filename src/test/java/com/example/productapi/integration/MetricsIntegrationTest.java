@@ -0,0 +1,106 @@
+package com.example.productapi.integration;
+
+import com.example.productapi.model.Product;
+import com.example.productapi.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:metricsdb",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.hibernate.ddl-auto=validate"
+})
+class MetricsIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @AfterEach
+    void tearDown() {
+        productRepository.deleteAll();
+    }
+
+    @Test
+    void prometheusEndpoint_ShouldExposeLatencyHistogramsAndQueryCounts() throws Exception {
+        // Arrange
+        for (int i = 1; i <= 2; i++) {
+            Product product = new Product();
+            product.setName("Metrics Product " + i);
+            product.setPrice(new BigDecimal("10.00"));
+            productRepository.save(product);
+        }
+
+        // Act - A full first page makes the listing run a page query and a count query
+        mockMvc.perform(get("/products").param("size", "1")).andExpect(status().isOk());
+
+        // Assert
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("http_server_requests_seconds_bucket")))
+                .andExpect(content().string(containsString("productapi_controller_seconds_bucket")))
+                .andExpect(content().string(containsString("productapi_service_seconds{")))
+                .andExpect(content().string(containsString(
+                        "productapi_jdbc_statements_per_request_sum{kind=\"count\",method=\"GET\",uri=\"/products\",} 1.0")))
+                .andExpect(content().string(containsString(
+                        "productapi_jdbc_statements_per_request_sum{kind=\"all\",method=\"GET\",uri=\"/products\",} 2.0")))
+                .andExpect(content().string(containsString("hibernate_statements_total")))
+                .andExpect(content().string(containsString("hikaricp_connections_acquire_seconds")));
+    }
+
+    @Test
+    void patchAndDelete_ShouldEachRunTheirWriteAndOutboxInsertOnly() throws Exception {
+        // Arrange
+        Product product = new Product();
+        product.setName("Metrics Product");
+        product.setPrice(new BigDecimal("10.00"));
+        product = productRepository.save(product);
+
+        // Act
+        mockMvc.perform(patch("/products/{id}", product.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"price\": 12.50}"))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(delete("/products/{id}", product.getId())).andExpect(status().isNoContent());
+
+        // Assert - No read before either write; the change-feed outbox row is the only other statement
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString(
+                        "productapi_jdbc_statements_per_request_sum{kind=\"all\",method=\"PATCH\",uri=\"/products/{id}\",} 2.0")))
+                .andExpect(content().string(containsString(
+                        "productapi_jdbc_statements_per_request_sum{kind=\"update\",method=\"PATCH\",uri=\"/products/{id}\",} 1.0")))
+                .andExpect(content().string(containsString(
+                        "productapi_jdbc_statements_per_request_sum{kind=\"insert\",method=\"PATCH\",uri=\"/products/{id}\",} 1.0")))
+                .andExpect(content().string(containsString(
+                        "productapi_jdbc_statements_per_request_sum{kind=\"all\",method=\"DELETE\",uri=\"/products/{id}\",} 2.0")))
+                .andExpect(content().string(containsString(
+                        "productapi_jdbc_statements_per_request_sum{kind=\"delete\",method=\"DELETE\",uri=\"/products/{id}\",} 1.0")))
+                .andExpect(content().string(containsString(
+                        "productapi_jdbc_statements_per_request_sum{kind=\"insert\",method=\"DELETE\",uri=\"/products/{id}\",} 1.0")));
+    }
+}
@@ -1,22 +1,54 @@
 package com.example.productapi.integration;
 
+import com.example.productapi.config.CacheConfig;
 import com.example.productapi.dto.ProductDTO;
+import com.example.productapi.dto.ProductView;
+import com.example.productapi.exception.PreconditionFailedException;
 import com.example.productapi.model.Product;
+import com.example.productapi.model.ProductChange;
 import com.example.productapi.repository.ProductRepository;
+import com.example.productapi.service.ProductChangeFeed;
+import com.example.productapi.service.ProductChangedEvent;
+import com.example.productapi.service.ProductService;
+import com.example.productapi.service.impl.ProductCountEstimator;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.ByteArrayInputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
 
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -28,7 +60,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
     "spring.datasource.password=",
     "spring.datasource.driver-class-name=org.h2.Driver",
     "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
-    "spring.jpa.hibernate.ddl-auto=create-drop"
+    "spring.jpa.hibernate.ddl-auto=validate"
 })
 class ProductApiIntegrationTest {
 
@@ -41,6 +73,18 @@ class ProductApiIntegrationTest {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductChangeFeed productChangeFeed;
+
+    @Autowired
+    private ProductCountEstimator productCountEstimator;
+
     private Product testProduct;
 
     @BeforeEach
@@ -57,6 +101,8 @@ class ProductApiIntegrationTest {
     void tearDown() {
         // Clean up the database after each test
         productRepository.deleteAll();
+        cacheManager.getCache(CacheConfig.PRODUCTS_CACHE).clear();
+        cacheManager.getCache(CacheConfig.PRODUCT_RESPONSES_CACHE).clear();
     }
 
     @Test
@@ -109,6 +155,25 @@ class ProductApiIntegrationTest {
                 .andExpect(jsonPath("$.totalElements", greaterThanOrEqualTo(1)));
     }
 
+    @Test
+    void getAllProducts_WithFilters_ShouldReturnOnlyMatchingProducts() throws Exception {
+        // Arrange
+        Product cheap = new Product();
+        cheap.setName("Integration Cheap Product");
+        cheap.setPrice(new BigDecimal("5.00"));
+        productRepository.save(cheap);
+
+        // Act & Assert - Only the 99.99 product from setUp is within the range and has the prefix
+        mockMvc.perform(get("/products")
+                        .param("minPrice", "10")
+                        .param("maxPrice", "100")
+                        .param("namePrefix", "integration"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.content[0].id", is(testProduct.getId().intValue())))
+                .andExpect(jsonPath("$.totalElements", is(1)));
+    }
+
     @Test
     void updateProduct_WithExistingId_ShouldUpdateAndReturnProduct() throws Exception {
         // Arrange
@@ -144,6 +209,229 @@ class ProductApiIntegrationTest {
                 .andExpect(jsonPath("$.message", containsString("Product not found with id: 999")));
     }
 
+    @Test
+    void conditionalWrites_ShouldFollowTheETagAndRejectStaleVersions() throws Exception {
+        // Arrange
+        Long id = testProduct.getId();
+        String etag = mockMvc.perform(get("/products/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0\""))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        ProductDTO updateDTO = new ProductDTO("Versioned Product", "First writer", new BigDecimal("10.00"));
+
+        // Act & Assert - The first writer wins and gets the new ETag
+        mockMvc.perform(put("/products/{id}", id)
+                .header(HttpHeaders.IF_MATCH, etag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(updateDTO)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
+                .andExpect(jsonPath("$.version", is(1)));
+
+        // Act & Assert - Writers still holding the old ETag are rejected
+        updateDTO.setDescription("Second writer");
+        mockMvc.perform(put("/products/{id}", id)
+                .header(HttpHeaders.IF_MATCH, etag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(updateDTO)))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(patch("/products/{id}", id)
+                .header(HttpHeaders.IF_MATCH, etag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"price\": 1.00}"))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(delete("/products/{id}", id).header(HttpHeaders.IF_MATCH, etag))
+                .andExpect(status().isPreconditionFailed());
+
+        // Act & Assert - A conditional patch with the current ETag bumps the version
+        mockMvc.perform(patch("/products/{id}", id)
+                .header(HttpHeaders.IF_MATCH, "\"1\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"price\": 11.00}"))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get("/products/{id}", id))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"2\""))
+                .andExpect(jsonPath("$.description", is("First writer")));
+        mockMvc.perform(delete("/products/{id}", id).header(HttpHeaders.IF_MATCH, "\"2\""))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(delete("/products/{id}", id).header(HttpHeaders.IF_MATCH, "\"2\""))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void conditionalReads_ShouldReturnNotModifiedUntilTheDataChanges() throws Exception {
+        // Arrange
+        Long id = testProduct.getId();
+        String productEtag = mockMvc.perform(get("/products/{id}", id))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        String pageEtag = mockMvc.perform(get("/products").param("size", "5"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(pageEtag);
+
+        // Act & Assert - Unchanged product and page
+        mockMvc.perform(get("/products/{id}", id).header(HttpHeaders.IF_NONE_MATCH, productEtag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        mockMvc.perform(get("/products").param("size", "5").header(HttpHeaders.IF_NONE_MATCH, pageEtag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        // Act & Assert - Other paging parameters are another representation
+        mockMvc.perform(get("/products").param("size", "6").header(HttpHeaders.IF_NONE_MATCH, pageEtag))
+                .andExpect(status().isOk());
+
+        // Act & Assert - A patch changes both ETags
+        mockMvc.perform(patch("/products/{id}", id)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"price\": 12.00}"))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get("/products/{id}", id).header(HttpHeaders.IF_NONE_MATCH, productEtag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.price", is(12.00)));
+        String patchedPageEtag = mockMvc.perform(get("/products").param("size", "5")
+                        .header(HttpHeaders.IF_NONE_MATCH, pageEtag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // Act & Assert - So does a new row
+        ProductDTO newProduct = new ProductDTO("Another Product", null, new BigDecimal("5.00"));
+        mockMvc.perform(post("/products")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(newProduct)))
+                .andExpect(status().isCreated());
+        mockMvc.perform(get("/products").param("size", "5").header(HttpHeaders.IF_NONE_MATCH, patchedPageEtag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements", is(2)));
+    }
+
+    @Test
+    void binaryFormats_ShouldRoundTripProductsAndPages() throws Exception {
+        ObjectMapper cbor = new ObjectMapper(new CBORFactory());
+        ObjectMapper smile = new ObjectMapper(new SmileFactory());
+        MediaType smileType = new MediaType("application", "x-jackson-smile");
+
+        // Act & Assert - Writes accept CBOR and keep the exact decimal price
+        ProductDTO productDTO = new ProductDTO("Binary Product", "Sent as CBOR", new BigDecimal("1234.50"));
+        byte[] created = mockMvc.perform(post("/products")
+                .contentType(MediaType.APPLICATION_CBOR)
+                .accept(MediaType.APPLICATION_CBOR)
+                .content(cbor.writeValueAsBytes(productDTO)))
+                .andExpect(status().isCreated())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+        JsonNode product = cbor.readTree(created);
+        assertEquals("Binary Product", product.get("name").asText());
+        assertEquals(0, new BigDecimal("1234.50").compareTo(product.get("price").decimalValue()));
+        long id = product.get("id").asLong();
+
+        // Act & Assert - Reads of a product and of a page in Smile
+        byte[] read = mockMvc.perform(get("/products/{id}", id).accept(smileType))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(smileType))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0-smile\""))
+                .andExpect(header().string(HttpHeaders.VARY, containsString(HttpHeaders.ACCEPT)))
+                .andReturn().getResponse().getContentAsByteArray();
+        assertEquals("Sent as CBOR", smile.readTree(read).get("description").asText());
+        byte[] page = mockMvc.perform(get("/products").param("sort", "id").accept(smileType))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, endsWith("-smile\"")))
+                .andReturn().getResponse().getContentAsByteArray();
+        JsonNode content = smile.readTree(page).get("content");
+        assertEquals(2, content.size());
+        assertEquals(0, new BigDecimal("1234.50").compareTo(content.get(1).get("price").decimalValue()));
+
+        // Act & Assert - JSON stays the default
+        mockMvc.perform(get("/products/{id}", id))
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.price", is(1234.50)));
+    }
+
+    @Test
+    void conditionalUpdates_FromConcurrentWriters_ShouldLetExactlyOneWin() throws Exception {
+        // Arrange - Every writer read version 0 and races to update it
+        int writers = 16;
+        Long id = testProduct.getId();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> outcomes = new ArrayList<>();
+
+        // Act
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        try {
+            for (int i = 0; i < writers; i++) {
+                ProductDTO updateDTO = new ProductDTO("Writer " + i, null, new BigDecimal("10.00"));
+                outcomes.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        productService.updateProduct(id, updateDTO, 0L);
+                        return true;
+                    } catch (PreconditionFailedException | OptimisticLockingFailureException e) {
+                        return false;
+                    }
+                }));
+            }
+            start.countDown();
+            int wins = 0;
+            for (Future<Boolean> outcome : outcomes) {
+                wins += outcome.get(30, TimeUnit.SECONDS) ? 1 : 0;
+            }
+
+            // Assert - No lost update: one winner, and the row moved exactly one version
+            assertEquals(1, wins);
+            assertEquals(1L, productRepository.findById(id).orElseThrow().getVersion());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void patchProduct_ShouldChangeOnlySuppliedFields() throws Exception {
+        // Arrange
+        Long id = testProduct.getId();
+        mockMvc.perform(get("/products/{id}", id)).andExpect(status().isOk());
+
+        // Act
+        mockMvc.perform(patch("/products/{id}", id)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"price\": 12.50}"))
+                .andExpect(status().isNoContent());
+
+        // Assert - The cached read was evicted and the other fields are untouched
+        mockMvc.perform(get("/products/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name", is("Integration Test Product")))
+                .andExpect(jsonPath("$.description", is("Integration Test Description")))
+                .andExpect(jsonPath("$.price", is(12.5)));
+    }
+
+    @Test
+    void patchProduct_WithNullDescription_ShouldRemoveIt() throws Exception {
+        // Arrange
+        Long id = testProduct.getId();
+
+        // Act
+        mockMvc.perform(patch("/products/{id}", id)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"description\": null}"))
+                .andExpect(status().isNoContent());
+
+        // Assert
+        mockMvc.perform(get("/products/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name", is("Integration Test Product")))
+                .andExpect(jsonPath("$.description", nullValue()));
+    }
+
+    @Test
+    void patchProduct_WithNonExistingId_ShouldReturnNotFound() throws Exception {
+        // Act & Assert
+        mockMvc.perform(patch("/products/999")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\": \"Renamed\"}"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.message", containsString("Product not found with id: 999")));
+    }
+
     @Test
     void deleteProduct_WithExistingId_ShouldDeleteProduct() throws Exception {
         // Act & Assert - Delete the product
@@ -178,4 +466,386 @@ class ProductApiIntegrationTest {
                 .andExpect(status().isBadRequest())
                 .andExpect(jsonPath("$.name", notNullValue())); // Expect validation error for name
     }
+
+    @Test
+    void getProductsByCursor_ShouldWalkAllPagesInSortOrder() throws Exception {
+        // Arrange
+        for (int i = 1; i <= 4; i++) {
+            Product product = new Product();
+            product.setName("Cursor Product " + i);
+            product.setPrice(new BigDecimal(i * 10));
+            productRepository.save(product);
+        }
+
+        // Act & Assert - First page by price descending
+        String firstPage = mockMvc.perform(get("/products/cursor").param("size", "3").param("sort", "price,desc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(3)))
+                .andExpect(jsonPath("$.content[0].price", is(99.99)))
+                .andExpect(jsonPath("$.content[1].price", is(40.0)))
+                .andExpect(jsonPath("$.hasNext", is(true)))
+                .andReturn().getResponse().getContentAsString();
+        String cursor = objectMapper.readTree(firstPage).get("nextCursor").asText();
+
+        // Act & Assert - Second (last) page continues from the cursor
+        mockMvc.perform(get("/products/cursor").param("size", "3").param("after", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(2)))
+                .andExpect(jsonPath("$.content[0].price", is(20.0)))
+                .andExpect(jsonPath("$.content[1].price", is(10.0)))
+                .andExpect(jsonPath("$.hasNext", is(false)))
+                .andExpect(jsonPath("$.nextCursor", nullValue()));
+    }
+
+    @Test
+    void getProductSlice_ShouldReportNextPageAndOptionalTotal() throws Exception {
+        // Arrange
+        Product another = new Product();
+        another.setName("Another Product");
+        another.setPrice(new BigDecimal("10.00"));
+        productRepository.save(another);
+        // Normally taken by the scheduler shortly after startup
+        productCountEstimator.refresh();
+
+        // Act & Assert - No total unless asked for
+        mockMvc.perform(get("/products/slice").param("size", "1").param("sort", "id"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.content[0].id", is(testProduct.getId().intValue())))
+                .andExpect(jsonPath("$.hasNext", is(true)))
+                .andExpect(jsonPath("$.estimatedTotalElements").doesNotExist());
+
+        mockMvc.perform(get("/products/slice").param("page", "1").param("size", "1").param("includeTotal", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hasNext", is(false)))
+                .andExpect(jsonPath("$.estimatedTotalElements", notNullValue()));
+    }
+
+    @Test
+    void createProducts_ShouldPersistValidItemsAndReportInvalidOnes() throws Exception {
+        // Arrange
+        ProductDTO first = new ProductDTO("Batch Product 1", "First", new BigDecimal("10.00"));
+        ProductDTO invalid = new ProductDTO("X", null, new BigDecimal("0"));
+        ProductDTO second = new ProductDTO("Batch Product 2", "Second", new BigDecimal("20.00"));
+
+        // Act & Assert
+        mockMvc.perform(post("/products/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(first, invalid, second))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total", is(3)))
+                .andExpect(jsonPath("$.succeeded", is(2)))
+                .andExpect(jsonPath("$.failed", is(1)))
+                .andExpect(jsonPath("$.results[0].status", is("CREATED")))
+                .andExpect(jsonPath("$.results[1].status", is("FAILED")))
+                .andExpect(jsonPath("$.results[1].errors.name", notNullValue()))
+                .andExpect(jsonPath("$.results[1].errors.price", notNullValue()))
+                .andExpect(jsonPath("$.results[2].status", is("CREATED")))
+                .andExpect(jsonPath("$.results[2].id", notNullValue()));
+
+        // 1 from setUp + 2 from the batch
+        assertEquals(3, productRepository.count());
+    }
+
+    @Test
+    void productCache_ShouldBeEvictedOnUpdateAndDelete() throws Exception {
+        // Arrange
+        Cache cache = cacheManager.getCache(CacheConfig.PRODUCTS_CACHE);
+        Long id = testProduct.getId();
+
+        // Act & Assert - A read populates the cache
+        mockMvc.perform(get("/products/{id}", id)).andExpect(status().isOk());
+        assertNotNull(cache.get(id));
+
+        // Act & Assert - An update evicts the entry after commit and the next read caches the new state
+        ProductDTO updateDTO = new ProductDTO("Cached Product", "Refreshed", new BigDecimal("5.00"));
+        mockMvc.perform(put("/products/{id}", id)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(updateDTO)))
+                .andExpect(status().isOk());
+        assertNull(cache.get(id));
+        mockMvc.perform(get("/products/{id}", id))
+                .andExpect(jsonPath("$.name", is("Cached Product")));
+        assertEquals("Cached Product", ((ProductView) cache.get(id).get()).name());
+
+        // Act & Assert - A delete evicts the entry
+        mockMvc.perform(delete("/products/{id}", id)).andExpect(status().isNoContent());
+        assertNull(cache.get(id));
+        mockMvc.perform(get("/products/{id}", id)).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void productResponseCache_ShouldServeJsonAndGzipBytesPerVersion() throws Exception {
+        // Arrange
+        Cache cache = cacheManager.getCache(CacheConfig.PRODUCT_RESPONSES_CACHE);
+        Long id = testProduct.getId();
+
+        // Act & Assert - A read caches both encodings of the same JSON under the product's version
+        String json = mockMvc.perform(get("/products/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0\""))
+                .andExpect(jsonPath("$.name", is("Integration Test Product")))
+                .andReturn().getResponse().getContentAsString();
+        assertNotNull(cache.get(List.of(id, 0L)));
+        byte[] compressed = mockMvc.perform(get("/products/{id}", id).header(HttpHeaders.ACCEPT_ENCODING, "gzip, br"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0-gzip\""))
+                .andExpect(header().stringValues(HttpHeaders.VARY, hasItem(containsString(HttpHeaders.ACCEPT_ENCODING))))
+                .andReturn().getResponse().getContentAsByteArray();
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            assertEquals(json, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+
+        // Act & Assert - After a patch the next read serializes the new version
+        mockMvc.perform(patch("/products/{id}", id)
+                .header(HttpHeaders.IF_MATCH, "\"0-gzip\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\": \"Patched Product\"}"))
+                .andExpect(status().isNoContent());
+        assertNull(cache.get(List.of(id, 1L)));
+        mockMvc.perform(get("/products/{id}", id))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
+                .andExpect(jsonPath("$.name", is("Patched Product")));
+        assertNotNull(cache.get(List.of(id, 1L)));
+
+        // Act & Assert - Deleted products are not served from stale bytes
+        mockMvc.perform(delete("/products/{id}", id)).andExpect(status().isNoContent());
+        mockMvc.perform(get("/products/{id}", id)).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void changeFeed_ShouldStreamCommittedWritesAndResumeFromLastEventId() throws Exception {
+        // Arrange
+        long start = productChangeFeed.lastSequence();
+
+        // Act - Create, patch and delete a product
+        String created = mockMvc.perform(post("/products")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new ProductDTO("Feed Product", null, new BigDecimal("3.00")))))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        long id = objectMapper.readTree(created).get("id").asLong();
+        mockMvc.perform(patch("/products/{id}", id)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"price\": 4.00}"))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(delete("/products/{id}", id)).andExpect(status().isNoContent());
+
+        // Assert - The feed has them in commit order; writes of earlier tests may still be ahead of them
+        List<ProductChange> changes = new ArrayList<>();
+        long cursor = start;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (changes.size() < 3 && System.nanoTime() < deadline) {
+            for (ProductChange change : productChangeFeed.changesAfter(cursor, 100, Duration.ofMillis(100))) {
+                cursor = change.getSequence();
+                if (change.getProductId() == id) {
+                    changes.add(change);
+                }
+            }
+        }
+        assertEquals(List.of(ProductChangedEvent.Type.SAVED, ProductChangedEvent.Type.PATCHED, ProductChangedEvent.Type.DELETED),
+                changes.stream().map(ProductChange::getType).toList());
+        long saved = changes.get(0).getSequence();
+        long deleted = changes.get(2).getSequence();
+        assertTrue(saved < changes.get(1).getSequence() && changes.get(1).getSequence() < deleted);
+
+        // Act - A client that saw the creation reconnects
+        MvcResult result = mockMvc.perform(get("/products/changes").header("Last-Event-ID", String.valueOf(saved)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Assert - It receives the later changes, and only those
+        String body = "";
+        deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!body.contains("id:" + deleted + "\n") && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            body = result.getResponse().getContentAsString();
+        }
+        assertTrue(body.contains("id:" + changes.get(1).getSequence() + "\n"), body);
+        assertTrue(body.contains("id:" + deleted + "\n"), body);
+        assertFalse(body.contains("id:" + saved + "\n"), body);
+        assertTrue(body.contains("\"type\":\"DELETED\""), body);
+        result.getRequest().getAsyncContext().complete();
+    }
+
+    @Test
+    void exportProducts_ShouldStreamFilteredCatalogAsNdjson() throws Exception {
+        // Arrange
+        Product cheap = new Product();
+        cheap.setName("Cheap Product");
+        cheap.setPrice(new BigDecimal("5.00"));
+        productRepository.save(cheap);
+
+        // Act
+        MvcResult result = mockMvc.perform(get("/products/export").param("minPrice", "50"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Assert - Only the 99.99 product from setUp matches
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        String[] lines = body.split("\n");
+        assertEquals(1, lines.length);
+        assertEquals(testProduct.getId().longValue(), objectMapper.readTree(lines[0]).get("id").asLong());
+    }
+
+    @Test
+    void exportProducts_WithGzip_ShouldCompressStream() throws Exception {
+        // Act
+        MvcResult result = mockMvc.perform(get("/products/export").header("Accept-Encoding", "gzip"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        byte[] compressed = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        // Assert
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            String body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            assertEquals("Integration Test Product", objectMapper.readTree(body.split("\n")[0]).get("name").asText());
+        }
+    }
+
+    @Test
+    void importProducts_FromCsv_ShouldPersistValidRowsAndReportRejectedLines() throws Exception {
+        // Arrange - line 3 has a short name, line 4 an invalid price
+        String csv = "name,description,price\n" +
+                "Imported Product 1,\"Quoted, with comma\",10.50\n" +
+                "AB,Too short,5.00\n" +
+                "Imported Product 2,Bad price,abc\n" +
+                "Imported Product 3,,20.00\n";
+
+        // Act
+        String accepted = mockMvc.perform(post("/products/imports")
+                .contentType("text/csv")
+                .content(csv))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", containsString("/products/imports/")))
+                .andExpect(jsonPath("$.format", is("CSV")))
+                .andReturn().getResponse().getContentAsString();
+        String jobId = objectMapper.readTree(accepted).get("id").asText();
+
+        // Assert
+        String status = awaitImport(jobId);
+        mockMvc.perform(get("/products/imports/{id}", jobId))
+                .andExpect(jsonPath("$.state", is("COMPLETED")))
+                .andExpect(jsonPath("$.rowsRead", is(4)))
+                .andExpect(jsonPath("$.rowsImported", is(2)))
+                .andExpect(jsonPath("$.rowsRejected", is(2)))
+                .andExpect(jsonPath("$.errors[*].line", containsInAnyOrder(3, 4)));
+        assertEquals("COMPLETED", status);
+        assertEquals(3, productRepository.count());
+    }
+
+    @Test
+    void importProducts_FromNdjson_ShouldPersistRows() throws Exception {
+        // Arrange
+        String ndjson = "{\"name\":\"NDJSON Product 1\",\"price\":\"12.00\"}\n" +
+                "{\"name\":\"NDJSON Product 2\",\"description\":\"Second\",\"price\":13.5}\n" +
+                "not json\n";
+
+        // Act
+        String accepted = mockMvc.perform(post("/products/imports")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .content(ndjson))
+                .andExpect(status().isAccepted())
+                .andReturn().getResponse().getContentAsString();
+        String jobId = objectMapper.readTree(accepted).get("id").asText();
+
+        // Assert
+        assertEquals("COMPLETED", awaitImport(jobId));
+        mockMvc.perform(get("/products/imports/{id}", jobId))
+                .andExpect(jsonPath("$.rowsImported", is(2)))
+                .andExpect(jsonPath("$.errors[0].line", is(3)));
+    }
+
+    @Test
+    void getImportStatus_WithUnknownJob_ShouldReturnNotFound() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/products/imports/{id}", "00000000-0000-0000-0000-000000000000"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void searchProducts_ShouldFollowCreateUpdatePatchAndDelete() throws Exception {
+        // Arrange
+        ProductDTO productDTO = new ProductDTO("Quillfeather Notebook", "Dotted pages", new BigDecimal("12.50"));
+        String body = mockMvc.perform(post("/products")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(productDTO)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        long id = objectMapper.readTree(body).get("id").asLong();
+
+        // Act & Assert
+        mockMvc.perform(get("/products/search").param("q", "QUILLFEATHER"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.content[0].id", is((int) id)))
+                .andExpect(jsonPath("$.totalElements", is(1)));
+
+        productDTO.setName("Inkwell Notebook");
+        mockMvc.perform(put("/products/{id}", id)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(productDTO)))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/products/search").param("q", "quillfeather"))
+                .andExpect(jsonPath("$.totalElements", is(0)));
+        mockMvc.perform(get("/products/search").param("q", "inkwell"))
+                .andExpect(jsonPath("$.content[0].id", is((int) id)));
+
+        // A patch of the description reindexes the row, keeping the unpatched name searchable
+        mockMvc.perform(patch("/products/{id}", id)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"description\": \"Gridded pages\"}"))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get("/products/search").param("q", "gridded inkwell"))
+                .andExpect(jsonPath("$.totalElements", is(1)));
+        mockMvc.perform(get("/products/search").param("q", "dotted"))
+                .andExpect(jsonPath("$.totalElements", is(0)));
+
+        mockMvc.perform(delete("/products/{id}", id))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get("/products/search").param("q", "inkwell"))
+                .andExpect(jsonPath("$.totalElements", is(0)));
+    }
+
+    @Test
+    void searchProducts_ShouldIndexBatchCreatedProducts() throws Exception {
+        // Arrange
+        List<ProductDTO> items = List.of(
+                new ProductDTO("Zephyrine Kettle", null, new BigDecimal("30.00")),
+                new ProductDTO("Steel Teapot", "Pairs with the zephyrine kettle", new BigDecimal("25.00")));
+
+        // Act
+        mockMvc.perform(post("/products/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(items)))
+                .andExpect(status().isOk());
+
+        // Assert
+        mockMvc.perform(get("/products/search").param("q", "zephyrine"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements", is(2)))
+                .andExpect(jsonPath("$.content[0].name", is("Zephyrine Kettle")));
+    }
+
+    private String awaitImport(String jobId) throws Exception {
+        for (int attempt = 0; attempt < 100; attempt++) {
+            String body = mockMvc.perform(get("/products/imports/{id}", jobId))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            String state = objectMapper.readTree(body).get("state").asText();
+            if (!"QUEUED".equals(state) && !"RUNNING".equals(state)) {
+                return state;
+            }
+            Thread.sleep(100);
+        }
+        throw new AssertionError("Import " + jobId + " did not finish in time");
+    }
 }
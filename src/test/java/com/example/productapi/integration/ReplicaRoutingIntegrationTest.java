@@ -0,0 +1,168 @@
+package com.example.productapi.integration;
+
+import com.example.productapi.config.CacheConfig;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.Cookie;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import static org.hamcrest.Matchers.contains;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Two embedded H2 databases stand in for the primary and a replica. Nothing replicates between them, so where a
+ * row is visible tells which database served the read.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:primarydb;DB_CLOSE_DELAY=-1",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.hibernate.ddl-auto=validate",
+    "productapi.datasource.replicas.urls=" + ReplicaRoutingIntegrationTest.REPLICA_URL,
+    "productapi.datasource.replicas.read-your-writes-window=PT1M"
+})
+class ReplicaRoutingIntegrationTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:replicadb;DB_CLOSE_DELAY=-1";
+
+    private static final JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate primary;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @BeforeAll
+    static void createReplicaSchema() {
+        // A real replica gets the schema through replication; Flyway only migrates the primary
+        Flyway.configure()
+                .dataSource(REPLICA_URL, "sa", "")
+                .locations("classpath:db/migration/common", "classpath:db/migration/h2")
+                .load()
+                .migrate();
+    }
+
+    @AfterEach
+    void tearDown() {
+        primary.update("DELETE FROM products");
+        replica.update("DELETE FROM products");
+        cacheManager.getCache(CacheConfig.PRODUCTS_CACHE).clear();
+        cacheManager.getCache(CacheConfig.PRODUCT_RESPONSES_CACHE).clear();
+    }
+
+    @Test
+    void writesShouldGoToThePrimaryAndReadsToTheReplica() throws Exception {
+        // Arrange
+        replica.update("INSERT INTO products (id, name, description, price, created_at, version) VALUES (?, ?, ?, ?, ?, 0)",
+                1_000_000L, "Replica Product", null, 5, Timestamp.valueOf(LocalDateTime.now()));
+
+        // Act
+        long id = id(create("Primary Product"));
+
+        // Assert
+        assertEquals(1, primary.queryForObject("SELECT count(*) FROM products WHERE id = ?", Integer.class, id));
+        mockMvc.perform(get("/products/{id}", id))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/products"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[*].name", contains("Replica Product")));
+        mockMvc.perform(get("/products/cursor"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[*].name", contains("Replica Product")));
+        mockMvc.perform(get("/products/slice"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[*].name", contains("Replica Product")));
+    }
+
+    @Test
+    void clientThatJustWrote_ShouldReadItsWritesFromThePrimary() throws Exception {
+        // Arrange
+        MockHttpServletResponse created = create("Fresh Product");
+        Cookie token = created.getCookie("productapi-ryw");
+        long id = id(created);
+
+        // Act & Assert
+        assertNotNull(token);
+        mockMvc.perform(get("/products/{id}", id).cookie(token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Fresh Product"));
+        mockMvc.perform(get("/products").cookie(token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[*].name", contains("Fresh Product")));
+        mockMvc.perform(get("/products/cursor").cookie(token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[*].name", contains("Fresh Product")));
+    }
+
+    @Test
+    void replicaReads_ShouldNotFillTheProductCache() throws Exception {
+        // Arrange - The replica still has the product as it was before the client renamed it
+        MockHttpServletResponse created = create("Old Product");
+        Cookie token = created.getCookie("productapi-ryw");
+        long id = id(created);
+        replica.update("INSERT INTO products (id, name, description, price, created_at, version) VALUES (?, ?, ?, ?, ?, 0)",
+                id, "Old Product", null, 10, Timestamp.valueOf(LocalDateTime.now()));
+        mockMvc.perform(put("/products/{id}", id).cookie(token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"New Product\",\"price\":10.00}"))
+                .andExpect(status().isOk());
+
+        // Act & Assert - Another client reads the stale row without caching it, so the writer still sees its write,
+        // which bypasses the cache too
+        mockMvc.perform(get("/products/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Old Product"));
+        assertNull(cacheManager.getCache(CacheConfig.PRODUCTS_CACHE).get(id));
+        mockMvc.perform(get("/products/{id}", id).cookie(token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("New Product"));
+        assertNull(cacheManager.getCache(CacheConfig.PRODUCTS_CACHE).get(id));
+    }
+
+    private MockHttpServletResponse create(String name) throws Exception {
+        return mockMvc.perform(post("/products")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"" + name + "\",\"price\":10.00}"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse();
+    }
+
+    private long id(MockHttpServletResponse response) throws Exception {
+        JsonNode created = objectMapper.readTree(response.getContentAsString());
+        return created.get("id").asLong();
+    }
+}
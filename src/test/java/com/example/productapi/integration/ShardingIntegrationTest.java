@@ -0,0 +1,172 @@
+package com.example.productapi.integration;
+
+import com.example.productapi.config.CacheConfig;
+import com.example.productapi.repository.ProductShards;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.hamcrest.Matchers.contains;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Three embedded H2 databases act as shards; each one is also queried directly to check where rows landed.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestPropertySource(properties = {
+    "spring.datasource.url=" + ShardingIntegrationTest.SHARD_0,
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.hibernate.ddl-auto=validate",
+    "productapi.sharding.urls=" + ShardingIntegrationTest.SHARD_0 + "," + ShardingIntegrationTest.SHARD_1 + ","
+            + ShardingIntegrationTest.SHARD_2
+})
+class ShardingIntegrationTest {
+
+    static final String SHARD_0 = "jdbc:h2:mem:shard0;DB_CLOSE_DELAY=-1";
+    static final String SHARD_1 = "jdbc:h2:mem:shard1;DB_CLOSE_DELAY=-1";
+    static final String SHARD_2 = "jdbc:h2:mem:shard2;DB_CLOSE_DELAY=-1";
+
+    private static final List<JdbcTemplate> shards = List.of(
+            new JdbcTemplate(new DriverManagerDataSource(SHARD_0, "sa", "")),
+            new JdbcTemplate(new DriverManagerDataSource(SHARD_1, "sa", "")),
+            new JdbcTemplate(new DriverManagerDataSource(SHARD_2, "sa", "")));
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @AfterEach
+    void tearDown() {
+        shards.forEach(shard -> shard.update("DELETE FROM products"));
+        cacheManager.getCache(CacheConfig.PRODUCTS_CACHE).clear();
+        cacheManager.getCache(CacheConfig.PRODUCT_RESPONSES_CACHE).clear();
+    }
+
+    @Test
+    void createdProducts_ShouldBeSpreadOverTheShardsAndFoundById() throws Exception {
+        // Act
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            ids.add(create("Sharded Product " + i, "1" + i + ".00"));
+        }
+
+        // Assert - Each row lives only in the shard its id names
+        Set<Integer> usedShards = new HashSet<>();
+        for (long id : ids) {
+            int shard = ProductShards.shardOf(id);
+            usedShards.add(shard);
+            for (int i = 0; i < shards.size(); i++) {
+                assertEquals(i == shard ? 1 : 0, shards.get(i).queryForObject(
+                        "SELECT count(*) FROM products WHERE id = ?", Integer.class, id));
+            }
+            mockMvc.perform(get("/products/{id}", id))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.id").value(id));
+        }
+        assertEquals(Set.of(0, 1, 2), usedShards);
+    }
+
+    @Test
+    void listings_ShouldMergeAllShardsInSortOrderWithCorrectPaging() throws Exception {
+        // Arrange - Prices descending in creation order, so consecutive prices sit on different shards
+        for (int i = 0; i < 7; i++) {
+            create("Listed Product " + i, (70 - i * 10) + ".00");
+        }
+
+        // Act & Assert
+        mockMvc.perform(get("/products").param("page", "1").param("size", "3").param("sort", "price,asc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(7))
+                .andExpect(jsonPath("$.totalPages").value(3))
+                .andExpect(jsonPath("$.content[*].name",
+                        contains("Listed Product 3", "Listed Product 2", "Listed Product 1")));
+
+        List<String> names = new ArrayList<>();
+        String after = null;
+        do {
+            String body = mockMvc.perform(get("/products/cursor").param("size", "2").param("sort", "price,desc")
+                            .param("after", after != null ? after : ""))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            JsonNode page = objectMapper.readTree(body);
+            page.get("content").forEach(product -> names.add(product.get("name").asText()));
+            after = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asText();
+        } while (after != null);
+        assertEquals(List.of("Listed Product 0", "Listed Product 1", "Listed Product 2", "Listed Product 3",
+                "Listed Product 4", "Listed Product 5", "Listed Product 6"), names);
+    }
+
+    @Test
+    void stringSorts_ShouldBeRejected() throws Exception {
+        // Act & Assert - Each shard would order strings by its own collation
+        mockMvc.perform(get("/products").param("sort", "name,asc"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Sorting by name is not supported with sharding"));
+        mockMvc.perform(get("/products/cursor").param("sort", "name,asc"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void writesById_ShouldReachTheProductsShard() throws Exception {
+        // Arrange
+        long first = create("First Product", "10.00");
+        long second = create("Second Product", "20.00");
+
+        // Act
+        mockMvc.perform(patch("/products/{id}", second)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"price\":25.00}"))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(delete("/products/{id}", first))
+                .andExpect(status().isNoContent());
+
+        // Assert
+        mockMvc.perform(get("/products/{id}", second))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.price").value(25.00));
+        mockMvc.perform(get("/products/{id}", first))
+                .andExpect(status().isNotFound());
+        // An id naming a shard that does not exist is simply not found
+        mockMvc.perform(get("/products/{id}", ProductShards.encode(5, 1)))
+                .andExpect(status().isNotFound());
+    }
+
+    private long create(String name, String price) throws Exception {
+        String body = mockMvc.perform(post("/products")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"" + name + "\",\"price\":" + price + "}"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body).get("id").asLong();
+    }
+}
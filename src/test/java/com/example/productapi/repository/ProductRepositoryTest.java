@@ -1,9 +1,12 @@
 package com.example.productapi.repository;
 
+import com.example.productapi.dto.ProductView;
 import com.example.productapi.model.Product;
+import org.hibernate.Session;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -13,6 +16,7 @@ import org.springframework.test.context.TestPropertySource;
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -23,13 +27,16 @@ import static org.junit.jupiter.api.Assertions.*;
     "spring.datasource.password=",
     "spring.datasource.driver-class-name=org.h2.Driver",
     "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
-    "spring.jpa.hibernate.ddl-auto=create-drop"
+    "spring.jpa.hibernate.ddl-auto=validate"
 })
 class ProductRepositoryTest {
 
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private TestEntityManager entityManager;
+
     @Test
     void saveProduct_ShouldPersistProduct() {
         // Arrange
@@ -165,6 +172,80 @@ class ProductRepositoryTest {
         assertEquals(new BigDecimal("100.00"), productsByPrice.get(2).getPrice());
     }
 
+    @Test
+    void findViewById_ShouldReturnProjectionWithoutManagingEntity() {
+        // Arrange
+        Product product = new Product();
+        product.setName("Test Product");
+        product.setDescription("Test Description");
+        product.setPrice(new BigDecimal("99.99"));
+        Product savedProduct = entityManager.persistFlushFind(product);
+        entityManager.clear();
+
+        // Act
+        Optional<ProductView> view = productRepository.findViewById(savedProduct.getId());
+
+        // Assert
+        assertTrue(view.isPresent());
+        assertEquals(savedProduct.getId(), view.get().id());
+        assertEquals("Test Product", view.get().name());
+        assertEquals(new BigDecimal("99.99"), view.get().price());
+        assertEquals(savedProduct.getCreatedAt(), view.get().createdAt());
+        assertEquals(0, managedEntityCount());
+        assertFalse(productRepository.findViewById(999L).isPresent());
+    }
+
+    @Test
+    void findViews_ShouldPageSortAndFilterWithoutManagingEntities() {
+        // Arrange
+        productRepository.deleteAll(); // Ensure clean state
+
+        for (int i = 1; i <= 5; i++) {
+            Product product = new Product();
+            product.setName("Product " + i);
+            product.setPrice(new BigDecimal(i * 100));
+            productRepository.save(product);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        // Act
+        Page<ProductView> firstPage = productRepository.findViews(null, PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "price")));
+        Page<ProductView> filtered = productRepository.findViews(
+                ProductSpecifications.priceAtLeast(new BigDecimal("300")), PageRequest.of(0, 10, Sort.by("price")));
+
+        // Assert
+        assertEquals(5, firstPage.getTotalElements());
+        assertEquals(List.of("Product 5", "Product 4"), firstPage.getContent().stream().map(ProductView::name).toList());
+        assertEquals(3, filtered.getTotalElements());
+        assertEquals(new BigDecimal("300.00"), filtered.getContent().get(0).price());
+        assertEquals(0, managedEntityCount());
+    }
+
+    @Test
+    void streamMatching_ShouldStreamFilteredProductsInIdOrder() {
+        // Arrange
+        productRepository.deleteAll(); // Ensure clean state
+
+        for (int i = 5; i >= 1; i--) {
+            Product product = new Product();
+            product.setName("Product " + i);
+            product.setPrice(new BigDecimal(i * 100));
+            productRepository.save(product);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        // Act
+        List<Product> products;
+        try (Stream<Product> stream = productRepository.streamMatching(ProductSpecifications.priceAtMost(new BigDecimal("300")))) {
+            products = stream.toList();
+        }
+
+        // Assert
+        assertEquals(List.of("Product 3", "Product 2", "Product 1"), products.stream().map(Product::getName).toList());
+    }
+
     @Test
     void deleteById_ShouldRemoveProduct() {
         // Arrange
@@ -181,4 +262,63 @@ class ProductRepositoryTest {
         // Assert
         assertFalse(deletedProduct.isPresent());
     }
+
+    @Test
+    void findAfter_ShouldSeekPastLastRowInSortOrder() {
+        // Arrange
+        productRepository.deleteAll(); // Ensure clean state
+
+        // Two products share a price so the id tie-breaker is exercised
+        BigDecimal[] prices = {new BigDecimal("30.00"), new BigDecimal("10.00"), new BigDecimal("20.00"),
+                new BigDecimal("20.00"), new BigDecimal("40.00")};
+        for (int i = 0; i < prices.length; i++) {
+            Product product = new Product();
+            product.setName("Product " + i);
+            product.setPrice(prices[i]);
+            productRepository.save(product);
+        }
+
+        // Act - Walk the price ordering two rows at a time
+        List<Product> firstPage = productRepository.findAfter("price", Sort.Direction.ASC, null, null, 2);
+        Product last = firstPage.get(1);
+        List<Product> secondPage = productRepository.findAfter("price", Sort.Direction.ASC, last.getPrice(), last.getId(), 2);
+        last = secondPage.get(1);
+        List<Product> thirdPage = productRepository.findAfter("price", Sort.Direction.ASC, last.getPrice(), last.getId(), 2);
+
+        // Assert
+        assertEquals(new BigDecimal("10.00"), firstPage.get(0).getPrice());
+        assertEquals(new BigDecimal("20.00"), firstPage.get(1).getPrice());
+        assertEquals(new BigDecimal("20.00"), secondPage.get(0).getPrice());
+        assertTrue(secondPage.get(0).getId() > firstPage.get(1).getId());
+        assertEquals(new BigDecimal("30.00"), secondPage.get(1).getPrice());
+        assertEquals(1, thirdPage.size());
+        assertEquals(new BigDecimal("40.00"), thirdPage.get(0).getPrice());
+    }
+
+    @Test
+    void findAfter_WithDescendingId_ShouldReturnOlderRows() {
+        // Arrange
+        productRepository.deleteAll(); // Ensure clean state
+
+        Product first = new Product();
+        first.setName("Product 1");
+        first.setPrice(new BigDecimal("10.00"));
+        first = productRepository.save(first);
+
+        Product second = new Product();
+        second.setName("Product 2");
+        second.setPrice(new BigDecimal("20.00"));
+        second = productRepository.save(second);
+
+        // Act
+        List<Product> products = productRepository.findAfter("id", Sort.Direction.DESC, second.getId(), second.getId(), 10);
+
+        // Assert
+        assertEquals(1, products.size());
+        assertEquals(first.getId(), products.get(0).getId());
+    }
+
+    private int managedEntityCount() {
+        return entityManager.getEntityManager().unwrap(Session.class).getStatistics().getEntityCount();
+    }
 }
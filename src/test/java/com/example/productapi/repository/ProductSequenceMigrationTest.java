@@ -0,0 +1,54 @@
+package com.example.productapi.repository;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ProductSequenceMigrationTest {
+
+    @Test
+    void migrate_ShouldMoveProductSeqPastExistingIds() {
+        // Arrange - Rows whose ids are ahead of the sequence, as in a database baselined at V1
+        JdbcTemplate jdbcTemplate = migrateToV4("jdbc:h2:mem:sequencemigration;DB_CLOSE_DELAY=-1");
+        jdbcTemplate.update("insert into products (id, name, price) values (1234, 'Existing Product', 10.00)");
+
+        // Act
+        flyway(jdbcTemplate.getDataSource(), "latest").migrate();
+
+        // Assert - The next pooled block of 50 ends at the returned value, so it starts right above the id
+        assertEquals(1234 + 50, jdbcTemplate.queryForObject("select next value for product_seq", Long.class));
+    }
+
+    @Test
+    void migrate_ShouldOnlyCountTheSequencePartOfShardIds() {
+        // Arrange
+        JdbcTemplate jdbcTemplate = migrateToV4("jdbc:h2:mem:shardsequencemigration;DB_CLOSE_DELAY=-1");
+        jdbcTemplate.update("insert into products (id, name, price) values (?, 'Shard Product', 10.00)",
+                ProductShards.encode(1, 1234));
+
+        // Act
+        flyway(jdbcTemplate.getDataSource(), "latest").migrate();
+
+        // Assert
+        assertEquals(1234 + 50, jdbcTemplate.queryForObject("select next value for product_seq", Long.class));
+    }
+
+    private static JdbcTemplate migrateToV4(String url) {
+        DataSource dataSource = new DriverManagerDataSource(url, "sa", "");
+        flyway(dataSource, "4").migrate();
+        return new JdbcTemplate(dataSource);
+    }
+
+    private static Flyway flyway(DataSource dataSource, String target) {
+        return Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration/common", "classpath:db/migration/h2")
+                .target(target)
+                .load();
+    }
+}
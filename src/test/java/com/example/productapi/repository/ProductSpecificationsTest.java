@@ -0,0 +1,136 @@
+package com.example.productapi.repository;
+
+import com.example.productapi.dto.ProductFilter;
+import com.example.productapi.model.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@TestPropertySource(properties = {
+    "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.hibernate.ddl-auto=validate",
+    "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.example.productapi.repository.SqlCapturingInspector"
+})
+class ProductSpecificationsTest {
+
+    private static final LocalDateTime MONDAY = LocalDateTime.of(2024, 1, 8, 0, 0);
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        // createdAt is set on persist, so the creation window is arranged with plain SQL afterwards
+        save("Laptop Pro", "5.00", MONDAY.minusDays(3));
+        save("laptop stand", "25.00", MONDAY.plusDays(1));
+        save("Desk Lamp", "45.00", MONDAY.plusDays(2));
+        save("Lap_Tray 100%", "60.00", MONDAY.plusDays(8));
+        SqlCapturingInspector.clear();
+    }
+
+    @Test
+    void matching_WithPriceRange_ShouldReturnProductsWithinInclusiveBounds() {
+        // Act
+        List<Product> products = productRepository.findAll(
+                ProductSpecifications.matching(filter(new BigDecimal("25.00"), new BigDecimal("45.00"), null, null, null)),
+                Sort.by("price"));
+
+        // Assert
+        assertEquals(List.of("laptop stand", "Desk Lamp"), names(products));
+    }
+
+    @Test
+    void matching_WithCreationWindow_ShouldIncludeFromAndExcludeTo() {
+        // Act
+        List<Product> products = productRepository.findAll(
+                ProductSpecifications.matching(filter(null, null, MONDAY.plusDays(1), MONDAY.plusDays(2), null)),
+                Sort.by("id"));
+
+        // Assert
+        assertEquals(List.of("laptop stand"), names(products));
+    }
+
+    @Test
+    void matching_WithNamePrefix_ShouldIgnoreCaseAndTreatWildcardsLiterally() {
+        // Act
+        List<Product> lap = productRepository.findAll(
+                ProductSpecifications.matching(filter(null, null, null, null, "LAP")), Sort.by("id"));
+        List<Product> underscore = productRepository.findAll(
+                ProductSpecifications.matching(filter(null, null, null, null, "lap_")), Sort.by("id"));
+
+        // Assert
+        assertEquals(List.of("Laptop Pro", "laptop stand", "Lap_Tray 100%"), names(lap));
+        assertEquals(List.of("Lap_Tray 100%"), names(underscore));
+    }
+
+    @Test
+    void matching_WithCombinedFilters_ShouldApplyAllOfThem() {
+        // Act
+        List<Product> products = productRepository.findAll(ProductSpecifications.matching(
+                filter(new BigDecimal("10.00"), null, MONDAY, null, "lap")), Sort.by("id"));
+
+        // Assert
+        assertEquals(List.of("laptop stand", "Lap_Tray 100%"), names(products));
+    }
+
+    @Test
+    void priceRangeQuery_ShouldUsePriceIndex() {
+        // Arrange
+        BigDecimal min = new BigDecimal("10.00");
+        BigDecimal max = new BigDecimal("50.00");
+        productRepository.findAll(ProductSpecifications.matching(filter(min, max, null, null, null)));
+
+        // Act
+        String plan = explain(SqlCapturingInspector.lastSelect(), min, max);
+
+        // Assert
+        assertTrue(plan.contains("IDX_PRODUCTS_PRICE"), plan);
+    }
+
+    @Test
+    void creationWindowQuery_ShouldUseCreatedAtIndex() {
+        // Arrange
+        LocalDateTime from = MONDAY;
+        LocalDateTime to = MONDAY.plusDays(7);
+        productRepository.findAll(ProductSpecifications.matching(filter(null, null, from, to, null)));
+
+        // Act
+        String plan = explain(SqlCapturingInspector.lastSelect(), Timestamp.valueOf(from), Timestamp.valueOf(to));
+
+        // Assert
+        assertTrue(plan.contains("IDX_PRODUCTS_CREATED_AT"), plan);
+    }
+
+    private void save(String name, String price, LocalDateTime createdAt) {
+        Product product = productRepository.saveAndFlush(new Product(null, name, null, new BigDecimal(price), null, null));
+        jdbcTemplate.update("update products set created_at = ? where id = ?", Timestamp.valueOf(createdAt), product.getId());
+    }
+
+    private String explain(String sql, Object... parameters) {
+        return String.join("\n", jdbcTemplate.queryForList("explain " + sql, String.class, parameters));
+    }
+
+    private static ProductFilter filter(BigDecimal minPrice, BigDecimal maxPrice, LocalDateTime createdFrom,
+                                        LocalDateTime createdTo, String namePrefix) {
+        return new ProductFilter(minPrice, maxPrice, createdFrom, createdTo, namePrefix);
+    }
+
+    private static List<String> names(List<Product> products) {
+        return products.stream().map(Product::getName).toList();
+    }
+}
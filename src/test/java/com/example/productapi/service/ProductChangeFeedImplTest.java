@@ -0,0 +1,225 @@
+package com.example.productapi.service;
+
+import com.example.productapi.exception.ChangesExpiredException;
+import com.example.productapi.model.Product;
+import com.example.productapi.model.ProductChange;
+import com.example.productapi.model.ProductChangeOutbox;
+import com.example.productapi.model.ProductPatch;
+import com.example.productapi.repository.ProductChangeOutboxRepository;
+import com.example.productapi.repository.ProductChangeRepository;
+import com.example.productapi.service.impl.ProductChangeFeedImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.OptimisticLockException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductChangeFeedImplTest {
+
+    private static final Duration WAIT = Duration.ofSeconds(5);
+
+    @Mock
+    private ProductChangeRepository productChangeRepository;
+
+    @Mock
+    private ProductChangeOutboxRepository productChangeOutboxRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private ProductChangeFeedImpl feed;
+
+    @BeforeEach
+    void setUp() {
+        // Continues after the 10 changes already in the table; the ring holds the 4 most recent
+        lenient().when(productChangeRepository.findMaxSequence()).thenReturn(10L);
+        feed = new ProductChangeFeedImpl(productChangeRepository, productChangeOutboxRepository, entityManager,
+                transactionManager, meterRegistry, List.of(), 4, Duration.ofDays(7), Duration.ofMillis(10), Duration.ofMillis(50));
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        feed.shutdown();
+    }
+
+    @Test
+    void recordChange_ShouldWriteTheChangeToTheOutbox() {
+        // Arrange
+        Product saved = new Product(1L, "Product", null, new BigDecimal("10.00"), LocalDateTime.now(), 3L);
+        ArgumentCaptor<ProductChangeOutbox> entries = ArgumentCaptor.forClass(ProductChangeOutbox.class);
+
+        // Act
+        feed.recordChange(ProductChangedEvent.saved(saved));
+        feed.recordChange(ProductChangedEvent.patched(new ProductPatch(1L, null, false, null, new BigDecimal("11.00"))));
+        feed.recordChange(ProductChangedEvent.deleted(1L));
+
+        // Assert - Saves are flushed first, so the entry has the incremented version
+        InOrder inOrder = inOrder(entityManager);
+        inOrder.verify(entityManager).flush();
+        inOrder.verify(entityManager, times(3)).persist(entries.capture());
+        verifyNoMoreInteractions(entityManager);
+        assertEquals(List.of(ProductChangedEvent.Type.SAVED, ProductChangedEvent.Type.PATCHED, ProductChangedEvent.Type.DELETED),
+                entries.getAllValues().stream().map(ProductChangeOutbox::getType).toList());
+        assertEquals(3L, entries.getAllValues().get(0).getVersion());
+        assertNull(entries.getAllValues().get(1).getVersion());
+        assertNull(entries.getAllValues().get(0).getId());
+    }
+
+    @Test
+    void recordChange_WithLostVersionRace_ShouldThrowOptimisticLockingFailure() {
+        // Arrange
+        Product saved = new Product(1L, "Product", null, new BigDecimal("10.00"), LocalDateTime.now(), 3L);
+        doThrow(new OptimisticLockException("Row was updated by another transaction")).when(entityManager).flush();
+
+        // Act & Assert
+        assertThrows(ObjectOptimisticLockingFailureException.class,
+                () -> feed.recordChange(ProductChangedEvent.saved(saved)));
+        verify(entityManager, never()).persist(any());
+    }
+
+    @Test
+    void relay_ShouldNumberOutboxEntriesAfterTheLastSequence() {
+        // Arrange
+        when(productChangeOutboxRepository.findByOrderById(any(Limit.class)))
+                .thenReturn(List.of(outboxEntry(5L), outboxEntry(6L)))
+                .thenReturn(List.of());
+        when(productChangeRepository.lockLastSequence()).thenReturn(10L);
+        ArgumentCaptor<ProductChange> changes = ArgumentCaptor.forClass(ProductChange.class);
+
+        // Act
+        feed.start();
+
+        // Assert
+        verify(productChangeOutboxRepository, timeout(WAIT.toMillis())).deleteAllByIdInBatch(List.of(5L, 6L));
+        verify(entityManager, times(2)).persist(changes.capture());
+        assertEquals(List.of(11L, 12L), changes.getAllValues().stream().map(ProductChange::getSequence).toList());
+        assertEquals(List.of(5L, 6L), changes.getAllValues().stream().map(ProductChange::getOutboxId).toList());
+        verify(productChangeRepository).updateLastSequence(12L);
+    }
+
+    @Test
+    void relay_WithEntriesAlreadyRelayed_ShouldOnlyDeleteThem() {
+        // Arrange - A previous relay appended entry 5 but failed to delete it
+        when(productChangeOutboxRepository.findByOrderById(any(Limit.class)))
+                .thenReturn(List.of(outboxEntry(5L), outboxEntry(6L)))
+                .thenReturn(List.of());
+        when(productChangeRepository.lockLastSequence()).thenReturn(10L);
+        when(productChangeRepository.findRelayedOutboxIds(0, List.of(5L, 6L))).thenReturn(Set.of(5L));
+        ArgumentCaptor<ProductChange> changes = ArgumentCaptor.forClass(ProductChange.class);
+
+        // Act
+        feed.start();
+
+        // Assert
+        verify(productChangeOutboxRepository, timeout(WAIT.toMillis())).deleteAllByIdInBatch(List.of(5L, 6L));
+        verify(entityManager).persist(changes.capture());
+        assertEquals(11L, changes.getValue().getSequence());
+        assertEquals(6L, changes.getValue().getOutboxId());
+        verify(productChangeRepository).updateLastSequence(11L);
+    }
+
+    @Test
+    void relay_WithFailedAppend_ShouldKeepTheEntriesForTheNextRound() {
+        // Arrange
+        when(productChangeOutboxRepository.findByOrderById(any(Limit.class)))
+                .thenReturn(List.of(outboxEntry(5L)))
+                .thenReturn(List.of(outboxEntry(5L)))
+                .thenReturn(List.of());
+        when(productChangeRepository.lockLastSequence())
+                .thenThrow(new IllegalStateException("database down"))
+                .thenReturn(10L);
+
+        // Act
+        feed.start();
+
+        // Assert - Deleted only once it is in the feed, and the failure is counted
+        verify(productChangeOutboxRepository, timeout(WAIT.toMillis())).deleteAllByIdInBatch(List.of(5L));
+        verify(entityManager).persist(any(ProductChange.class));
+        assertEquals(1.0, meterRegistry.counter("productapi.changes.relay.failures").count());
+    }
+
+    @Test
+    void changesAfter_ShouldServeTailedChangesAndReadFromTheTableBehindTheBuffer() throws InterruptedException {
+        // Arrange - Six changes appended by any instance, of which the ring keeps 13 to 16
+        List<ProductChange> appended = LongStream.rangeClosed(11, 16).mapToObj(ProductChangeFeedImplTest::change).toList();
+        List<ProductChange> fromTable = List.of(change(12L));
+        when(productChangeRepository.findBySequenceGreaterThanOrderBySequence(anyLong(), any(Limit.class)))
+                .thenAnswer(invocation -> switch (invocation.<Long>getArgument(0).intValue()) {
+                    case 10 -> appended;
+                    case 11 -> fromTable;
+                    default -> List.of();
+                });
+
+        // Act
+        feed.start();
+        List<ProductChange> latest = awaitChanges(14, 2);
+
+        // Assert
+        assertEquals(List.of(15L, 16L), latest.stream().map(ProductChange::getSequence).toList());
+        assertEquals(16L, feed.lastSequence());
+        assertEquals(fromTable, feed.changesAfter(11, 100, WAIT));
+        assertEquals(List.of(13L, 14L), feed.changesAfter(12, 2, WAIT).stream().map(ProductChange::getSequence).toList());
+        assertEquals(List.of(), feed.changesAfter(16, 100, Duration.ZERO));
+    }
+
+    @Test
+    void changesAfter_WithPrunedCursor_ShouldThrowChangesExpired() throws InterruptedException {
+        // Arrange - Changes up to 10 were pruned, so the table starts at 11
+        List<ProductChange> retained = LongStream.rangeClosed(11, 16).mapToObj(ProductChangeFeedImplTest::change).toList();
+        when(productChangeRepository.findBySequenceGreaterThanOrderBySequence(anyLong(), any(Limit.class)))
+                .thenAnswer(invocation -> switch (invocation.<Long>getArgument(0).intValue()) {
+                    case 0, 7, 10 -> retained;
+                    default -> List.of();
+                });
+        feed.start();
+        awaitChanges(14, 2);
+
+        // Act & Assert - Resuming right before the oldest retained change, or replaying from 0, is fine
+        assertEquals(retained, feed.changesAfter(10, 100, WAIT));
+        assertEquals(retained, feed.changesAfter(0, 100, WAIT));
+        assertThrows(ChangesExpiredException.class, () -> feed.changesAfter(7, 100, WAIT));
+        assertThrows(ChangesExpiredException.class, () -> feed.changesAfter(9, 100, WAIT));
+    }
+
+    private List<ProductChange> awaitChanges(long after, int count) throws InterruptedException {
+        long deadline = System.nanoTime() + WAIT.toNanos();
+        while (feed.lastSequence() < after + count && System.nanoTime() < deadline) {
+            feed.changesAfter(feed.lastSequence(), 1, Duration.ofMillis(100));
+        }
+        return feed.changesAfter(after, count, Duration.ZERO);
+    }
+
+    private static ProductChangeOutbox outboxEntry(long id) {
+        return new ProductChangeOutbox(id, ProductChangedEvent.Type.DELETED, id, null, LocalDateTime.now());
+    }
+
+    private static ProductChange change(long sequence) {
+        return new ProductChange(sequence, ProductChangedEvent.Type.DELETED, sequence, null, LocalDateTime.now());
+    }
+}
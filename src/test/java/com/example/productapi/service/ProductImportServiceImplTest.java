@@ -0,0 +1,193 @@
+package com.example.productapi.service;
+
+import com.example.productapi.dto.BatchItemResult;
+import com.example.productapi.dto.ImportFormat;
+import com.example.productapi.dto.ImportJobStatus;
+import com.example.productapi.dto.ProductDTO;
+import com.example.productapi.exception.ImportTooLargeException;
+import com.example.productapi.exception.TooManyImportsException;
+import com.example.productapi.repository.ProductShards;
+import com.example.productapi.service.impl.ProductBatchWriter;
+import com.example.productapi.service.impl.ProductImportServiceImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProductImportServiceImplTest {
+
+    private static final Duration WAIT = Duration.ofSeconds(5);
+
+    @Mock
+    private ProductBatchWriter productBatchWriter;
+
+    private final CountDownLatch writing = new CountDownLatch(1);
+    private final CountDownLatch releaseWrites = new CountDownLatch(1);
+
+    private ProductImportServiceImpl importService;
+
+    @AfterEach
+    void tearDown() {
+        releaseWrites.countDown();
+        importService.shutdown();
+    }
+
+    @Test
+    void startImport_WithByteOrderMark_ShouldReadTheHeader() throws Exception {
+        // Arrange
+        importService = service(2, 4, DataSize.ofMegabytes(1), 100);
+        acceptAllRows();
+
+        // Act
+        ImportJobStatus started = importService.startImport(csv("\uFEFFname,price\nBOM Product,1.00\n"), ImportFormat.CSV, -1);
+
+        // Assert
+        ImportJobStatus finished = awaitFinished(started.getId());
+        assertEquals(ImportJobStatus.State.COMPLETED, finished.getState());
+        assertEquals(1, finished.getRowsImported());
+    }
+
+    @Test
+    void startImport_LargerThanTheLimit_ShouldBeRejected() throws Exception {
+        // Arrange
+        importService = service(2, 4, DataSize.ofBytes(64), 100);
+        String body = "name,price\n" + "Product,1.00\n".repeat(10);
+
+        // Act & Assert - A declared length is checked before reading, a chunked upload while reading
+        assertThrows(ImportTooLargeException.class, () -> importService.startImport(csv(body), ImportFormat.CSV, body.length()));
+        assertThrows(ImportTooLargeException.class, () -> importService.startImport(csv(body), ImportFormat.CSV, -1));
+    }
+
+    @Test
+    void startImport_WhenValidationFails_ShouldStopParsing() throws Exception {
+        // Arrange - Far more rows than the queue between parser and validator holds
+        importService = service(2, 4, DataSize.ofMegabytes(1), 100);
+        when(productBatchWriter.validate(any(ProductDTO.class))).thenThrow(new IllegalStateException("validator down"));
+        String body = "name,price\n" + "Product,1.00\n".repeat(1_000);
+
+        // Act
+        ImportJobStatus started = importService.startImport(csv(body), ImportFormat.CSV, body.length());
+
+        // Assert
+        ImportJobStatus finished = awaitFinished(started.getId());
+        assertEquals(ImportJobStatus.State.QUEUED, started.getState());
+        assertEquals(ImportJobStatus.State.FAILED, finished.getState());
+        assertEquals("validator down", finished.getMessage());
+        assertTrue(finished.getRowsRead() < 1_000, "rows read " + finished.getRowsRead());
+    }
+
+    @Test
+    void startImport_WithEverySlotTaken_ShouldRejectTheUpload() throws Exception {
+        // Arrange - One running job and no queue
+        importService = service(1, 0, DataSize.ofMegabytes(1), 100);
+        blockWrites();
+        importService.startImport(csv("name,price\nProduct,1.00\n"), ImportFormat.CSV, -1);
+        assertTrue(writing.await(WAIT.toMillis(), TimeUnit.MILLISECONDS));
+
+        // Act & Assert
+        assertThrows(TooManyImportsException.class,
+                () -> importService.startImport(csv("name,price\nProduct,1.00\n"), ImportFormat.CSV, -1));
+    }
+
+    @Test
+    void startImport_BeyondTheRetainedJobs_ShouldOnlyForgetFinishedOnes() throws Exception {
+        // Arrange - The first job stays running while later ones finish
+        importService = service(2, 4, DataSize.ofMegabytes(1), 1);
+        blockWrites();
+        UUID running = importService.startImport(csv("name,price\nBlocked Product,1.00\n"), ImportFormat.CSV, -1).getId();
+        assertTrue(writing.await(WAIT.toMillis(), TimeUnit.MILLISECONDS));
+        UUID first = importService.startImport(csv("name,price\n"), ImportFormat.CSV, -1).getId();
+        awaitFinished(first);
+
+        // Act
+        UUID second = importService.startImport(csv("name,price\n"), ImportFormat.CSV, -1).getId();
+
+        // Assert
+        assertEquals(ImportJobStatus.State.RUNNING, importService.getImportStatus(running).getState());
+        assertThrows(EntityNotFoundException.class, () -> importService.getImportStatus(first));
+        assertNotNull(importService.getImportStatus(second));
+    }
+
+    @Test
+    void startImport_WithShards_ShouldWriteTheChunksToTheShardsInTurn() throws Exception {
+        // Arrange - Eight rows make four chunks of two
+        importService = new ProductImportServiceImpl(productBatchWriter, new ObjectMapper(), 4, 2, 100, 2, 4,
+                DataSize.ofMegabytes(1), 100, List.of("jdbc:h2:mem:shard0", "jdbc:h2:mem:shard1"), false);
+        List<Integer> shards = Collections.synchronizedList(new ArrayList<>());
+        when(productBatchWriter.validate(any(ProductDTO.class))).thenReturn(Map.of());
+        when(productBatchWriter.write(anyList())).thenAnswer(invocation -> {
+            shards.add(ProductShards.current());
+            return created(invocation.getArgument(0));
+        });
+
+        // Act
+        ImportJobStatus started = importService.startImport(csv("name,price\n" + "Product,1.00\n".repeat(8)), ImportFormat.CSV, -1);
+
+        // Assert
+        ImportJobStatus finished = awaitFinished(started.getId());
+        assertEquals(ImportJobStatus.State.COMPLETED, finished.getState());
+        assertEquals(8, finished.getRowsImported());
+        assertEquals(List.of(0, 1, 0, 1), shards);
+    }
+
+    private ProductImportServiceImpl service(int maxConcurrentJobs, int maxQueuedJobs, DataSize maxUploadSize, int retainedJobs) {
+        return new ProductImportServiceImpl(productBatchWriter, new ObjectMapper(), 4, 2, 100,
+                maxConcurrentJobs, maxQueuedJobs, maxUploadSize, retainedJobs, List.of(), false);
+    }
+
+    private void acceptAllRows() {
+        when(productBatchWriter.validate(any(ProductDTO.class))).thenReturn(Map.of());
+        when(productBatchWriter.write(anyList())).thenAnswer(invocation -> created(invocation.getArgument(0)));
+    }
+
+    private void blockWrites() {
+        when(productBatchWriter.validate(any(ProductDTO.class))).thenReturn(Map.of());
+        when(productBatchWriter.write(anyList())).thenAnswer(invocation -> {
+            writing.countDown();
+            releaseWrites.await();
+            return created(invocation.getArgument(0));
+        });
+    }
+
+    private static List<BatchItemResult> created(List<ProductDTO> items) {
+        return IntStream.range(0, items.size()).mapToObj(i -> BatchItemResult.created(i, (long) i)).toList();
+    }
+
+    private ImportJobStatus awaitFinished(UUID jobId) throws InterruptedException {
+        long deadline = System.nanoTime() + WAIT.toNanos();
+        ImportJobStatus status = importService.getImportStatus(jobId);
+        while ((status.getState() == ImportJobStatus.State.QUEUED || status.getState() == ImportJobStatus.State.RUNNING)
+                && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            status = importService.getImportStatus(jobId);
+        }
+        return status;
+    }
+
+    private static InputStream csv(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
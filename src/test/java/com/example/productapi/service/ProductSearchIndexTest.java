@@ -0,0 +1,135 @@
+package com.example.productapi.service;
+
+import com.example.productapi.model.Product;
+import com.example.productapi.service.impl.ProductSearchIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductSearchIndexTest {
+
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductSearchIndex();
+        index.index(product(1L, "Gaming Laptop", "Fast laptop with a bright screen"));
+        index.index(product(2L, "Office Chair", "Ergonomic chair for laptop users"));
+        index.index(product(3L, "USB-C Cable", "Charges phones and laptops"));
+    }
+
+    @Test
+    void tokenize_ShouldLowerCaseStripAccentsAndSplitOnPunctuation() {
+        // Act
+        List<String> tokens = ProductSearchIndex.tokenize("Café USB-C, 16GB!");
+
+        // Assert
+        assertEquals(List.of("cafe", "usb", "c", "16gb"), tokens);
+    }
+
+    @Test
+    void search_ShouldRankNameMatchesFirst() {
+        // Act
+        ProductSearchIndex.SearchHits hits = index.search(List.of("laptop"), 0, 10);
+
+        // Assert
+        assertEquals(List.of(1L, 2L), hits.ids());
+        assertEquals(2, hits.totalHits());
+    }
+
+    @Test
+    void search_ShouldRankProductsMatchingMoreTermsHigher() {
+        // Act
+        ProductSearchIndex.SearchHits hits = index.search(List.of("ergonomic", "laptop"), 0, 10);
+
+        // Assert
+        assertEquals(2L, hits.ids().get(0));
+        assertEquals(2, hits.totalHits());
+    }
+
+    @Test
+    void search_ShouldPageThroughHits() {
+        // Act
+        ProductSearchIndex.SearchHits hits = index.search(List.of("laptop"), 1, 1);
+
+        // Assert
+        assertEquals(List.of(2L), hits.ids());
+        assertEquals(2, hits.totalHits());
+    }
+
+    @Test
+    void search_WithUnknownTerm_ShouldReturnNoHits() {
+        // Act
+        ProductSearchIndex.SearchHits hits = index.search(List.of("tablet"), 0, 10);
+
+        // Assert
+        assertTrue(hits.ids().isEmpty());
+        assertEquals(0, hits.totalHits());
+    }
+
+    @Test
+    void search_WithManyHits_ShouldFindBestMatchInLaterPostingBlocks() {
+        // Arrange
+        for (long id = 100; id < 1100; id++) {
+            index.index(product(id, "Plain Item " + id, "Ordinary widget"));
+        }
+        index.index(product(2000L, "Widget Widget", "Widget"));
+
+        // Act
+        ProductSearchIndex.SearchHits hits = index.search(List.of("widget"), 0, 5);
+
+        // Assert
+        assertEquals(2000L, hits.ids().get(0));
+        assertEquals(List.of(100L, 101L, 102L, 103L), hits.ids().subList(1, 5));
+        assertEquals(1001, hits.totalHits());
+    }
+
+    @Test
+    void index_ShouldReplacePreviousVersionOfProduct() {
+        // Act
+        index.index(product(1L, "Gaming Desktop", "Tower with a fast graphics card"));
+
+        // Assert
+        assertEquals(List.of(2L), index.search(List.of("laptop"), 0, 10).ids());
+        assertEquals(List.of(1L), index.search(List.of("desktop"), 0, 10).ids());
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void remove_ShouldDropProductFromResults() {
+        // Act
+        index.remove(1L);
+
+        // Assert
+        assertEquals(List.of(2L), index.search(List.of("laptop"), 0, 10).ids());
+        assertFalse(index.contains(1L));
+    }
+
+    @Test
+    void remove_ManyProducts_ShouldCompactAndKeepResultsConsistent() {
+        // Arrange
+        for (long id = 100; id < 5100; id++) {
+            index.index(product(id, "Bulk Item " + id, "Filler laptop accessory"));
+        }
+
+        // Act
+        for (long id = 100; id < 5000; id++) {
+            index.remove(id);
+        }
+
+        // Assert
+        ProductSearchIndex.SearchHits hits = index.search(List.of("laptop"), 0, 200);
+        assertEquals(102, hits.totalHits());
+        assertEquals(List.of(1L, 2L), hits.ids().subList(0, 2));
+        assertTrue(hits.ids().containsAll(List.of(5000L, 5099L)));
+        assertEquals(List.of(5042L), index.search(List.of("5042"), 0, 10).ids());
+    }
+
+    private static Product product(Long id, String name, String description) {
+        return new Product(id, name, description, new BigDecimal("10.00"), null, null);
+    }
+}
@@ -1,29 +1,65 @@
 package com.example.productapi.service;
 
+import com.example.productapi.dto.BatchCreateResponse;
+import com.example.productapi.dto.BatchItemResult;
+import com.example.productapi.dto.CursorPage;
 import com.example.productapi.dto.ProductDTO;
+import com.example.productapi.dto.ProductFilter;
+import com.example.productapi.dto.ProductPatchDTO;
+import com.example.productapi.dto.ProductView;
+import com.example.productapi.dto.SlicePage;
+import com.example.productapi.exception.InvalidCursorException;
+import com.example.productapi.exception.InvalidSearchException;
+import com.example.productapi.exception.PreconditionFailedException;
 import com.example.productapi.model.Product;
+import com.example.productapi.model.ProductPatch;
 import com.example.productapi.repository.ProductRepository;
+import com.example.productapi.service.impl.ProductBatchWriter;
+import com.example.productapi.service.impl.ProductCountEstimator;
+import com.example.productapi.service.impl.ProductReadCoalescer;
+import com.example.productapi.service.impl.ProductSearchIndex;
 import com.example.productapi.service.impl.ProductServiceImpl;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -32,6 +68,26 @@ class ProductServiceImplTest {
     @Mock
     private ProductRepository productRepository;
 
+    @Mock
+    private ProductCountEstimator productCountEstimator;
+
+    @Mock
+    private ProductBatchWriter productBatchWriter;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private ProductSearchIndex productSearchIndex;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private ProductReadCoalescer productReadCoalescer = new ProductReadCoalescer(meterRegistry);
+
     @InjectMocks
     private ProductServiceImpl productService;
 
@@ -69,51 +125,124 @@ class ProductServiceImplTest {
         assertEquals(product.getDescription(), createdProduct.getDescription());
         assertEquals(product.getPrice(), createdProduct.getPrice());
         verify(productRepository, times(1)).save(any(Product.class));
+        verify(eventPublisher, times(1)).publishEvent(ProductChangedEvent.saved(product));
     }
 
     @Test
     void getProductById_WithExistingId_ShouldReturnProduct() {
         // Arrange
-        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(productRepository.findViewById(1L)).thenReturn(Optional.of(view(product)));
 
         // Act
-        Product foundProduct = productService.getProductById(1L);
+        ProductView foundProduct = productService.getProductById(1L);
 
         // Assert
         assertNotNull(foundProduct);
-        assertEquals(product.getId(), foundProduct.getId());
-        assertEquals(product.getName(), foundProduct.getName());
-        verify(productRepository, times(1)).findById(1L);
+        assertEquals(product.getId(), foundProduct.id());
+        assertEquals(product.getName(), foundProduct.name());
+        verify(productRepository, times(1)).findViewById(1L);
+        verify(productRepository, never()).findById(any());
     }
 
     @Test
     void getProductById_WithNonExistingId_ShouldThrowException() {
         // Arrange
-        when(productRepository.findById(99L)).thenReturn(Optional.empty());
+        when(productRepository.findViewById(99L)).thenReturn(Optional.empty());
 
         // Act & Assert
         assertThrows(EntityNotFoundException.class, () -> {
             productService.getProductById(99L);
         });
-        verify(productRepository, times(1)).findById(99L);
+        verify(productRepository, times(1)).findViewById(99L);
     }
 
     @Test
     void getAllProducts_ShouldReturnPageOfProducts() {
         // Arrange
-        List<Product> products = Arrays.asList(product);
-        Page<Product> productPage = new PageImpl<>(products);
+        Page<ProductView> productPage = new PageImpl<>(List.of(view(product)));
         Pageable pageable = PageRequest.of(0, 10);
-        when(productRepository.findAll(pageable)).thenReturn(productPage);
+        when(productRepository.findViews(null, pageable)).thenReturn(productPage);
 
         // Act
-        Page<Product> result = productService.getAllProducts(pageable);
+        Page<ProductView> result = productService.getAllProducts(pageable);
 
         // Assert
         assertNotNull(result);
         assertEquals(1, result.getTotalElements());
-        assertEquals(product.getId(), result.getContent().get(0).getId());
-        verify(productRepository, times(1)).findAll(pageable);
+        assertEquals(product.getId(), result.getContent().get(0).id());
+        verify(productRepository, times(1)).findViews(null, pageable);
+        verify(productRepository, never()).findAll(any(Pageable.class));
+    }
+
+    @Test
+    void getProductById_WithConcurrentCallers_ShouldShareOneQuery() throws Exception {
+        // Arrange
+        int callers = 16;
+        CountDownLatch queryReleased = new CountDownLatch(1);
+        when(productRepository.findViewById(1L)).thenAnswer(invocation -> {
+            queryReleased.await(10, TimeUnit.SECONDS);
+            return Optional.of(view(product));
+        });
+
+        AtomicInteger uncacheable = new AtomicInteger();
+
+        // Act
+        List<ProductView> results = callConcurrently(callers, "product", queryReleased, () -> {
+            ProductView result = productService.getProductById(1L);
+            if (productReadCoalescer.joinedLastCall()) {
+                uncacheable.incrementAndGet();
+            }
+            return result;
+        });
+
+        // Assert - Only the caller that ran the query may cache what it read
+        results.forEach(result -> assertEquals(product.getId(), result.id()));
+        verify(productRepository, times(1)).findViewById(1L);
+        assertEquals(1.0, coalescingCount("product", "executed"));
+        assertEquals(callers - 1, coalescingCount("product", "joined"));
+        assertEquals(callers - 1, uncacheable.get());
+    }
+
+    @Test
+    void getAllProducts_WithConcurrentIdenticalQueries_ShouldShareOneQuery() throws Exception {
+        // Arrange
+        int callers = 8;
+        Pageable pageable = PageRequest.of(0, 10, Sort.by("name"));
+        Page<ProductView> productPage = new PageImpl<>(List.of(view(product)));
+        CountDownLatch queryReleased = new CountDownLatch(1);
+        when(productRepository.findViews(null, pageable)).thenAnswer(invocation -> {
+            queryReleased.await(10, TimeUnit.SECONDS);
+            return productPage;
+        });
+        when(productRepository.findViews(null, PageRequest.of(1, 10, Sort.by("name")))).thenReturn(Page.empty());
+
+        // Act
+        List<Page<ProductView>> results = callConcurrently(callers, "page", queryReleased,
+                () -> productService.getAllProducts(PageRequest.of(0, 10, Sort.by("name"))));
+        // A different page is a different query and runs on its own
+        productService.getAllProducts(PageRequest.of(1, 10, Sort.by("name")));
+
+        // Assert
+        results.forEach(result -> assertSame(productPage, result));
+        verify(productRepository, times(1)).findViews(null, pageable);
+        assertEquals(2.0, coalescingCount("page", "executed"));
+        assertEquals(callers - 1, coalescingCount("page", "joined"));
+    }
+
+    @Test
+    void getProductById_WithConcurrentCallersForMissingProduct_ShouldFailThemAllFromOneQuery() throws Exception {
+        // Arrange
+        CountDownLatch queryReleased = new CountDownLatch(1);
+        when(productRepository.findViewById(99L)).thenAnswer(invocation -> {
+            queryReleased.await(10, TimeUnit.SECONDS);
+            return Optional.empty();
+        });
+
+        // Act & Assert
+        Exception thrown = assertThrows(Exception.class, () -> callConcurrently(4, "product", queryReleased,
+                () -> productService.getProductById(99L)));
+        assertInstanceOf(EntityNotFoundException.class, thrown.getCause());
+        verify(productRepository, times(1)).findViewById(99L);
     }
 
     @Test
@@ -128,7 +257,7 @@ class ProductServiceImplTest {
         updateDTO.setPrice(new BigDecimal("199.99"));
 
         // Act
-        Product updatedProduct = productService.updateProduct(1L, updateDTO);
+        Product updatedProduct = productService.updateProduct(1L, updateDTO, null);
 
         // Assert
         assertNotNull(updatedProduct);
@@ -146,36 +275,317 @@ class ProductServiceImplTest {
 
         // Act & Assert
         assertThrows(EntityNotFoundException.class, () -> {
-            productService.updateProduct(99L, productDTO);
+            productService.updateProduct(99L, productDTO, null);
         });
         verify(productRepository, times(1)).findById(99L);
         verify(productRepository, never()).save(any(Product.class));
     }
 
     @Test
-    void deleteProduct_WithExistingId_ShouldDeleteProduct() {
+    void updateProduct_WithStaleExpectedVersion_ShouldThrowPreconditionFailed() {
         // Arrange
+        product.setVersion(4L);
         when(productRepository.findById(1L)).thenReturn(Optional.of(product));
-        doNothing().when(productRepository).delete(product);
+
+        // Act & Assert
+        assertThrows(PreconditionFailedException.class, () -> {
+            productService.updateProduct(1L, productDTO, 3L);
+        });
+        verify(productRepository, never()).save(any(Product.class));
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void patchProduct_WithExistingId_ShouldUpdateOnlySuppliedFieldsWithoutReading() {
+        // Arrange
+        when(productRepository.patch(any(ProductPatch.class), isNull())).thenReturn(1);
+        ProductPatch patch = new ProductPatch(1L, null, false, null, new BigDecimal("49.99"));
 
         // Act
-        productService.deleteProduct(1L);
+        productService.patchProduct(1L, new ProductPatchDTO(null, null, new BigDecimal("49.99")), null);
 
         // Assert
-        verify(productRepository, times(1)).findById(1L);
-        verify(productRepository, times(1)).delete(product);
+        verify(productRepository, times(1)).patch(patch, null);
+        verify(productRepository, never()).findById(any());
+        verify(productRepository, never()).save(any(Product.class));
+        verify(eventPublisher, times(1)).publishEvent(ProductChangedEvent.patched(patch));
+    }
+
+    @Test
+    void patchProduct_WithExplicitNullDescription_ShouldClearIt() {
+        // Arrange
+        when(productRepository.patch(any(ProductPatch.class), isNull())).thenReturn(1);
+        ProductPatchDTO patchDTO = new ProductPatchDTO();
+        patchDTO.setDescription(null);
+
+        // Act
+        productService.patchProduct(1L, patchDTO, null);
+
+        // Assert
+        verify(productRepository, times(1)).patch(new ProductPatch(1L, null, true, null, null), null);
+    }
+
+    @Test
+    void patchProduct_WithNonExistingId_ShouldThrowException() {
+        // Arrange
+        when(productRepository.patch(any(ProductPatch.class), isNull())).thenReturn(0);
+
+        // Act & Assert
+        assertThrows(EntityNotFoundException.class, () -> {
+            productService.patchProduct(99L, new ProductPatchDTO("Renamed", null, null), null);
+        });
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void patchProduct_WithStaleExpectedVersion_ShouldThrowPreconditionFailed() {
+        // Arrange
+        when(productRepository.patch(any(ProductPatch.class), eq(3L))).thenReturn(0);
+        when(productRepository.existsById(1L)).thenReturn(true);
+
+        // Act & Assert
+        assertThrows(PreconditionFailedException.class, () -> {
+            productService.patchProduct(1L, new ProductPatchDTO("Renamed", null, null), 3L);
+        });
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void deleteProduct_WithExpectedVersion_ShouldDeleteOnlyThatVersion() {
+        // Arrange
+        when(productRepository.deleteProductByIdAndVersion(1L, 3L)).thenReturn(0);
+        when(productRepository.existsById(1L)).thenReturn(true);
+        when(productRepository.deleteProductByIdAndVersion(2L, 3L)).thenReturn(0);
+        when(productRepository.existsById(2L)).thenReturn(false);
+
+        // Act & Assert - The row exists with another version
+        assertThrows(PreconditionFailedException.class, () -> productService.deleteProduct(1L, 3L));
+
+        // Act & Assert - The row does not exist at all
+        assertThrows(EntityNotFoundException.class, () -> productService.deleteProduct(2L, 3L));
+        verify(productRepository, never()).deleteProductById(any());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void deleteProduct_WithExistingId_ShouldDeleteProduct() {
+        // Arrange
+        when(productRepository.deleteProductById(1L)).thenReturn(1);
+
+        // Act
+        productService.deleteProduct(1L, null);
+
+        // Assert
+        verify(productRepository, times(1)).deleteProductById(1L);
+        verify(productRepository, never()).findById(any());
+        verify(eventPublisher, times(1)).publishEvent(ProductChangedEvent.deleted(1L));
     }
 
     @Test
     void deleteProduct_WithNonExistingId_ShouldThrowException() {
         // Arrange
-        when(productRepository.findById(99L)).thenReturn(Optional.empty());
+        when(productRepository.deleteProductById(99L)).thenReturn(0);
 
         // Act & Assert
         assertThrows(EntityNotFoundException.class, () -> {
-            productService.deleteProduct(99L);
+            productService.deleteProduct(99L, null);
         });
-        verify(productRepository, times(1)).findById(99L);
-        verify(productRepository, never()).delete(any(Product.class));
+        verify(productRepository, times(1)).deleteProductById(99L);
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void getProductsAfter_WithMoreRows_ShouldReturnNextCursor() {
+        // Arrange
+        Product second = new Product();
+        second.setId(2L);
+        second.setName("Second Product");
+        second.setPrice(new BigDecimal("149.99"));
+        when(productRepository.findAfter(eq("price"), eq(Sort.Direction.ASC), isNull(), isNull(), eq(2)))
+                .thenReturn(Arrays.asList(product, second));
+
+        // Act
+        CursorPage<Product> result = productService.getProductsAfter(null, 1, Sort.by("price"));
+
+        // Assert
+        assertEquals(1, result.getContent().size());
+        assertTrue(result.isHasNext());
+        ProductCursor next = ProductCursor.decode(result.getNextCursor());
+        assertEquals("price", next.property());
+        assertEquals(product.getPrice(), next.lastValue());
+        assertEquals(product.getId(), next.lastId());
+    }
+
+    @Test
+    void getProductsAfter_WithCursor_ShouldSeekFromCursorPosition() {
+        // Arrange
+        String after = new ProductCursor("price", Sort.Direction.DESC, new BigDecimal("99.99"), 1L).encode();
+        when(productRepository.findAfter("price", Sort.Direction.DESC, new BigDecimal("99.99"), 1L, 21))
+                .thenReturn(List.of(product));
+
+        // Act
+        CursorPage<Product> result = productService.getProductsAfter(after, 20, Sort.unsorted());
+
+        // Assert
+        assertEquals(1, result.getContent().size());
+        assertFalse(result.isHasNext());
+        assertNull(result.getNextCursor());
+    }
+
+    @Test
+    void getProductsAfter_WithUnsupportedSort_ShouldThrowException() {
+        // Act & Assert
+        assertThrows(InvalidCursorException.class, () -> {
+            productService.getProductsAfter(null, 20, Sort.by("description"));
+        });
+        verify(productRepository, never()).findAfter(anyString(), any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void getProductsAfter_WithMalformedCursor_ShouldThrowException() {
+        // Act & Assert
+        assertThrows(InvalidCursorException.class, () -> {
+            productService.getProductsAfter("not-a-cursor", 20, Sort.unsorted());
+        });
+    }
+
+    @Test
+    void getProductSlice_WithoutTotal_ShouldNotCount() {
+        // Arrange
+        Pageable pageable = PageRequest.of(0, 1);
+        when(productRepository.findAllBy(pageable)).thenReturn(new SliceImpl<>(List.of(product), pageable, true));
+
+        // Act
+        SlicePage<Product> result = productService.getProductSlice(pageable, false);
+
+        // Assert
+        assertEquals(1, result.getContent().size());
+        assertTrue(result.isHasNext());
+        assertNull(result.getEstimatedTotalElements());
+        verify(productCountEstimator, never()).getEstimatedCount();
+        verify(productRepository, never()).findAll(any(Pageable.class));
+    }
+
+    @Test
+    void getProductSlice_WithTotal_ShouldUseEstimate() {
+        // Arrange
+        Pageable pageable = PageRequest.of(2, 10);
+        when(productRepository.findAllBy(pageable)).thenReturn(new SliceImpl<>(List.of(product), pageable, false));
+        when(productCountEstimator.getEstimatedCount()).thenReturn(21L);
+
+        // Act
+        SlicePage<Product> result = productService.getProductSlice(pageable, true);
+
+        // Assert
+        assertEquals(2, result.getPage());
+        assertEquals(10, result.getSize());
+        assertFalse(result.isHasNext());
+        assertEquals(21L, result.getEstimatedTotalElements());
+    }
+
+    @Test
+    void getProductSlice_WithTotalBeforeFirstEstimate_ShouldLeaveTotalOut() {
+        // Arrange
+        Pageable pageable = PageRequest.of(0, 10);
+        when(productRepository.findAllBy(pageable)).thenReturn(new SliceImpl<>(List.of(product), pageable, false));
+        when(productCountEstimator.getEstimatedCount()).thenReturn(null);
+
+        // Act
+        SlicePage<Product> result = productService.getProductSlice(pageable, true);
+
+        // Assert
+        assertEquals(1, result.getContent().size());
+        assertNull(result.getEstimatedTotalElements());
+    }
+
+    @Test
+    void createProducts_ShouldSummarizePerItemResults() {
+        // Arrange
+        List<ProductDTO> items = List.of(productDTO, new ProductDTO());
+        when(productBatchWriter.validateAndWrite(items)).thenReturn(List.of(
+                BatchItemResult.created(0, 1L),
+                BatchItemResult.failed(1, Map.of("name", "Name is required"))));
+
+        // Act
+        BatchCreateResponse response = productService.createProducts(items);
+
+        // Assert
+        assertEquals(2, response.getTotal());
+        assertEquals(1, response.getSucceeded());
+        assertEquals(1, response.getFailed());
+        assertEquals(BatchItemResult.Status.FAILED, response.getResults().get(1).getStatus());
+        verify(productRepository, never()).save(any(Product.class));
+    }
+
+    @Test
+    void streamProducts_ShouldPassEachProductToConsumerAndDetachIt() {
+        // Arrange
+        ProductFilter filter = new ProductFilter(new BigDecimal("10.00"), null, null, null, null);
+        when(productRepository.streamMatching(any())).thenReturn(Stream.of(product));
+        List<Product> written = new ArrayList<>();
+
+        // Act
+        productService.streamProducts(filter, written::add);
+
+        // Assert
+        assertEquals(List.of(product), written);
+        verify(entityManager, times(1)).detach(product);
+    }
+
+    @Test
+    void searchProducts_ShouldReturnProductsInRankOrder() {
+        // Arrange
+        Product other = new Product(2L, "Other Product", null, new BigDecimal("5.00"), LocalDateTime.now(), 0L);
+        Pageable pageable = PageRequest.of(0, 2);
+        when(productSearchIndex.search(List.of("test", "product"), 0, 2))
+                .thenReturn(new ProductSearchIndex.SearchHits(List.of(2L, 1L), 7));
+        when(productRepository.findAllById(List.of(2L, 1L))).thenReturn(List.of(product, other));
+
+        // Act
+        Page<Product> result = productService.searchProducts("Test, PRODUCT!", pageable);
+
+        // Assert
+        assertEquals(List.of(other, product), result.getContent());
+        assertEquals(7, result.getTotalElements());
+    }
+
+    @Test
+    void searchProducts_WithoutWords_ShouldThrowException() {
+        // Act & Assert
+        assertThrows(InvalidSearchException.class, () -> productService.searchProducts(" -- ", PageRequest.of(0, 20)));
+        verifyNoInteractions(productSearchIndex);
+    }
+
+    private static ProductView view(Product product) {
+        return new ProductView(product.getId(), product.getName(), product.getDescription(),
+                product.getPrice(), product.getCreatedAt(), product.getVersion());
+    }
+
+    // Starts the callers together and releases the query only once all but the leader are waiting on it
+    private <T> List<T> callConcurrently(int callers, String operation, CountDownLatch queryReleased, Supplier<T> call)
+            throws Exception {
+        List<CompletableFuture<T>> futures = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(callers)) {
+            for (int i = 0; i < callers; i++) {
+                futures.add(CompletableFuture.supplyAsync(call, executor));
+            }
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (coalescingCount(operation, "joined") < callers - 1 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            queryReleased.countDown();
+        }
+        List<T> results = new ArrayList<>();
+        for (CompletableFuture<T> future : futures) {
+            results.add(future.get());
+        }
+        return results;
+    }
+
+    private double coalescingCount(String operation, String outcome) {
+        Counter counter = meterRegistry.find("productapi.coalescing.calls")
+                .tags("operation", operation, "outcome", outcome)
+                .counter();
+        return counter != null ? counter.count() : 0;
     }
 }